@@ -0,0 +1,104 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The `BenchmarkCorpus` class generates the crosswords used by the benchmarks.
+ *
+ * <p>The corpus is derived from the example crossword of `MathCrossword`: it is solved once, and
+ * then a share of its digits is replaced by unknown cells. The more digits are removed, the
+ * harder the crossword. Since every crossword is derived from a solution, all of them are
+ * satisfiable. The same seed always yields the same corpus.
+ */
+final class BenchmarkCorpus {
+
+  private BenchmarkCorpus() {
+  }
+
+  /**
+   * Returns the share of digits removed for a difficulty.
+   *
+   * @param difficulty one of `example`, `easy`, `medium` and `hard`
+   * @return the share of given digits to remove, or a negative value for the example itself
+   */
+  private static double removedShare(String difficulty) {
+    switch (difficulty) {
+      case "example":
+        return -1;
+      case "easy":
+        return 0.25;
+      case "medium":
+        return 0.5;
+      case "hard":
+        return 0.75;
+      default:
+        throw new IllegalArgumentException("Unknown difficulty " + difficulty);
+    }
+  }
+
+  /**
+   * Generates crosswords of the given difficulty.
+   *
+   * @param difficulty one of `example`, `easy`, `medium` and `hard`
+   * @param count      the number of crosswords
+   * @param seed       the seed of the random choice of removed digits
+   * @return the crosswords in the format of `MathCrossword.input`
+   */
+  static List<String> generate(String difficulty, int count, long seed) {
+    double share = removedShare(difficulty);
+    List<String> corpus = new ArrayList<>();
+    if (share < 0) {
+      for (int i = 0; i < count; i++) {
+        corpus.add(MathCrossword.input);
+      }
+      return corpus;
+    }
+
+    char[][] solved = solvedExample();
+    Random random = new Random(seed);
+    for (int i = 0; i < count; i++) {
+      StringBuilder puzzle = new StringBuilder();
+      for (int row = 0; row < solved.length; row++) {
+        for (int col = 0; col < solved[row].length; col++) {
+          char cell = solved[row][col];
+          boolean single = Character.isDigit(cell) && !isDigit(solved, row, col - 1)
+              && !isDigit(solved, row, col + 1) && !isDigit(solved, row - 1, col)
+              && !isDigit(solved, row + 1, col);
+          puzzle.append(single && random.nextDouble() < share ? '_' : cell);
+        }
+        puzzle.append('\n');
+      }
+      corpus.add(puzzle.toString());
+    }
+    return corpus;
+  }
+
+  /**
+   * Solves the example crossword with the native solver.
+   *
+   * @return the cells of the solved example
+   */
+  private static char[][] solvedExample() {
+    Crossword crossword = new Crossword(MathCrossword.input);
+    crossword.parseCrossword();
+    Map<String, Integer> solution = new NativeSolver().solve(crossword)
+        .orElseThrow(() -> new IllegalStateException("The example is unsatisfiable"));
+    crossword.updateVariables(solution);
+    crossword.replaceVariablesWithValues();
+    String[] rows = crossword.toString().split("\n");
+    char[][] cells = new char[rows.length][];
+    for (int i = 0; i < rows.length; i++) {
+      cells[i] = rows[i].toCharArray();
+    }
+    return cells;
+  }
+
+  /**
+   * Checks whether a cell exists and holds a digit.
+   */
+  private static boolean isDigit(char[][] cells, int row, int col) {
+    return row >= 0 && row < cells.length && col >= 0 && col < cells[row].length
+        && Character.isDigit(cells[row][col]);
+  }
+}
@@ -0,0 +1,55 @@
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the parsing phase: building a `Crossword` from its text and extracting its
+ * variables and equations with `parseCrossword`.
+ * The crosswords are taken round-robin from a corpus of the given difficulty.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+  @Param({"example", "easy", "medium", "hard"})
+  public String difficulty;
+
+  private List<String> corpus;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    corpus = BenchmarkCorpus.generate(difficulty, 64, 42);
+  }
+
+  private String nextPuzzle() {
+    next = (next + 1) % corpus.size();
+    return corpus.get(next);
+  }
+
+  @Benchmark
+  public Crossword construct() {
+    return new Crossword(nextPuzzle());
+  }
+
+  @Benchmark
+  public Crossword constructAndParse() {
+    Crossword crossword = new Crossword(nextPuzzle());
+    crossword.parseCrossword();
+    return crossword;
+  }
+}
@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Benchmarks formula generation and end-to-end solving per backend.
+ *
+ * <p>The backend `NATIVE` is the built-in `NativeSolver`, every other value names a JavaSMT
+ * backend of `SolverContextFactory.Solvers`. A backend whose library is not available on the
+ * current platform fails in the setup, so restrict the run with `-p backend=...` as needed.
+ * Every JavaSMT backend keeps a warm `SmtSolver` for the whole trial, so the benchmark measures
+ * solving and not starting the solver. Formula generation is not measured for `NATIVE`, which
+ * also ignores the encoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+
+  @Param({"NATIVE", "PRINCESS", "Z3", "SMTINTERPOL"})
+  public String backend;
+
+  @Param({"INTEGER", "BITVECTOR"})
+  public String encoding;
+
+  @Param({"example", "easy", "medium", "hard"})
+  public String difficulty;
+
+  private CrosswordSolver solver;
+  private List<Crossword> corpus;
+  private int next;
+
+  @Setup
+  public void setUp() throws Exception {
+    if (backend.equals("NATIVE")) {
+      solver = new NativeSolver();
+    } else {
+      Configuration config = Configuration.defaultConfiguration();
+      solver = new SmtSolver(config, LogManager.createNullLogManager(),
+          ShutdownManager.create().getNotifier(), Solvers.valueOf(backend),
+          Encoding.valueOf(encoding));
+    }
+    corpus = new ArrayList<>();
+    for (String puzzle : BenchmarkCorpus.generate(difficulty, 64, 42)) {
+      Crossword crossword = new Crossword(puzzle);
+      crossword.parseCrossword();
+      corpus.add(crossword);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    solver.close();
+  }
+
+  private Crossword nextCrossword() {
+    next = (next + 1) % corpus.size();
+    return corpus.get(next);
+  }
+
+  @Benchmark
+  public List<BooleanFormula> generateBooleanFormulas() throws Exception {
+    if (!(solver instanceof SmtSolver)) {
+      return List.of();
+    }
+    Crossword crossword = nextCrossword();
+    SmtSolver smtSolver = (SmtSolver) solver;
+    smtSolver.generateVariables(crossword.getVariableCount());
+    return smtSolver.generateBooleanFormulas(crossword.getEquations());
+  }
+
+  @Benchmark
+  public Optional<Map<String, Integer>> solve() throws Exception {
+    return solver.solve(nextCrossword());
+  }
+}
@@ -0,0 +1,97 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the time to the first solution of a fresh JVM: every invocation starts
+ * `MathCrossword` in a new process and stops the clock when the first line of the solved grid
+ * is printed.
+ *
+ * <p>The options `default` (no arguments), `native` and `smt` (the default SMT backend,
+ * Princess, without presolving) select what is loaded. The process runs on the class path of
+ * the benchmark unless `classpath` is given; a class data sharing archive created by
+ * `scripts/create-cds-archive.sh` is used with `-p archive=FILE`, together with the class path
+ * it was created for, printed by the script with `--print-classpath`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 20, time = 1)
+@Fork(1)
+public class StartupBenchmark {
+  private static final String SEPARATOR = "--------------";
+
+  @Param({"default", "native", "smt"})
+  public String options;
+
+  @Param({""})
+  public String archive;
+
+  @Param({""})
+  public String classpath;
+
+  /**
+   * Returns the command line of the process.
+   */
+  private List<String> command() {
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    if (!archive.isEmpty()) {
+      command.add("-XX:SharedArchiveFile=" + archive);
+    }
+    command.add("-cp");
+    command.add(classpath.isEmpty() ? System.getProperty("java.class.path") : classpath);
+    command.add("MathCrossword");
+    switch (options) {
+      case "default":
+        break;
+      case "native":
+        command.add("--crossword.mode=native");
+        break;
+      case "smt":
+        command.add("--crossword.presolve=false");
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown options " + options);
+    }
+    return command;
+  }
+
+  @Benchmark
+  public String timeToFirstSolution() throws IOException, InterruptedException {
+    Process process = new ProcessBuilder(command())
+        .redirectError(ProcessBuilder.Redirect.DISCARD)
+        .start();
+    try (BufferedReader out = new BufferedReader(
+        new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII))) {
+      String line;
+      boolean solving = false;
+      while ((line = out.readLine()) != null) {
+        if (solving) {
+          return line;
+        }
+        solving = line.equals(SEPARATOR);
+      }
+      throw new IllegalStateException("No solution, exit code " + process.waitFor());
+    } finally {
+      process.destroy();
+      process.waitFor();
+    }
+  }
+}
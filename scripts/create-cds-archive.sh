@@ -0,0 +1,32 @@
+#!/bin/sh
+# Creates a class data sharing archive (AppCDS) of MathCrossword from a training run.
+#
+# The training run solves the example crossword with the given options and archives every
+# class it loaded, from the JDK, lib/ and the jar. Later runs with the same class path map the
+# archive instead of loading and verifying those classes again:
+#
+#   java -XX:SharedArchiveFile=out/artifacts/MathCrossword_jar/MathCrossword.jsa \
+#        -cp "$(scripts/create-cds-archive.sh --print-classpath)" MathCrossword
+#
+# Pass the options of the typical invocation, e.g. --crossword.presolve=false to include the
+# classes of the SMT backend. The archive only fits the JDK that created it. Set JAR or
+# ARCHIVE to change the paths.
+set -e
+cd "$(dirname "$0")/.."
+JAR=${JAR:-out/artifacts/MathCrossword_jar/MathCrossword.jar}
+ARCHIVE=${ARCHIVE:-out/artifacts/MathCrossword_jar/MathCrossword.jsa}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+# CDS needs the same explicit list of jars at run time, so no wildcard is used.
+CLASSPATH=$JAR
+for library in lib/*.jar; do
+  case $library in
+    *-sources.jar|*-javadoc.jar) ;;
+    *) CLASSPATH=$CLASSPATH:$library ;;
+  esac
+done
+if [ "$1" = "--print-classpath" ]; then
+  echo "$CLASSPATH"
+  exit 0
+fi
+"$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$CLASSPATH" MathCrossword "$@" > /dev/null
+echo "Created $ARCHIVE"
@@ -0,0 +1,268 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * The `BatchSolver` class solves a stream of crosswords on a bounded pool of worker threads.
+ *
+ * <p>Every crossword is parsed with `Crossword` and solved with a shared `CrosswordSolver`,
+ * which therefore must be safe to use from several threads, like `NativeSolver` or
+ * `SmtSolverPool`. At most a fixed number of crosswords is in flight at any time, so the input
+ * is consumed lazily and memory use does not depend on the number of crosswords.
+ * The results are passed to a consumer either in input order or as soon as they are ready.
+ *
+ * @see PuzzleReader
+ */
+public class BatchSolver implements AutoCloseable {
+  private final CrosswordSolver solver;
+  private final ExecutorService workers;
+  private final int window;
+  private final SolverMetrics metrics;
+
+  /**
+   * The outcome of solving a crossword of the batch.
+   */
+  public enum Status {
+    SOLVED,
+    UNSATISFIABLE,
+    TIMEOUT,
+    FAILED
+  }
+
+  /**
+   * The result of solving one crossword of the batch.
+   */
+  public static class Result {
+    private final long index;
+    private final String puzzle;
+    private final Status status;
+    private final Crossword crossword;
+    private final Exception error;
+
+    Result(long index, String puzzle, Status status, Crossword crossword, Exception error) {
+      this.index = index;
+      this.puzzle = puzzle;
+      this.status = status;
+      this.crossword = crossword;
+      this.error = error;
+    }
+
+    /**
+     * Returns the position of the crossword in the input, starting at 0.
+     *
+     * @return the index of the crossword
+     */
+    public long getIndex() {
+      return index;
+    }
+
+    /**
+     * Returns the crossword as it was given, if it was given as text.
+     *
+     * @return the unsolved crossword or null
+     */
+    public String getPuzzle() {
+      return puzzle;
+    }
+
+    /**
+     * Returns the outcome of solving the crossword.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+      return status;
+    }
+
+    /**
+     * Returns the solved crossword, only present if the status is `SOLVED`.
+     *
+     * @return the solved crossword or null
+     */
+    public Crossword getCrossword() {
+      return crossword;
+    }
+
+    /**
+     * Returns the error that occurred, only present if the status is `FAILED` or `TIMEOUT`. An
+     * `Error` thrown while solving is wrapped in an `ExecutionException`.
+     *
+     * @return the error or null
+     */
+    public Exception getError() {
+      return error;
+    }
+  }
+
+  /**
+   * Constructs a batch solver with the given number of worker threads.
+   *
+   * @param solver  the thread-safe solver shared by all workers
+   * @param threads the number of worker threads, or 0 for one per available core
+   */
+  public BatchSolver(CrosswordSolver solver, int threads) {
+    this(solver, threads, SolverMetrics.NONE);
+  }
+
+  /**
+   * Constructs a batch solver with the given number of worker threads that reports the time of
+   * parsing every crossword to the given metrics.
+   *
+   * @param solver  the thread-safe solver shared by all workers
+   * @param threads the number of worker threads, or 0 for one per available core
+   * @param metrics the metrics of the phase `PARSE`
+   */
+  public BatchSolver(CrosswordSolver solver, int threads, SolverMetrics metrics) {
+    this.metrics = metrics;
+    int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.solver = solver;
+    this.workers = Executors.newFixedThreadPool(size);
+    this.window = 4 * size;
+  }
+
+  /**
+   * Solves all given crosswords and passes each result to the consumer.
+   * The consumer is never called concurrently. Returns once every result has been consumed.
+   * An exception thrown by the consumer stops the batch and is thrown once the crosswords in
+   * flight are done.
+   *
+   * @param puzzles  the crosswords to solve, iterated lazily
+   * @param ordered  whether the results are consumed in input order
+   * @param consumer the consumer of the results
+   * @throws InterruptedException if waiting for the workers is interrupted
+   */
+  public void solveAll(Iterable<String> puzzles, boolean ordered, Consumer<Result> consumer)
+      throws InterruptedException {
+    run(puzzles, ordered, consumer, (index, puzzle) -> solveOne(index, puzzle, null));
+  }
+
+  /**
+   * Solves all given unparsed crosswords, e.g. from a `PuzzleChannelReader`, and passes each
+   * result to the consumer. The crosswords are parsed by the workers. The results have no
+   * puzzle text. An exception thrown by the consumer stops the batch as for `solveAll`.
+   *
+   * @param crosswords the crosswords to solve, iterated lazily
+   * @param ordered    whether the results are consumed in input order
+   * @param consumer   the consumer of the results
+   * @throws InterruptedException if waiting for the workers is interrupted
+   */
+  public void solveCrosswords(Iterable<Crossword> crosswords, boolean ordered,
+                              Consumer<Result> consumer) throws InterruptedException {
+    run(crosswords, ordered, consumer, (index, crossword) -> solveOne(index, null, crossword));
+  }
+
+  /**
+   * Solves all inputs on the workers, keeping at most `window` of them in flight. If the
+   * consumer throws, no further result is consumed and no further input is read; the first
+   * failure is thrown once the inputs in flight are done.
+   *
+   * @param inputs   the inputs to solve, iterated lazily
+   * @param ordered  whether the results are consumed in input order
+   * @param consumer the consumer of the results
+   * @param solver   solves one input given its index
+   * @throws InterruptedException if waiting for the workers is interrupted
+   */
+  private <T> void run(Iterable<T> inputs, boolean ordered, Consumer<Result> consumer,
+                       BiFunction<Long, T, Result> solver) throws InterruptedException {
+    Semaphore permits = new Semaphore(window);
+    Map<Long, Result> pending = new HashMap<>();
+    long[] nextIndex = {0};
+    Throwable[] failure = {null};
+    Consumer<Result> consume = result -> {
+      try {
+        if (failure[0] == null) {
+          consumer.accept(result);
+        }
+      } catch (RuntimeException | Error e) {
+        failure[0] = e;
+      } finally {
+        permits.release();
+      }
+    };
+    Consumer<Result> emit = result -> {
+      synchronized (pending) {
+        if (!ordered) {
+          consume.accept(result);
+          return;
+        }
+        pending.put(result.getIndex(), result);
+        Result next;
+        while ((next = pending.remove(nextIndex[0])) != null) {
+          nextIndex[0]++;
+          consume.accept(next);
+        }
+      }
+    };
+
+    long index = 0;
+    for (T input : inputs) {
+      permits.acquire();
+      synchronized (pending) {
+        if (failure[0] != null) {
+          permits.release();
+          break;
+        }
+      }
+      long inputIndex = index++;
+      workers.execute(() -> emit.accept(solver.apply(inputIndex, input)));
+    }
+    permits.acquire(window);
+    permits.release(window);
+    synchronized (pending) {
+      if (failure[0] instanceof RuntimeException) {
+        throw (RuntimeException) failure[0];
+      } else if (failure[0] != null) {
+        throw (Error) failure[0];
+      }
+    }
+  }
+
+  /**
+   * Parses and solves a single crossword, turning any failure into a result.
+   *
+   * @param index     the position of the crossword in the input
+   * @param puzzle    the crossword to solve as text, or null
+   * @param crossword the unparsed crossword to solve, or null to create it from the text
+   * @return the result of solving the crossword
+   */
+  private Result solveOne(long index, String puzzle, Crossword crossword) {
+    try {
+      if (crossword == null) {
+        crossword = new Crossword(puzzle);
+      }
+      long start = System.nanoTime();
+      crossword.parseCrossword();
+      metrics.recordPhase(SolverMetrics.Phase.PARSE, System.nanoTime() - start);
+      Optional<int[]> solution = solver.solveValues(crossword);
+      if (solution.isEmpty()) {
+        return new Result(index, puzzle, Status.UNSATISFIABLE, null, null);
+      }
+      crossword.updateVariables(solution.get());
+      return new Result(index, puzzle, Status.SOLVED, crossword, null);
+    } catch (SolverTimeoutException e) {
+      return new Result(index, puzzle, Status.TIMEOUT, null, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new Result(index, puzzle, Status.FAILED, null, e);
+    } catch (Exception e) {
+      return new Result(index, puzzle, Status.FAILED, null, e);
+    } catch (Error e) {
+      // e.g. a StackOverflowError of a deep search, which fails only this crossword
+      return new Result(index, puzzle, Status.FAILED, null, new ExecutionException(e));
+    }
+  }
+
+  /**
+   * Stops the worker threads. The shared solver is not closed.
+   */
+  @Override
+  public void close() {
+    workers.shutdownNow();
+  }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.List;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+
+/**
+ * The `BitvectorEncoder` class encodes every cell as a 4-bit unsigned bit-vector, which is
+ * enough for the digits 0 to 9, so the crossword can be solved by bit-blasting backends.
+ *
+ * <p>Each equation is evaluated in its own width, chosen from the largest values its operands
+ * can take, so that no intermediate result can overflow. The operands are zero-extended to that
+ * width. Subtraction and division are encoded without the corresponding bit-vector operations:
+ * `a - b = c` as `a = b + c`, which excludes negative results, and `a / b = c` as
+ * `b != 0 && a = b * c`, which is exact division.
+ */
+public class BitvectorEncoder implements CrosswordEncoder {
+  private static final int DIGIT_WIDTH = 4;
+  private static final int MAX_DIGIT = 9;
+  private final BitvectorFormulaManager bvmgr;
+  private final BooleanFormulaManager bmgr;
+  private final List<BitvectorFormula> variables = new ArrayList<>();
+
+  /**
+   * Constructs an encoder on top of the given formula managers.
+   *
+   * @param bvmgr the bit-vector formula manager of the solver context
+   * @param bmgr  the boolean formula manager of the solver context
+   */
+  public BitvectorEncoder(BitvectorFormulaManager bvmgr, BooleanFormulaManager bmgr) {
+    this.bvmgr = bvmgr;
+    this.bmgr = bmgr;
+  }
+
+  @Override
+  public List<BooleanFormula> declareVariables(int variableCount) {
+    List<BooleanFormula> domains = new ArrayList<>();
+    BitvectorFormula nine = bvmgr.makeBitvector(DIGIT_WIDTH, MAX_DIGIT);
+    for (int i = variables.size(); i < variableCount; i++) {
+      BitvectorFormula formula = bvmgr.makeVariable(DIGIT_WIDTH, Equation.nameOf(i));
+      variables.add(formula);
+      domains.add(bvmgr.lessOrEquals(formula, nine, false));
+    }
+    return domains;
+  }
+
+  @Override
+  public BooleanFormula encode(Equation equation) {
+    int a = equation.getLeft();
+    int b = equation.getRight();
+    int c = equation.getResult();
+    int width;
+
+    switch (equation.getOperator()) {
+      case '+':
+        width = widthOf(Math.max(maxOf(a) + maxOf(b), maxOf(c)));
+        return bvmgr.equal(bvmgr.add(formulaOf(a, width), formulaOf(b, width)),
+            formulaOf(c, width));
+      case '-':
+        width = widthOf(Math.max(maxOf(a), maxOf(b) + maxOf(c)));
+        return bvmgr.equal(formulaOf(a, width),
+            bvmgr.add(formulaOf(b, width), formulaOf(c, width)));
+      case '*':
+        width = widthOf(Math.max(maxOf(a) * maxOf(b), maxOf(c)));
+        return bvmgr.equal(bvmgr.multiply(formulaOf(a, width), formulaOf(b, width)),
+            formulaOf(c, width));
+      case '/':
+        width = widthOf(Math.max(maxOf(a), maxOf(b) * maxOf(c)));
+        BitvectorFormula divisor = formulaOf(b, width);
+        return bmgr.and(
+            bvmgr.greaterThan(divisor, bvmgr.makeBitvector(width, 0), false),
+            bvmgr.equal(formulaOf(a, width), bvmgr.multiply(divisor, formulaOf(c, width))));
+      default:
+        throw new IllegalArgumentException("Unknown operation in " + equation);
+    }
+  }
+
+  @Override
+  public BooleanFormula hasValue(int variable, int value) {
+    return bvmgr.equal(variables.get(variable), bvmgr.makeBitvector(DIGIT_WIDTH, value));
+  }
+
+  @Override
+  public int evaluate(Model model, int variable) {
+    return model.evaluate(variables.get(variable)).intValue();
+  }
+
+  /**
+   * Returns the largest value an operand can take.
+   *
+   * @param operand the operand as encoded by `Equation`
+   * @return the value of a constant, or 9 for a variable
+   */
+  private static long maxOf(int operand) {
+    return Equation.isConstant(operand) ? Equation.constantValue(operand) : MAX_DIGIT;
+  }
+
+  /**
+   * Returns the number of bits needed to represent all values up to the given one.
+   *
+   * @param max the largest value
+   * @return the width, at least the width of a digit
+   */
+  private static int widthOf(long max) {
+    return Math.max(DIGIT_WIDTH, Long.SIZE - Long.numberOfLeadingZeros(max));
+  }
+
+  /**
+   * Returns the formula of an operand in the given width.
+   *
+   * @param operand the operand as encoded by `Equation`
+   * @param width   the width of the equation
+   * @return the numeral, or the zero-extended variable
+   */
+  private BitvectorFormula formulaOf(int operand, int width) {
+    if (Equation.isConstant(operand)) {
+      return bvmgr.makeBitvector(width, Equation.constantValue(operand));
+    }
+    BitvectorFormula variable = variables.get(operand);
+    return width > DIGIT_WIDTH ? bvmgr.extend(variable, width - DIGIT_WIDTH, false) : variable;
+  }
+}
@@ -0,0 +1,268 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `CachingSolver` class answers repeated crosswords from a `SolutionCache` instead of solving
+ * them again.
+ *
+ * <p>A whole crossword is looked up by its formatted grid, as returned by `Crossword.toString`.
+ * On a miss, it is split into the components of the `EquationGraph`, and every component is
+ * looked up on its own by a canonical fingerprint, in which the variables are renamed in the
+ * order of their first occurrence. Equal groups of equations at different places of different
+ * grids thus share one entry, and a grid that partly overlaps a solved one only solves the
+ * components that are new. The new components are renamed to the variables `x_1` to `x_k` and
+ * passed to the delegate in a single call, so a `DecomposingSolver` still solves them in
+ * parallel. An unsatisfiable component is only cached if it was the only new one.
+ *
+ * <p>Both fingerprints start with the division the delegate reads, exact or integer division,
+ * since a crossword like `7/2=_` is unsatisfiable with the one and solvable with the other, and
+ * a cache directory may be shared by runs with different solvers.
+ *
+ * <p>The solver is thread-safe if the delegate is.
+ *
+ * @see SolutionCache
+ */
+public class CachingSolver implements CrosswordSolver {
+  private static final String GRID = "grid\n";
+  private static final String COMPONENT = "equations\n";
+  private final CrosswordSolver delegate;
+  private final SolutionCache cache;
+  private final String division;
+
+  /**
+   * Constructs a solver that caches the solutions of a delegate that reads division as exact.
+   *
+   * @param delegate the solver of new crosswords, closed together with this solver
+   * @param cache    the cache of the solutions, may be shared with other solvers
+   */
+  public CachingSolver(CrosswordSolver delegate, SolutionCache cache) {
+    this(delegate, cache, true);
+  }
+
+  /**
+   * Constructs a solver that caches the solutions of the delegate.
+   *
+   * @param delegate      the solver of new crosswords, closed together with this solver
+   * @param cache         the cache of the solutions, may be shared with other solvers
+   * @param exactDivision whether the delegate reads division as exact, or else as integer
+   *                      division
+   */
+  public CachingSolver(CrosswordSolver delegate, SolutionCache cache, boolean exactDivision) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.division = exactDivision ? "exact\n" : "integer\n";
+  }
+
+  /**
+   * Returns the cache of the solutions.
+   *
+   * @return the cache
+   */
+  public SolutionCache getCache() {
+    return cache;
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(Crossword crossword)
+      throws SolverException, InterruptedException {
+    String fingerprint = division + GRID + crossword.toString();
+    int variableCount = crossword.getVariableCount();
+    SolutionCache.Entry entry = cache.get(fingerprint);
+    if (entry != null) {
+      return entry.isSatisfiable() ? Optional.of(toMap(entry.getValues())) : Optional.empty();
+    }
+
+    Optional<Map<String, Integer>> solution = solve(crossword.getEquations(), variableCount);
+    if (solution.isEmpty()) {
+      cache.put(fingerprint, null);
+    } else {
+      int[] values = new int[variableCount];
+      for (int i = 0; i < variableCount; i++) {
+        values[i] = solution.get().getOrDefault(Equation.nameOf(i), 0);
+      }
+      cache.put(fingerprint, values);
+    }
+    return solution;
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solve(equations, variableCount, ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Solves the groups of equations that are not cached, passing the notifier on to the
+   * delegate.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the delegate fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    Map<String, Integer> variableValues = new HashMap<>();
+    for (int i = 0; i < variableCount; i++) {
+      variableValues.put(Equation.nameOf(i), 0);
+    }
+
+    List<Canonical> misses = new ArrayList<>();
+    int missingVariables = 0;
+    for (List<Equation> component : EquationGraph.components(equations, variableCount)) {
+      Canonical canonical = new Canonical(component, division);
+      SolutionCache.Entry entry = cache.get(canonical.fingerprint);
+      if (entry == null) {
+        canonical.offset = missingVariables;
+        missingVariables += canonical.variables.size();
+        misses.add(canonical);
+      } else if (!entry.isSatisfiable()) {
+        return Optional.empty();
+      } else {
+        canonical.copyValues(entry.getValues(), variableValues);
+      }
+    }
+    if (misses.isEmpty()) {
+      return Optional.of(variableValues);
+    }
+
+    List<Equation> renamed = new ArrayList<>();
+    for (Canonical canonical : misses) {
+      canonical.appendRenamed(renamed);
+    }
+    Optional<Map<String, Integer>> solution = delegate.solve(renamed, missingVariables, notifier);
+    if (solution.isEmpty()) {
+      if (misses.size() == 1) {
+        cache.put(misses.get(0).fingerprint, null);
+      }
+      return Optional.empty();
+    }
+    for (Canonical canonical : misses) {
+      int[] values = new int[canonical.variables.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = solution.get().get(Equation.nameOf(canonical.offset + i));
+      }
+      cache.put(canonical.fingerprint, values);
+      canonical.copyValues(values, variableValues);
+    }
+    return Optional.of(variableValues);
+  }
+
+  /**
+   * Converts the values of the variables `x_1` to `x_n` into a solution.
+   *
+   * @param values the values by variable index
+   * @return the solution
+   */
+  private static Map<String, Integer> toMap(int[] values) {
+    Map<String, Integer> variableValues = new HashMap<>();
+    for (int i = 0; i < values.length; i++) {
+      variableValues.put(Equation.nameOf(i), values[i]);
+    }
+    return variableValues;
+  }
+
+  /**
+   * A component of the equation graph with its variables numbered in the order of their first
+   * occurrence.
+   */
+  private static final class Canonical {
+    private final List<Equation> equations;
+    private final List<Integer> variables = new ArrayList<>();
+    private final Map<Integer, Integer> number = new HashMap<>();
+    private final String fingerprint;
+    private int offset;
+
+    Canonical(List<Equation> equations, String division) {
+      this.equations = equations;
+      StringBuilder sb = new StringBuilder(division).append(COMPONENT);
+      for (Equation equation : equations) {
+        append(sb, equation.getLeft());
+        sb.append(equation.getOperator());
+        append(sb, equation.getRight());
+        sb.append('=');
+        append(sb, equation.getResult());
+        sb.append('\n');
+      }
+      this.fingerprint = sb.toString();
+    }
+
+    /**
+     * Appends an operand to the fingerprint, numbering a variable on its first occurrence.
+     */
+    private void append(StringBuilder sb, int operand) {
+      if (Equation.isConstant(operand)) {
+        sb.append(Equation.constantValue(operand));
+        return;
+      }
+      Integer index = number.get(operand);
+      if (index == null) {
+        index = variables.size();
+        variables.add(operand);
+        number.put(operand, index);
+      }
+      sb.append('_').append(index + 1);
+    }
+
+    /**
+     * Appends the equations with the variables renamed to `x_(offset + 1)` and onwards.
+     */
+    void appendRenamed(List<Equation> renamed) {
+      for (Equation equation : equations) {
+        renamed.add(new Equation(rename(equation.getLeft()), equation.getOperator(),
+            rename(equation.getRight()), rename(equation.getResult()), equation.getRow(),
+            equation.getColumn(), equation.isHorizontal()));
+      }
+    }
+
+    private int rename(int operand) {
+      return Equation.isConstant(operand) ? operand : offset + number.get(operand);
+    }
+
+    /**
+     * Copies the values, given in the order of first occurrence, to the original variables.
+     */
+    void copyValues(int[] values, Map<String, Integer> variableValues) {
+      for (int i = 0; i < variables.size(); i++) {
+        variableValues.put(Equation.nameOf(variables.get(i)), values[i]);
+      }
+    }
+  }
+
+  /**
+   * Enumerates the solutions with the delegate. Enumerated solutions are not cached.
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return delegate.enumerate(equations, variableCount, limit, consumer);
+  }
+
+  /**
+   * Finds the conflicting equations with the delegate. Nothing is cached.
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return delegate.unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Closes the delegate. The cache stays usable.
+   */
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
@@ -0,0 +1,257 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The `CanonicalForm` class renames the variables of a set of equations so that equivalent
+ * sets get the same form, independent of the order of the equations and of the names of their
+ * variables. A grid and its transpose, or two grids with the same equations at other places,
+ * thus have the same `getKey`.
+ *
+ * <p>The variables are numbered by color refinement of the graph of equations and variables.
+ * An equation is first colored by its operator, its constants and which of its operands are
+ * the same variable, and all variables alike. Then every equation is colored by the colors of
+ * its variables, and every variable by the colors and positions of the equations it occurs in,
+ * until no color splits any further. Variables that still share a color are told apart one at
+ * a time, the one with the lowest index first, and the colors are refined again. The key lists
+ * the renamed equations in sorted order.
+ *
+ * <p>Equal keys always mean equivalent equations, so a solution of the form is a solution of
+ * every set with the same key once it is mapped back by `mapBack`. Telling apart variables by
+ * their index is not canonical for graphs in which refinement cannot distinguish variables that
+ * are not symmetric, so such equivalent sets may get different keys, which only costs solving
+ * both. Variables that occur in no equation are not part of the form.
+ */
+public final class CanonicalForm {
+  private final String key;
+  private final List<Equation> equations;
+  private final int[] renamed;
+  private final int variableCount;
+
+  private CanonicalForm(String key, List<Equation> equations, int[] renamed,
+                        int variableCount) {
+    this.key = key;
+    this.equations = equations;
+    this.renamed = renamed;
+    this.variableCount = variableCount;
+  }
+
+  /**
+   * Computes the canonical form of a set of equations.
+   *
+   * @param equations     the equations
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the canonical form
+   */
+  public static CanonicalForm of(List<Equation> equations, int variableCount) {
+    int[][] operands = new int[equations.size()][];
+    List<List<Integer>> occurrences = new ArrayList<>(variableCount);
+    for (int v = 0; v < variableCount; v++) {
+      occurrences.add(new ArrayList<>());
+    }
+    for (int e = 0; e < operands.length; e++) {
+      operands[e] = EquationGraph.operandsOf(equations.get(e));
+      for (int position = 0; position < 3; position++) {
+        int operand = operands[e][position];
+        if (!Equation.isConstant(operand)) {
+          occurrences.get(operand).add(e * 3 + position);
+        }
+      }
+    }
+
+    String[] shapes = new String[operands.length];
+    for (int e = 0; e < operands.length; e++) {
+      shapes[e] = shapeOf(equations.get(e).getOperator(), operands[e]);
+    }
+    int[] equationColors = new int[operands.length];
+    rank(shapes, equationColors);
+    int[] variableColors = new int[variableCount];
+    int used = 0;
+    for (int v = 0; v < variableCount; v++) {
+      if (occurrences.get(v).isEmpty()) {
+        variableColors[v] = -1;
+      } else {
+        used++;
+      }
+    }
+
+    int colors = refine(operands, occurrences, equationColors, variableColors);
+    while (colors < used) {
+      variableColors[firstTied(variableColors)] = -2;
+      colors = refine(operands, occurrences, equationColors, variableColors);
+    }
+
+    List<Equation> canonicalEquations = new ArrayList<>(operands.length);
+    for (int e = 0; e < operands.length; e++) {
+      Equation equation = equations.get(e);
+      canonicalEquations.add(new Equation(rename(operands[e][0], variableColors),
+          equation.getOperator(), rename(operands[e][1], variableColors),
+          rename(operands[e][2], variableColors), equation.getRow(), equation.getColumn(),
+          equation.isHorizontal()));
+    }
+    canonicalEquations.sort(Comparator.comparing(Equation::toString));
+    StringBuilder key = new StringBuilder();
+    for (Equation equation : canonicalEquations) {
+      key.append(equation).append('\n');
+    }
+    return new CanonicalForm(key.toString(), List.copyOf(canonicalEquations), variableColors,
+        used);
+  }
+
+  /**
+   * Returns the shape of an equation: its operator, its constants, and its variables numbered
+   * in the order of their first occurrence in the equation, e.g. `+ v0 #3 v0` for `x+3=x`.
+   */
+  private static String shapeOf(char operator, int[] operands) {
+    StringBuilder shape = new StringBuilder().append(operator);
+    for (int position = 0; position < operands.length; position++) {
+      int operand = operands[position];
+      shape.append(' ');
+      if (Equation.isConstant(operand)) {
+        shape.append('#').append(Equation.constantValue(operand));
+      } else {
+        int first = position;
+        for (int i = 0; i < position; i++) {
+          if (operands[i] == operand) {
+            first = i;
+            break;
+          }
+        }
+        shape.append('v').append(first);
+      }
+    }
+    return shape.toString();
+  }
+
+  /**
+   * Refines the colors of the equations and the used variables until they do not split any
+   * further. A new color includes the old one, so colors only ever split.
+   *
+   * @return the number of colors of the used variables
+   */
+  private static int refine(int[][] operands, List<List<Integer>> occurrences,
+                            int[] equationColors, int[] variableColors) {
+    int colors = -1;
+    while (true) {
+      String[] equationSignatures = new String[operands.length];
+      for (int e = 0; e < operands.length; e++) {
+        StringBuilder signature = new StringBuilder().append(equationColors[e]).append(':');
+        for (int operand : operands[e]) {
+          signature.append(Equation.isConstant(operand) ? "c" : variableColors[operand])
+              .append(',');
+        }
+        equationSignatures[e] = signature.toString();
+      }
+      String[] variableSignatures = new String[variableColors.length];
+      for (int v = 0; v < variableColors.length; v++) {
+        List<Integer> occurring = occurrences.get(v);
+        if (occurring.isEmpty()) {
+          continue;
+        }
+        long[] neighbors = new long[occurring.size()];
+        for (int i = 0; i < neighbors.length; i++) {
+          int occurrence = occurring.get(i);
+          neighbors[i] = equationColors[occurrence / 3] * 3L + occurrence % 3;
+        }
+        Arrays.sort(neighbors);
+        variableSignatures[v] = variableColors[v] + ":" + Arrays.toString(neighbors);
+      }
+      int equationCount = rank(equationSignatures, equationColors);
+      int variableCount = rank(variableSignatures, variableColors);
+      if (equationCount + variableCount == colors) {
+        return variableCount;
+      }
+      colors = equationCount + variableCount;
+    }
+  }
+
+  /**
+   * Replaces every signature by its rank among the distinct signatures. A null signature gets
+   * the color -1.
+   *
+   * @return the number of distinct signatures
+   */
+  private static int rank(String[] signatures, int[] colors) {
+    TreeMap<String, Integer> ranks = new TreeMap<>();
+    for (String signature : signatures) {
+      if (signature != null) {
+        ranks.put(signature, 0);
+      }
+    }
+    int next = 0;
+    for (Map.Entry<String, Integer> entry : ranks.entrySet()) {
+      entry.setValue(next++);
+    }
+    for (int i = 0; i < signatures.length; i++) {
+      colors[i] = signatures[i] == null ? -1 : ranks.get(signatures[i]);
+    }
+    return next;
+  }
+
+  /**
+   * Returns the variable with the lowest index in the lowest color shared by several
+   * variables.
+   */
+  private static int firstTied(int[] variableColors) {
+    Map<Integer, Integer> first = new HashMap<>();
+    int tiedColor = Integer.MAX_VALUE;
+    for (int v = 0; v < variableColors.length; v++) {
+      int color = variableColors[v];
+      if (color >= 0 && first.putIfAbsent(color, v) != null && color < tiedColor) {
+        tiedColor = color;
+      }
+    }
+    return first.get(tiedColor);
+  }
+
+  private static int rename(int operand, int[] variableColors) {
+    return Equation.isConstant(operand) ? operand : variableColors[operand];
+  }
+
+  /**
+   * Returns the key of the form, equal for equivalent sets of equations.
+   *
+   * @return the renamed equations in sorted order, one per line
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the equations of the form, over the variables `x_1` to `x_k`.
+   *
+   * @return the renamed equations, in the order of the key
+   */
+  public List<Equation> getEquations() {
+    return equations;
+  }
+
+  /**
+   * Returns the number of variables `k` of the form.
+   *
+   * @return the number of variables that occur in an equation
+   */
+  public int getVariableCount() {
+    return variableCount;
+  }
+
+  /**
+   * Maps a solution of the form back to the variables of the equations the form was computed
+   * from. Variables that occur in no equation get the value 0.
+   *
+   * @param solution the values of the variables `x_1` to `x_k`
+   * @return the values of the original variables `x_1` to `x_n`
+   */
+  public Map<String, Integer> mapBack(Map<String, Integer> solution) {
+    Map<String, Integer> variableValues = new HashMap<>();
+    for (int v = 0; v < renamed.length; v++) {
+      variableValues.put(Equation.nameOf(v),
+          renamed[v] < 0 ? 0 : solution.get(Equation.nameOf(renamed[v])));
+    }
+    return variableValues;
+  }
+}
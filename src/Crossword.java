@@ -1,18 +1,27 @@
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * The `Crossword` class represents a crossword puzzle that can be solved using
  * a SMT solver supported by JavaSMT.
  * It stores the crossword grid, equations, and variables involved in the puzzle.
  * For the effective parsing it stores a list of instances of the `Equation` class.'
- * A map of variables is used to store the variables and their values.
- * This facilitates the creation of IntegerFormulas for the SMT solver
- * and keeping track of their value.
+ *
+ * <p>The size of the grid is taken from the input, and a number may span several consecutive
+ * digit cells.
+ *
+ * <p>The grid is stored compactly as one `char` per cell in row-major order, the character
+ * being the cell kind: a digit, an operator, `=`, a blank or `_` for an unknown cell.
+ * Unknown cells are numbered by `parseCrossword`; an `int` array maps every cell to the index
+ * of its variable, and the values of the variables are kept in another `int` array.
+ * The variable `x_n` has the index `n - 1`. The `String[][]` grid and the map of variables
+ * known from earlier versions are only created on demand.
  *
  * <p>This class provides methods to:
  * <ul>
@@ -25,84 +34,256 @@ import java.util.regex.Pattern;
  * @see Equation
  */
 public class Crossword {
-  public final int width = 9;
-  public final int height = 11;
-  private String[][] crossword = new String[height][width];
+  public final int width;
+  public final int height;
+  private static final int UNKNOWN = -1;
+  private final char[] cells;
+  private final int[] variableIndex;
+  private int[] values = new int[0];
   private List<Equation> equations = new ArrayList<>();
-  private Map<String, Integer> variables = new HashMap<>();
+  private boolean parsed = false;
 
   /**
    * Constructs a `Crossword` object from a string representation of the crossword.
+   * The height is the number of lines and the width the length of the longest line,
+   * shorter lines are padded with blank cells.
    *
    * @param crossword the string representation of the crossword
    */
-  public Crossword(String crossword) {
-    crossword = crossword.replace("\n", "");
+  public Crossword(CharSequence crossword) {
+    int rows = 0;
+    int columns = 0;
+    int length = 0;
+    for (int i = 0; i < crossword.length(); i++) {
+      char symbol = crossword.charAt(i);
+      if (symbol == '\n') {
+        rows++;
+        columns = Math.max(columns, length);
+        length = 0;
+      } else if (symbol != '\r') {
+        length++;
+      }
+    }
+    if (length > 0) {
+      rows++;
+      columns = Math.max(columns, length);
+    }
+    this.width = columns;
+    this.height = rows;
+    this.cells = new char[height * width];
+    this.variableIndex = new int[height * width];
     formatCrossword(crossword);
   }
 
   /**
-   * Parses the crossword to extract equations and variables.
+   * Constructs a `Crossword` object from the ASCII text of the crossword between the position
+   * and the limit of a buffer, e.g. a region of a file read through a channel. The bytes are
+   * copied into the grid without decoding them into a string first; the position of the buffer
+   * is not changed.
+   *
+   * @param crossword the buffer holding the text of the crossword
    */
-  public void parseCrossword() {
-    String regex =
-        "([0-9]|x_[1-9][0-9]*)(\\+|\\-|\\*|\\/)([0-9]|x_[1-9][0-9]*)=([0-9]|x_[1-9][0-9]*)";
-    Pattern pattern = Pattern.compile(regex);
-    parseVariables();
-    addHorizontalEquations(pattern);
-    addVerticalEquations(pattern);
+  public Crossword(ByteBuffer crossword) {
+    this(new AsciiSequence(crossword));
   }
 
   /**
-   * Adds vertical equations to the list of equations by matching the given regex pattern.
+   * Constructs a `Crossword` object from its cells, e.g. decoded by `PackedCrossword`.
    *
-   * @param regex the regex pattern to match equations
+   * @param width  the number of columns
+   * @param height the number of rows
+   * @param cells  the characters of the cells in row-major order, owned by the crossword
    */
-  private void addVerticalEquations(Pattern regex) {
-    StringBuilder column;
-    Matcher matcher;
-    String equationString;
-    Equation equation;
+  Crossword(int width, int height, char[] cells) {
+    this.width = width;
+    this.height = height;
+    this.cells = cells;
+    this.variableIndex = new int[cells.length];
+    Arrays.fill(variableIndex, UNKNOWN);
+  }
 
+  /**
+   * Parses the crossword to extract equations and variables. Parsing it again has no effect.
+   */
+  public void parseCrossword() {
+    if (parsed) {
+      return;
+    }
+    parsed = true;
+    parseVariables();
+    addHorizontalEquations();
+    addVerticalEquations();
+  }
+
+  /**
+   * Adds the equations found in the columns of the grid to the list of equations.
+   */
+  private void addVerticalEquations() {
+    EquationScanner scanner = new EquationScanner(equations);
     for (int colNo = 0; colNo < width; colNo++) {
-      column = new StringBuilder();
-      for (String[] symbol : this.crossword) {
-        column.append(symbol[colNo]);
-      }
-      matcher = regex.matcher(column.toString());
-      while (matcher.find()) {
-        equation = new Equation();
-        equationString = matcher.group();
-        equation.parseEquation(equationString);
-        this.equations.add(equation);
-      }
+      scanner.scanLine(colNo, width, height, false);
     }
   }
 
   /**
-   * Adds horizontal equations to the list of equations by matching the given regex pattern.
+   * Adds the equations found in the rows of the grid to the list of equations.
+   */
+  private void addHorizontalEquations() {
+    EquationScanner scanner = new EquationScanner(equations);
+    for (int rowNo = 0; rowNo < height; rowNo++) {
+      scanner.scanLine(rowNo * width, 1, width, true);
+    }
+  }
+
+  /**
+   * Finds the equations `a op b = c` in the rows and columns of the grid in a single pass over
+   * the cells, without building intermediate strings.
    *
-   * @param regex the regex pattern to match equations
+   * <p>The cells of a line are read as tokens: an operand (a run of digits or an unknown cell),
+   * an operation or `=`. The tokens of the current candidate are kept in a window of up to five
+   * tokens. A token that does not continue the pattern shifts the window to the next position at
+   * which the pattern could start, so the equations found are the leftmost non-overlapping
+   * matches of the pattern, exactly as a regular expression search would find them.
    */
-  private void addHorizontalEquations(Pattern regex) {
+  private final class EquationScanner {
+    private static final char OPERAND = 0;
+    private static final char INVALID = 1;
+    private final char[] kinds = new char[5];
+    private final int[] operands = new int[5];
+    private final int[] starts = new int[5];
+    private final List<Equation> found;
+    private int size;
 
-    StringBuilder row;
-    Matcher matcher;
-    String equationString;
-    Equation equation;
+    /**
+     * Constructs a scanner that adds the equations it finds to a list.
+     *
+     * @param found the list of equations found
+     */
+    EquationScanner(List<Equation> found) {
+      this.found = found;
+    }
 
-    for (int rowNo = 0; rowNo < height; rowNo++) {
-      row = new StringBuilder();
-      for (String symbol : this.crossword[rowNo]) {
-        row.append(symbol);
+    /**
+     * Scans one row or column and adds the equations found in it.
+     *
+     * @param start      the index of the first cell of the line
+     * @param step       the distance between two consecutive cells of the line
+     * @param length     the number of cells of the line
+     * @param horizontal whether the line is a row
+     */
+    void scanLine(int start, int step, int length, boolean horizontal) {
+      size = 0;
+      boolean inNumber = false;
+      for (int i = 0, cell = start; i < length; i++, cell += step) {
+        boolean digit = isDigit(cell);
+        if (digit && inNumber) {
+          appendDigit(cell);
+          while (size > 0 && !isPatternPrefix()) {
+            shift();
+          }
+          continue;
+        }
+        emitIfComplete(horizontal);
+        push(cell);
+        inNumber = digit;
+        while (size > 0 && !isPatternPrefix()) {
+          shift();
+        }
       }
-      matcher = regex.matcher(row.toString());
-      while (matcher.find()) {
-        equation = new Equation();
-        equationString = matcher.group();
-        equation.parseEquation(equationString);
-        this.equations.add(equation);
+      emitIfComplete(horizontal);
+    }
+
+    /**
+     * Adds the equation in the window to the list of equations once its last token is complete.
+     *
+     * @param horizontal whether the line is a row
+     */
+    private void emitIfComplete(boolean horizontal) {
+      if (size == kinds.length) {
+        found.add(new Equation(operands[0], kinds[1], operands[2], operands[4],
+            starts[0] / width, starts[0] % width, horizontal));
+        size = 0;
+      }
+    }
+
+    /**
+     * Checks whether a cell holds a digit of a given number.
+     *
+     * @param cell the index of the cell
+     * @return true for a digit cell
+     */
+    private boolean isDigit(int cell) {
+      return variableIndex[cell] == UNKNOWN && cells[cell] >= '0' && cells[cell] <= '9';
+    }
+
+    /**
+     * Appends the token of a cell to the window.
+     *
+     * @param cell the index of the cell
+     */
+    private void push(int cell) {
+      starts[size] = cell;
+      if (variableIndex[cell] != UNKNOWN) {
+        kinds[size] = OPERAND;
+        operands[size] = variableIndex[cell];
+      } else if (isDigit(cell)) {
+        kinds[size] = OPERAND;
+        operands[size] = Equation.constant(cells[cell] - '0');
+      } else {
+        kinds[size] = cells[cell];
       }
+      size++;
+    }
+
+    /**
+     * Appends the digit of a cell to the number that is the last token of the window.
+     * A number that does not fit into an `int` cannot be part of an equation.
+     *
+     * @param cell the index of the cell
+     */
+    private void appendDigit(int cell) {
+      if (size == 0 || kinds[size - 1] != OPERAND) {
+        return;
+      }
+      int value = Equation.constantValue(operands[size - 1]);
+      if (value > (Integer.MAX_VALUE - 9) / 10) {
+        kinds[size - 1] = INVALID;
+        return;
+      }
+      operands[size - 1] = Equation.constant(value * 10 + cells[cell] - '0');
+    }
+
+    /**
+     * Removes the first token of the window.
+     */
+    private void shift() {
+      size--;
+      System.arraycopy(kinds, 1, kinds, 0, size);
+      System.arraycopy(operands, 1, operands, 0, size);
+      System.arraycopy(starts, 1, starts, 0, size);
+    }
+
+    /**
+     * Checks whether the tokens of the window are the beginning of `a op b = c`.
+     *
+     * @return true if the window can still grow into an equation
+     */
+    private boolean isPatternPrefix() {
+      for (int i = 0; i < size; i++) {
+        char kind = kinds[i];
+        boolean matches;
+        if (i % 2 == 0) {
+          matches = kind == OPERAND;
+        } else if (i == 1) {
+          matches = kind == '+' || kind == '-' || kind == '*' || kind == '/';
+        } else {
+          matches = kind == '=';
+        }
+        if (!matches) {
+          return false;
+        }
+      }
+      return true;
     }
   }
 
@@ -110,19 +291,65 @@ public class Crossword {
    * Parses the variables in the crossword grid and assigns them unique names.
    */
   private void parseVariables() {
-    int variables = 1;
-    String variable = "x_";
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        if (this.crossword[i][j].equals("_")) {
-          this.crossword[i][j] = "x_" + variables;
-          nameVariable(variable + variables);
-          variables++;
-        } else if (this.crossword[i][j].matches("[0-9]")) {
-          nameVariable(this.crossword[i][j]);
-        }
+    int variables = 0;
+    for (int i = 0; i < cells.length; i++) {
+      if (cells[i] == '_') {
+        variableIndex[i] = variables;
+        variables++;
+      } else {
+        variableIndex[i] = UNKNOWN;
       }
     }
+    this.values = new int[variables];
+    Arrays.fill(this.values, UNKNOWN);
+  }
+
+  /**
+   * Makes every unknown cell a variable indexed by its cell, `x_n` for the `n`th cell in
+   * row-major order, instead of numbering the unknown cells in order. The index of a variable
+   * then does not change when another cell is edited, which `CrosswordSession` relies on. The
+   * equations are not scanned; `scanLine` finds those of a single row or column.
+   */
+  void keyVariablesByCell() {
+    parsed = true;
+    equations = new ArrayList<>();
+    values = new int[cells.length];
+    Arrays.fill(values, UNKNOWN);
+    for (int i = 0; i < cells.length; i++) {
+      variableIndex[i] = cells[i] == '_' ? i : UNKNOWN;
+    }
+  }
+
+  /**
+   * Changes the symbol of a cell of a crossword whose variables are keyed by cell. The value of
+   * the cell is cleared.
+   *
+   * @param cell   the index of the cell in row-major order
+   * @param symbol the new symbol, `_` for an unknown cell
+   */
+  void setCell(int cell, char symbol) {
+    cells[cell] = symbol;
+    variableIndex[cell] = symbol == '_' ? cell : UNKNOWN;
+    values[cell] = UNKNOWN;
+  }
+
+  /**
+   * Scans a single row or column for equations, without changing the equations of the
+   * crossword.
+   *
+   * @param line       the index of the row or column
+   * @param horizontal whether the line is a row
+   * @return the equations of the line, from left to right or top to bottom
+   */
+  List<Equation> scanLine(int line, boolean horizontal) {
+    List<Equation> found = new ArrayList<>();
+    EquationScanner scanner = new EquationScanner(found);
+    if (horizontal) {
+      scanner.scanLine(line * width, 1, width, true);
+    } else {
+      scanner.scanLine(line, width, height, false);
+    }
+    return found;
   }
 
   /**
@@ -130,24 +357,48 @@ public class Crossword {
    *
    * @param crossword the string representation of the crossword
    */
-  private void formatCrossword(String crossword) {
-    char[] crosswordChars = crossword.toCharArray();
-
-    int charIndex = 0;
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++, charIndex++) {
-        this.crossword[i][j] = String.valueOf(crosswordChars[charIndex]);
+  private void formatCrossword(CharSequence crossword) {
+    Arrays.fill(cells, ' ');
+    Arrays.fill(variableIndex, UNKNOWN);
+    int row = 0;
+    int col = 0;
+    for (int i = 0; i < crossword.length(); i++) {
+      char symbol = crossword.charAt(i);
+      if (symbol == '\n') {
+        row++;
+        col = 0;
+      } else if (symbol != '\r') {
+        cells[row * width + col] = symbol;
+        col++;
       }
     }
   }
 
   /**
-   * Adds a variable to the map of variables.
+   * Appends the textual form of a cell: its character, or the name of its variable.
+   *
+   * @param sb   the builder to append to
+   * @param cell the index of the cell in row-major order
+   */
+  private void appendCell(StringBuilder sb, int cell) {
+    if (variableIndex[cell] != UNKNOWN) {
+      sb.append("x_").append(variableIndex[cell] + 1);
+    } else {
+      sb.append(cells[cell]);
+    }
+  }
+
+  /**
+   * Returns the textual form of a cell: its character, or the name of its variable.
    *
-   * @param variable the variable to add
+   * @param cell the index of the cell in row-major order
+   * @return the content of the cell
    */
-  private void nameVariable(String variable) {
-    this.variables.put(variable, null);
+  private String cellString(int cell) {
+    if (variableIndex[cell] != UNKNOWN) {
+      return "x_" + (variableIndex[cell] + 1);
+    }
+    return String.valueOf(cells[cell]);
   }
 
   /**
@@ -157,27 +408,112 @@ public class Crossword {
    */
   @Override
   public String toString() {
-    StringBuilder sb = new StringBuilder();
-    String crossword = "";
+    StringBuilder sb = new StringBuilder(cells.length + height);
     for (int i = 0; i < height; i++) {
       for (int j = 0; j < width; j++) {
-        sb.append(this.crossword[i][j]);
+        appendCell(sb, i * width + j);
       }
       sb.append("\n");
     }
-    crossword = sb.toString();
-    return crossword;
+    return sb.toString();
   }
 
   /**
-   * Returns a copy of the crossword grid.
+   * Returns the number of characters written by `render`: one line of `width` cells and a line
+   * break per row.
+   *
+   * @return the length of the rendered grid
+   */
+  public int getRenderedLength() {
+    return height * (width + 1);
+  }
+
+  /**
+   * Writes the grid, one line per row, with the value of every variable that has one and `_` for
+   * the others. Unlike `replaceVariablesWithValues` and `toString` it neither changes the grid
+   * nor builds a string, so a solved crossword can be written directly to its destination.
+   *
+   * @param out the destination of the characters
+   * @throws IOException if the destination cannot be written
+   */
+  public void render(Appendable out) throws IOException {
+    for (int row = 0, cell = 0; row < height; row++) {
+      for (int column = 0; column < width; column++, cell++) {
+        out.append(renderedCell(cell));
+      }
+      out.append('\n');
+    }
+  }
+
+  /**
+   * Writes the grid like `render(Appendable)` as ASCII bytes at the position of a buffer, which
+   * must have `getRenderedLength()` bytes remaining.
+   *
+   * @param out the buffer to write to
+   * @throws BufferOverflowException if the buffer has not enough bytes remaining
+   */
+  public void render(ByteBuffer out) {
+    if (out.remaining() < getRenderedLength()) {
+      throw new BufferOverflowException();
+    }
+    for (int row = 0, cell = 0; row < height; row++) {
+      for (int column = 0; column < width; column++, cell++) {
+        out.put((byte) renderedCell(cell));
+      }
+      out.put((byte) '\n');
+    }
+  }
+
+  /**
+   * Returns the number of equations of the grid, parsing a copy of it if it has not been parsed.
+   *
+   * @return the number of equations
+   */
+  int countEquations() {
+    if (parsed) {
+      return equations.size();
+    }
+    Crossword copy = new Crossword(width, height, cells.clone());
+    copy.parseCrossword();
+    return copy.equations.size();
+  }
+
+  /**
+   * Returns the character of a cell of the grid as given, with `_` for an unknown cell whatever
+   * its value.
+   *
+   * @param cell the index of the cell in row-major order
+   * @return the character of the cell
+   */
+  char cellAt(int cell) {
+    return cells[cell];
+  }
+
+  /**
+   * Returns the character of a cell in the rendered grid.
+   *
+   * @param cell the index of the cell in row-major order
+   * @return the character of the cell, the digit of its variable or `_`
+   */
+  private char renderedCell(int cell) {
+    int variable = variableIndex[cell];
+    if (variable == UNKNOWN) {
+      return cells[cell];
+    }
+    return values[variable] == UNKNOWN ? '_' : (char) ('0' + values[variable]);
+  }
+
+  /**
+   * Returns a copy of the crossword grid, with one string per cell.
    *
    * @return a copy of the crossword grid
    */
   public String[][] getCrossword() {
     String[][] crosswordCopy = new String[height][width];
     for (int i = 0; i < height; i++) {
-      System.arraycopy(this.crossword[i], 0, crosswordCopy[i], 0, width);
+      for (int j = 0; j < width; j++) {
+        crosswordCopy[i][j] = cellString(i * width + j);
+      }
     }
     return crosswordCopy;
   }
@@ -192,38 +528,131 @@ public class Crossword {
   }
 
   /**
-   * Returns a copy of the map of variables.
+   * Returns a map of the variables and the constants of the equations to their values.
+   * Unknown values and constants are mapped to null.
    *
-   * @return a copy of the mape of variables
+   * @return a new map of variables
    */
   public Map<String, Integer> getVariables() {
-    return new HashMap<>(this.variables);
+    Map<String, Integer> variables = new HashMap<>();
+    for (Equation equation : equations) {
+      for (int operand : new int[] {equation.getLeft(), equation.getRight(),
+          equation.getResult()}) {
+        if (Equation.isConstant(operand)) {
+          variables.put(Equation.nameOf(operand), null);
+        }
+      }
+    }
+    for (int i = 0; i < values.length; i++) {
+      variables.put("x_" + (i + 1), values[i] == UNKNOWN ? null : values[i]);
+    }
+    return variables;
+  }
+
+  /**
+   * Returns the number of variables, i.e. of unknown cells found by `parseCrossword`.
+   *
+   * @return the number of variables
+   */
+  public int getVariableCount() {
+    return values.length;
+  }
+
+  /**
+   * Returns the value of a variable.
+   *
+   * @param variable the index of the variable, `n - 1` for `x_n`
+   * @return the value, or -1 if it is unknown
+   */
+  public int getValue(int variable) {
+    return values[variable];
+  }
+
+  /**
+   * Sets the value of a variable.
+   *
+   * @param variable the index of the variable, `n - 1` for `x_n`
+   * @param value    the value of the variable
+   */
+  public void setValue(int variable, int value) {
+    values[variable] = value;
   }
 
   /**
-   * Updates the values of the variables.
+   * Updates the values of the variables. Entries for constants are ignored.
    */
   public void updateVariables(Map<String, Integer> variableValues) {
     for (Map.Entry<String, Integer> entry : variableValues.entrySet()) {
-      this.variables.put(entry.getKey(), entry.getValue());
+      String name = entry.getKey();
+      if (name.startsWith("x_")) {
+        Integer value = entry.getValue();
+        values[Integer.parseInt(name, 2, name.length(), 10) - 1] =
+            value == null ? UNKNOWN : value;
+      }
     }
   }
 
+  /**
+   * Updates the values of the variables from an array indexed like the variables, e.g. a buffer
+   * reused for many crosswords. Values beyond the number of variables are ignored.
+   *
+   * @param variableValues the values, -1 for an unknown value
+   */
+  public void updateVariables(int[] variableValues) {
+    System.arraycopy(variableValues, 0, values, 0, Math.min(values.length,
+        variableValues.length));
+  }
+
   /**
    * Replaces the variables in the crossword grid with their values.
    */
   public void replaceVariablesWithValues() {
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        String cell = this.crossword[i][j];
-        if (cell.startsWith("x_")) {
-          Integer value = this.variables.get(cell);
-          if (value != null) {
-            this.crossword[i][j] = value.toString();
-          }
-        }
+    for (int i = 0; i < cells.length; i++) {
+      int variable = variableIndex[i];
+      if (variable != UNKNOWN && values[variable] != UNKNOWN) {
+        cells[i] = (char) ('0' + values[variable]);
+        variableIndex[i] = UNKNOWN;
       }
     }
   }
 
+
+  /**
+   * A view of the ASCII bytes of a buffer as characters, without copying them.
+   */
+  private static final class AsciiSequence implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    AsciiSequence(ByteBuffer bytes) {
+      this(bytes, bytes.position(), bytes.remaining());
+    }
+
+    private AsciiSequence(ByteBuffer bytes, int offset, int length) {
+      this.bytes = bytes;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new AsciiSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      return new StringBuilder(this).toString();
+    }
+  }
 }
@@ -0,0 +1,69 @@
+import java.util.List;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+
+/**
+ * The `CrosswordEncoder` interface translates the variables and equations of a `Crossword` into
+ * formulas of one solver context.
+ *
+ * <p>An encoder keeps the formulas of the variables `x_n` it has created, so the variables can
+ * be reused for every crossword solved in the same context. The formulas of the variables are
+ * referenced by their index, as in the operand encoding of `Equation`.
+ *
+ * @see Encoding
+ */
+public interface CrosswordEncoder {
+
+  /**
+   * Creates an encoder for the given encoding.
+   *
+   * @param encoding the encoding to use
+   * @param fmgr     the formula manager of the solver context
+   * @return the encoder
+   */
+  static CrosswordEncoder create(Encoding encoding, FormulaManager fmgr) {
+    switch (encoding) {
+      case BITVECTOR:
+        return new BitvectorEncoder(fmgr.getBitvectorFormulaManager(),
+            fmgr.getBooleanFormulaManager());
+      case INTEGER:
+      default:
+        return new IntegerEncoder(fmgr.getIntegerFormulaManager());
+    }
+  }
+
+  /**
+   * Creates the formulas of the variables `x_1` to `x_n` that have not been created before.
+   *
+   * @param variableCount the number of variables `n`
+   * @return the domain constraints `0 <= x_i <= 9` of the new variables
+   */
+  List<BooleanFormula> declareVariables(int variableCount);
+
+  /**
+   * Encodes an equation. All its variables must have been declared.
+   *
+   * @param equation the equation to encode
+   * @return a formula that holds iff the equation holds
+   */
+  BooleanFormula encode(Equation equation);
+
+  /**
+   * Encodes that a variable has a value. All variables must have been declared.
+   *
+   * @param variable the index of the variable
+   * @param value    the digit
+   * @return a formula that holds iff the variable has the value
+   */
+  BooleanFormula hasValue(int variable, int value);
+
+  /**
+   * Returns the value of a variable in a model.
+   *
+   * @param model    the model
+   * @param variable the index of the variable
+   * @return the value of the variable
+   */
+  int evaluate(Model model, int variable);
+}
@@ -0,0 +1,458 @@
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+
+/**
+ * The `CrosswordOptions` class holds the options that control how a crossword is solved.
+ * The options are read from a JavaSMT `Configuration`, so they can be given on the command line,
+ * e.g. `--crossword.mode=native` or `--crossword.solver=boolector --crossword.encoding=bitvector`.
+ */
+@Options(prefix = "crossword")
+public final class CrosswordOptions {
+
+  @Option(secure = true, description = "Engine used to solve the crossword.")
+  private SolverMode mode = SolverMode.SMT;
+
+  @Option(secure = true, description = "SMT backend used in the mode SMT.")
+  private Solvers solver = Solvers.PRINCESS;
+
+  @Option(secure = true, description = "Encoding of the equations as formulas in the mode SMT.")
+  private Encoding encoding = Encoding.INTEGER;
+
+  @Option(secure = true, description = "Encode the layout of consecutive crosswords once in the "
+      + "mode SMT and pass only their given digits to the solver as assumptions.")
+  private boolean templates = false;
+
+  @Option(secure = true, description = "Split the equations into groups without shared "
+      + "variables and solve the groups separately and in parallel.")
+  private boolean decompose = false;
+
+  @Option(secure = true, description = "Fix the cells forced by an equation with a single "
+      + "unknown before calling the solver, and pass it only the remaining equations.")
+  private boolean presolve = true;
+
+  @Option(secure = true, description = "File with crosswords separated by empty lines to solve "
+      + "as a batch, or - to read them from standard input.")
+  private String batch = null;
+
+  @Option(secure = true, description = "File the results of a batch are written to, "
+      + "or - for standard output.")
+  private String output = "-";
+
+  @Option(secure = true, description = "Format of the crosswords and results of a batch.")
+  private PuzzleFormat format = PuzzleFormat.TEXT;
+
+  @Option(secure = true, description = "Number of worker threads for batch solving and "
+      + "decomposition, and of threads of every portfolio solver, 0 uses one thread per "
+      + "available core.")
+  private int threads = 0;
+
+  @Option(secure = true, description = "Print the results of a batch in input order.")
+  private boolean ordered = true;
+
+  @Option(secure = true, description = "Time in milliseconds a crossword may take before solving "
+      + "is stopped, 0 for no limit.")
+  private long timeout = 0;
+
+  @Option(secure = true, description = "Comma-separated solvers to race on every crossword, e.g. "
+      + "native,princess,z3,smtinterpol; the first answer wins. The SMT solvers must use one "
+      + "encoding, which native follows. Empty uses only the mode.")
+  private String portfolio = "";
+
+  @Option(secure = true, description = "Comma-separated solvers to choose from for every "
+      + "crossword, e.g. native,princess:bitvector,z3:bitvector; the one predicted fastest from "
+      + "the features of the crossword is called. The SMT solvers must use one encoding, which "
+      + "native follows. Empty uses only the mode.")
+  private String select = "";
+
+  @Option(secure = true, name = "select.profile", description = "File the timings of the "
+      + "selected solvers are kept in across runs, none if empty.")
+  private String selectProfile = null;
+
+  @Option(secure = true, description = "Print the durations of the phases of solving and the "
+      + "counters of the solve pipeline to standard error at the end.")
+  private boolean metrics = false;
+
+  @Option(secure = true, description = "Emit the phases and counters of the solve pipeline as "
+      + "Java Flight Recorder events.")
+  private boolean jfr = false;
+
+  @Option(secure = true, name = "cache.size", description = "Number of solutions kept in "
+      + "memory to answer repeated crosswords and groups of equations, 0 disables the cache.")
+  private int cacheSize = 0;
+
+  @Option(secure = true, name = "cache.directory", description = "Directory in which cached "
+      + "solutions are also stored, so they survive restarts.")
+  private String cacheDirectory = null;
+
+  @Option(secure = true, name = "dedup.size", description = "Number of equivalent crossword "
+      + "groups, e.g. a grid and its transpose, whose solutions are kept so that only one "
+      + "crossword of a group is solved, 0 disables deduplication.")
+  private int dedupSize = 0;
+
+  @Option(secure = true, description = "Number of crosswords with a unique solution to generate "
+      + "and write to the output, 0 generates none.")
+  private long generate = 0;
+
+  @Option(secure = true, name = "generator.width", description = "Number of columns of the "
+      + "generated crosswords.")
+  private int generatorWidth = 9;
+
+  @Option(secure = true, name = "generator.height", description = "Number of rows of the "
+      + "generated crosswords.")
+  private int generatorHeight = 11;
+
+  @Option(secure = true, name = "generator.equations", description = "Number of equations of the "
+      + "generated crosswords, at least 1 and at most as many as fit the grid.")
+  private int generatorEquations = 8;
+
+  @Option(secure = true, name = "generator.seed", description = "Seed of the generator; the same "
+      + "seed generates the same crosswords.")
+  private long generatorSeed = 0;
+
+  @Option(secure = true, name = "server.port", description = "Port on the loopback interface "
+      + "on which crosswords posted to /solve are solved, 0 runs no server.")
+  private int serverPort = 0;
+
+  @Option(secure = true, name = "server.queue", description = "Number of requests the server "
+      + "queues before it rejects new ones.")
+  private int serverQueue = 1024;
+
+  @Option(secure = true, name = "server.batch", description = "Maximal number of queued requests "
+      + "the server solves as one batch.")
+  private int serverBatch = 64;
+
+  @Option(secure = true, description = "Number of solutions to print, 0 prints all solutions.")
+  private long solutions = 1;
+
+  @Option(secure = true, description = "Print a minimal set of conflicting equations if the "
+      + "crossword is unsatisfiable.")
+  private boolean explain = false;
+
+  @Option(secure = true, description = "Only check whether the crossword has exactly one "
+      + "solution.")
+  private boolean unique = false;
+
+  @Option(secure = true, description = "Open the crossword for editing: read edits "
+      + "\"ROW COLUMN SYMBOL\" from standard input and print the solution after each.")
+  private boolean edit = false;
+
+  /**
+   * Constructs the options with their default values. It is private so that the option
+   * processor accepts the class, since the options of a public constructor are expected to be
+   * injected from a configuration.
+   */
+  private CrosswordOptions() {
+  }
+
+  /**
+   * Returns the options with their default values, without reading a configuration.
+   *
+   * @return the default options
+   */
+  public static CrosswordOptions defaults() {
+    return new CrosswordOptions();
+  }
+
+  /**
+   * Constructs the options from the given configuration.
+   *
+   * @param config the configuration to read the options from
+   * @throws InvalidConfigurationException if an option has an invalid value
+   */
+  public CrosswordOptions(Configuration config) throws InvalidConfigurationException {
+    config.inject(this);
+  }
+
+  /**
+   * Returns the engine used to solve the crossword.
+   *
+   * @return the solver mode
+   */
+  public SolverMode getMode() {
+    return mode;
+  }
+
+  /**
+   * Returns the SMT backend used in the mode SMT.
+   *
+   * @return the SMT backend
+   */
+  public Solvers getSolver() {
+    return solver;
+  }
+
+  /**
+   * Returns the encoding of the equations as formulas in the mode SMT.
+   *
+   * @return the encoding
+   */
+  public Encoding getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * Returns whether the SMT solvers encode a layout once and reuse it for the following
+   * crosswords.
+   *
+   * @return true if templates are used
+   */
+  public boolean isTemplates() {
+    return templates;
+  }
+
+  /**
+   * Returns whether independent groups of equations are solved separately.
+   *
+   * @return true if the crossword is decomposed
+   */
+  public boolean isDecompose() {
+    return decompose;
+  }
+
+  /**
+   * Returns whether the forced cells are fixed before calling the solver.
+   *
+   * @return true if the crossword is presolved
+   */
+  public boolean isPresolve() {
+    return presolve;
+  }
+
+  /**
+   * Returns the file to read a batch of crosswords from.
+   *
+   * @return the file name, `-` for standard input, or null if no batch is given
+   */
+  public String getBatch() {
+    return batch;
+  }
+
+  /**
+   * Returns the file the results of a batch are written to.
+   *
+   * @return the file name, or `-` for standard output
+   */
+  public String getOutput() {
+    return output;
+  }
+
+  /**
+   * Returns the format of the crosswords and results of a batch.
+   *
+   * @return the format
+   */
+  public PuzzleFormat getFormat() {
+    return format;
+  }
+
+  /**
+   * Returns the number of worker threads for batch solving and decomposition, and of threads
+   * of every member of a portfolio.
+   *
+   * @return the number of threads, 0 for one per available core
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Returns whether the results of a batch are printed in input order.
+   *
+   * @return true if the results are ordered
+   */
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  /**
+   * Returns the number of solutions kept in memory by the cache.
+   *
+   * @return the size of the cache, 0 if no cache is used
+   */
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * Returns the directory of the persistent tier of the cache.
+   *
+   * @return the directory name, or null if solutions are only cached in memory
+   */
+  public String getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  /**
+   * Returns the number of groups of equivalent crosswords whose solutions are kept.
+   *
+   * @return the number of groups, 0 if equivalent crosswords are solved on their own
+   */
+  public int getDedupSize() {
+    return dedupSize;
+  }
+
+  /**
+   * Returns the number of solutions to print.
+   *
+   * @return the number of solutions, 0 for all
+   */
+  public long getSolutions() {
+    return solutions;
+  }
+
+  /**
+   * Returns whether only the uniqueness of the solution is checked.
+   *
+   * @return true if uniqueness is checked
+   */
+  public boolean isUnique() {
+    return unique;
+  }
+
+  /**
+   * Returns whether the conflicting equations of an unsatisfiable crossword are printed.
+   *
+   * @return true if unsatisfiable crosswords are explained
+   */
+  public boolean isExplain() {
+    return explain;
+  }
+
+  /**
+   * Returns whether the crossword is opened for editing on standard input.
+   *
+   * @return true for an editing session
+   */
+  public boolean isEdit() {
+    return edit;
+  }
+
+  /**
+   * Returns the time a crossword may take before solving is stopped.
+   *
+   * @return the timeout in milliseconds, 0 for no limit
+   */
+  public long getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Returns the solvers raced on every crossword.
+   *
+   * @return the comma-separated solvers, empty if no portfolio is used
+   */
+  public String getPortfolio() {
+    return portfolio;
+  }
+
+  /**
+   * Returns the solvers to choose from for every crossword.
+   *
+   * @return the comma-separated solvers, empty if no selection is used
+   */
+  public String getSelect() {
+    return select;
+  }
+
+  /**
+   * Returns the file of the timing profile of the selected solvers.
+   *
+   * @return the path of the profile, or null if it is kept in memory only
+   */
+  public String getSelectProfile() {
+    return selectProfile;
+  }
+
+  /**
+   * Returns whether the metrics of the solve pipeline are printed at the end.
+   *
+   * @return true if the metrics are printed
+   */
+  public boolean isMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Returns whether the metrics of the solve pipeline are emitted as JFR events.
+   *
+   * @return true if JFR events are emitted
+   */
+  public boolean isJfr() {
+    return jfr;
+  }
+
+  /**
+   * Returns the port of the solve server.
+   *
+   * @return the port on the loopback interface, 0 if no server is run
+   */
+  public int getServerPort() {
+    return serverPort;
+  }
+
+  /**
+   * Returns the number of requests the server queues before it rejects new ones.
+   *
+   * @return the capacity of the request queue
+   */
+  public int getServerQueue() {
+    return serverQueue;
+  }
+
+  /**
+   * Returns the maximal number of requests the server solves as one batch.
+   *
+   * @return the batch size
+   */
+  public int getServerBatch() {
+    return serverBatch;
+  }
+
+  /**
+   * Returns the number of crosswords to generate.
+   *
+   * @return the number of crosswords, 0 if none are generated
+   */
+  public long getGenerate() {
+    return generate;
+  }
+
+  /**
+   * Returns the number of columns of the generated crosswords.
+   *
+   * @return the width
+   */
+  public int getGeneratorWidth() {
+    return generatorWidth;
+  }
+
+  /**
+   * Returns the number of rows of the generated crosswords.
+   *
+   * @return the height
+   */
+  public int getGeneratorHeight() {
+    return generatorHeight;
+  }
+
+  /**
+   * Returns the number of equations of the generated crosswords.
+   *
+   * @return the number of equations
+   */
+  public int getGeneratorEquations() {
+    return generatorEquations;
+  }
+
+  /**
+   * Returns the seed of the generator.
+   *
+   * @return the seed
+   */
+  public long getGeneratorSeed() {
+    return generatorSeed;
+  }
+}
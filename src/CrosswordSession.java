@@ -0,0 +1,319 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `CrosswordSession` class keeps a crossword open for editing and re-solves it incrementally
+ * after every edit, e.g. for an editor that gives feedback on every keystroke.
+ *
+ * <p>The unknown cells are variables keyed by their cell, so editing a cell never renumbers the
+ * others, and the equations are kept per row and per column. Setting or clearing a cell only
+ * re-scans its row and its column. The equations are then split into independent groups with
+ * `EquationGraph`, and every group is renumbered over its own variables, so groups of the same
+ * shape have the same key wherever they are in the grid. A group whose key was already solved
+ * before the edit keeps its solution or its conflict; only the groups the edit changed reach
+ * the solver. For an unsatisfiable group the conflict is a minimal set of its equations, as
+ * found by `CrosswordSolver.unsatCore`.
+ *
+ * <p>In the equations of a session, `x_n` is the unknown cell with index `n - 1` in row-major
+ * order. A session is not thread-safe.
+ *
+ * @see EquationGraph
+ */
+public final class CrosswordSession {
+  private static final String SYMBOLS = "0123456789_+-*/= ";
+  private final Crossword crossword;
+  private final CrosswordSolver solver;
+  private final List<List<Equation>> rows;
+  private final List<List<Equation>> columns;
+  private Map<String, Group> groups = new HashMap<>();
+  private Result result;
+
+  /**
+   * The solution or conflict of a group of equations over the variables `x_1` to `x_k` of the
+   * group.
+   */
+  private static final class Group {
+    private final int[] values;
+    private final int[] conflict;
+
+    Group(int[] values, int[] conflict) {
+      this.values = values;
+      this.conflict = conflict;
+    }
+  }
+
+  /**
+   * The state of the crossword after an edit.
+   */
+  public static final class Result {
+    private final List<Equation> conflict;
+    private final int solvedGroups;
+
+    private Result(List<Equation> conflict, int solvedGroups) {
+      this.conflict = conflict;
+      this.solvedGroups = solvedGroups;
+    }
+
+    /**
+     * Returns whether the crossword has a solution.
+     *
+     * @return true if no group of equations has a conflict
+     */
+    public boolean isSatisfiable() {
+      return conflict.isEmpty();
+    }
+
+    /**
+     * Returns the conflicting equations of the unsatisfiable groups, each group reduced to a
+     * minimal set.
+     *
+     * @return the conflicting equations, empty if the crossword has a solution
+     */
+    public List<Equation> getConflict() {
+      return conflict;
+    }
+
+    /**
+     * Returns the number of groups of equations passed to the solver for this edit; the other
+     * groups kept their previous result.
+     *
+     * @return the number of groups solved
+     */
+    public int getSolvedGroups() {
+      return solvedGroups;
+    }
+  }
+
+  /**
+   * Opens a session on a crossword and solves it.
+   *
+   * @param puzzle the text of the crossword
+   * @param solver the solver of the groups of equations, not closed by the session
+   * @throws SolverException      if the solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  public CrosswordSession(CharSequence puzzle, CrosswordSolver solver)
+      throws SolverException, InterruptedException {
+    this.crossword = new Crossword(puzzle);
+    this.solver = solver;
+    crossword.keyVariablesByCell();
+    this.rows = new ArrayList<>(crossword.height);
+    for (int row = 0; row < crossword.height; row++) {
+      rows.add(crossword.scanLine(row, true));
+    }
+    this.columns = new ArrayList<>(crossword.width);
+    for (int column = 0; column < crossword.width; column++) {
+      columns.add(crossword.scanLine(column, false));
+    }
+    this.result = solve();
+  }
+
+  /**
+   * Sets the symbol of a cell and re-solves the groups of equations the edit changed.
+   *
+   * @param row    the row of the cell, from 0
+   * @param column the column of the cell, from 0
+   * @param symbol a digit, `_` for an unknown cell, an operation, `=` or a space
+   * @return the state of the crossword after the edit
+   * @throws SolverException      if the solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  public Result set(int row, int column, char symbol)
+      throws SolverException, InterruptedException {
+    if (row < 0 || row >= crossword.height || column < 0 || column >= crossword.width) {
+      throw new IndexOutOfBoundsException("No cell at row " + row + ", column " + column);
+    }
+    if (SYMBOLS.indexOf(symbol) < 0) {
+      throw new IllegalArgumentException("Invalid symbol '" + symbol + "'");
+    }
+    crossword.setCell(row * crossword.width + column, symbol);
+    rows.set(row, crossword.scanLine(row, true));
+    columns.set(column, crossword.scanLine(column, false));
+    result = solve();
+    return result;
+  }
+
+  /**
+   * Clears a cell and re-solves the groups of equations the edit changed.
+   *
+   * @param row    the row of the cell, from 0
+   * @param column the column of the cell, from 0
+   * @return the state of the crossword after the edit
+   * @throws SolverException      if the solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  public Result clear(int row, int column) throws SolverException, InterruptedException {
+    return set(row, column, ' ');
+  }
+
+  /**
+   * Returns the state of the crossword after the last edit.
+   *
+   * @return the last result
+   */
+  public Result getResult() {
+    return result;
+  }
+
+  /**
+   * Returns the value of an unknown cell in the current solution.
+   *
+   * @param row    the row of the cell, from 0
+   * @param column the column of the cell, from 0
+   * @return the value, or -1 if the cell is not unknown, in no equation or in a conflicting group
+   */
+  public int getValue(int row, int column) {
+    return crossword.getValue(row * crossword.width + column);
+  }
+
+  /**
+   * Writes the grid with the values of the current solution, as `Crossword.render` does.
+   *
+   * @param out the destination of the grid
+   * @throws IOException if the destination cannot be written
+   */
+  public void render(Appendable out) throws IOException {
+    crossword.render(out);
+  }
+
+  /**
+   * Returns the equations of the crossword, first those of the rows, then those of the columns.
+   *
+   * @return the current equations
+   */
+  public List<Equation> getEquations() {
+    List<Equation> equations = new ArrayList<>();
+    rows.forEach(equations::addAll);
+    columns.forEach(equations::addAll);
+    return equations;
+  }
+
+  /**
+   * Solves the groups of equations that are not known from before the edit and sets the values
+   * of all cells.
+   *
+   * @return the state of the crossword
+   */
+  private Result solve() throws SolverException, InterruptedException {
+    int cellCount = crossword.width * crossword.height;
+    List<List<Equation>> components = EquationGraph.components(getEquations(), cellCount);
+    Map<String, Group> solved = HashMap.newHashMap(components.size());
+    List<Equation> conflict = new ArrayList<>();
+    int[] variables = new int[cellCount];
+    Arrays.fill(variables, -1);
+    int solvedGroups = 0;
+    for (int i = 0; i < cellCount; i++) {
+      crossword.setValue(i, -1);
+    }
+
+    for (List<Equation> component : components) {
+      List<Integer> cells = new ArrayList<>();
+      List<Equation> local = new ArrayList<>(component.size());
+      Map<Equation, Equation> original = new IdentityHashMap<>();
+      StringBuilder key = new StringBuilder();
+      for (Equation equation : component) {
+        Equation renumbered = new Equation(localOperand(equation.getLeft(), variables, cells),
+            equation.getOperator(), localOperand(equation.getRight(), variables, cells),
+            localOperand(equation.getResult(), variables, cells), equation.getRow(),
+            equation.getColumn(), equation.isHorizontal());
+        local.add(renumbered);
+        original.put(renumbered, equation);
+        key.append(renumbered).append('\n');
+      }
+      Group group = solved.get(key.toString());
+      if (group == null) {
+        group = groups.get(key.toString());
+      }
+      if (group == null) {
+        group = solveGroup(local, cells.size());
+        solvedGroups++;
+      }
+      solved.put(key.toString(), group);
+
+      for (int k = 0; k < cells.size(); k++) {
+        variables[cells.get(k)] = -1;
+        if (group.values != null) {
+          crossword.setValue(cells.get(k), group.values[k]);
+        }
+      }
+      if (group.conflict != null) {
+        for (int index : group.conflict) {
+          conflict.add(original.get(local.get(index)));
+        }
+      }
+    }
+    groups = solved;
+    return new Result(conflict, solvedGroups);
+  }
+
+  /**
+   * Renumbers an operand over the variables of its group, numbered in order of first
+   * occurrence.
+   *
+   * @param operand   the operand, a cell variable or a constant
+   * @param variables the variable of the group of every cell, -1 for none yet
+   * @param cells     the cells of the variables of the group, extended in place
+   * @return the operand over the variables of the group
+   */
+  private static int localOperand(int operand, int[] variables, List<Integer> cells) {
+    if (Equation.isConstant(operand)) {
+      return operand;
+    }
+    if (variables[operand] < 0) {
+      variables[operand] = cells.size();
+      cells.add(operand);
+    }
+    return variables[operand];
+  }
+
+  /**
+   * Solves a group of equations, or finds a minimal conflict if it has no solution.
+   *
+   * @param equations     the equations of the group
+   * @param variableCount the number of variables of the group
+   * @return the values of the variables or the indexes of the conflicting equations; the
+   *         conflict is matched to the equations by their text, as a caching solver may return
+   *         equal equations of an earlier call
+   * @throws SolverException      if the solver fails, or finds no conflict or one that is not
+   *                              made of equations of the group
+   * @throws InterruptedException if solving is interrupted
+   */
+  private Group solveGroup(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    Optional<Map<String, Integer>> solution = solver.solve(equations, variableCount);
+    if (solution.isPresent()) {
+      int[] values = new int[variableCount];
+      for (int i = 0; i < variableCount; i++) {
+        values[i] = solution.get().getOrDefault(Equation.nameOf(i), -1);
+      }
+      return new Group(values, null);
+    }
+    List<Equation> core = solver.unsatCore(equations, variableCount);
+    if (core.isEmpty()) {
+      throw new SolverException("No conflict found in an unsatisfiable group");
+    }
+    int[] conflict = new int[core.size()];
+    boolean[] used = new boolean[equations.size()];
+    for (int i = 0, j = 0; i < conflict.length; i++) {
+      String text = core.get(i).toString();
+      int tried = 0;
+      while (used[j] || !equations.get(j).toString().equals(text)) {
+        if (++tried == used.length) {
+          throw new SolverException("Conflicting equation " + text + " is not in the group");
+        }
+        j = (j + 1) % used.length;
+      }
+      used[j] = true;
+      conflict[i] = j;
+    }
+    Arrays.sort(conflict);
+    return new Group(null, conflict);
+  }
+}
@@ -0,0 +1,218 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `CrosswordSolver` interface is implemented by every engine that can solve a parsed
+ * `Crossword`.
+ * A solver may hold resources such as a solver context, which are released by `close`.
+ * A single call can be cancelled through a `ShutdownNotifier`, which is how deadlines and
+ * solver races stop the solvers that are no longer needed.
+ *
+ * @see NativeSolver
+ * @see SmtSolver
+ */
+public interface CrosswordSolver extends AutoCloseable {
+
+  /**
+   * Solves the given parsed crossword.
+   *
+   * @param crossword the crossword, `parseCrossword` must have been called on it
+   * @return the values of all variables `x_n`, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the underlying solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  default Optional<Map<String, Integer>> solve(Crossword crossword)
+      throws SolverException, InterruptedException {
+    return solve(crossword.getEquations(), crossword.getVariableCount());
+  }
+
+  /**
+   * Solves a set of equations over the variables `x_1` to `x_n`, e.g. a part of a crossword.
+   * A variable that occurs in no equation may get any digit or no value at all.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the values of the variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the underlying solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException;
+
+  /**
+   * Solves a set of equations and stops early once the notifier requests a shutdown.
+   * By default the notifier is only checked before solving starts; solvers that can be stopped
+   * while they are running override this method.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of the variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the underlying solver fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   */
+  default Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                               ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    notifier.shutdownIfNecessary();
+    return solve(equations, variableCount);
+  }
+
+  /**
+   * Solves the given parsed crossword into an array indexed like its variables, which
+   * `Crossword.updateVariables(int[])` takes without looking up any name. By default the values
+   * are taken from `solve(Crossword)`; solvers that find the values as numbers override this
+   * method, and decorators pass it on.
+   *
+   * @param crossword the crossword, `parseCrossword` must have been called on it
+   * @return the value of `x_(i+1)` at index `i`, -1 for a variable without a value, or an empty
+   *         `Optional` if it is unsatisfiable
+   * @throws SolverException      if the underlying solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  default Optional<int[]> solveValues(Crossword crossword)
+      throws SolverException, InterruptedException {
+    return solve(crossword).map(solution -> valuesOf(solution, crossword.getVariableCount()));
+  }
+
+  /**
+   * Solves a set of equations into an array indexed like the variables, and stops early once
+   * the notifier requests a shutdown. By default the values are taken from
+   * `solve(List, int, ShutdownNotifier)`.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the value of `x_(i+1)` at index `i`, -1 for a variable without a value, or an empty
+   *         `Optional` if it is unsatisfiable
+   * @throws SolverException      if the underlying solver fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   * @see #solveValues(Crossword)
+   */
+  default Optional<int[]> solveValues(List<Equation> equations, int variableCount,
+                                      ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    return solve(equations, variableCount, notifier)
+        .map(solution -> valuesOf(solution, variableCount));
+  }
+
+  /**
+   * Converts the values of the variables `x_n` into an array indexed like the variables.
+   *
+   * @param solution      the values of the variables
+   * @param variableCount the number of variables `n`
+   * @return the value of `x_(i+1)` at index `i`, -1 for a variable without a value
+   */
+  static int[] valuesOf(Map<String, Integer> solution, int variableCount) {
+    int[] values = new int[variableCount];
+    for (int i = 0; i < variableCount; i++) {
+      Integer value = solution.get(Equation.nameOf(i));
+      values[i] = value == null ? -1 : value;
+    }
+    return values;
+  }
+
+  /**
+   * Enumerates the solutions of the given parsed crossword.
+   *
+   * @param crossword the crossword, `parseCrossword` must have been called on it
+   * @param limit     the maximal number of solutions to enumerate
+   * @param consumer  the consumer of the solutions, called once per solution as it is found
+   * @return the number of solutions passed to the consumer
+   * @throws SolverException      if the solver fails or cannot enumerate solutions
+   * @throws InterruptedException if solving is interrupted
+   * @see #enumerate(List, int, long, Consumer)
+   */
+  default long enumerate(Crossword crossword, long limit,
+                         Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return enumerate(crossword.getEquations(), crossword.getVariableCount(), limit, consumer);
+  }
+
+  /**
+   * Enumerates distinct solutions of a set of equations over the variables `x_1` to `x_n`.
+   * Two solutions are distinct if they differ in a variable that occurs in an equation; the
+   * variables that occur in no equation are not enumerated. Every solution is passed to the
+   * consumer as soon as it is found and is not kept, so the number of solutions may be large.
+   * Solvers that cannot enumerate solutions throw a `SolverException`, which is the default.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param limit         the maximal number of solutions to enumerate
+   * @param consumer      the consumer of the solutions, called once per solution as it is found
+   * @return the number of solutions passed to the consumer
+   * @throws SolverException      if the solver fails or cannot enumerate solutions
+   * @throws InterruptedException if solving is interrupted
+   */
+  default long enumerate(List<Equation> equations, int variableCount, long limit,
+                         Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    throw new SolverException(getClass().getSimpleName() + " cannot enumerate solutions");
+  }
+
+  /**
+   * Checks whether the given parsed crossword has exactly one solution.
+   * Enumeration stops at the second solution, so this is not much slower than solving twice.
+   *
+   * @param crossword the crossword, `parseCrossword` must have been called on it
+   * @return true if the crossword has exactly one solution
+   * @throws SolverException      if the solver fails or cannot enumerate solutions
+   * @throws InterruptedException if solving is interrupted
+   */
+  default boolean isUnique(Crossword crossword) throws SolverException, InterruptedException {
+    return enumerate(crossword, 2, solution -> { }) == 1;
+  }
+
+  /**
+   * Returns a minimal set of equations of the given parsed crossword that cannot hold together.
+   *
+   * @param crossword the crossword, `parseCrossword` must have been called on it
+   * @return the conflicting equations, or an empty list if the crossword is satisfiable
+   * @throws SolverException      if the underlying solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  default List<Equation> unsatCore(Crossword crossword)
+      throws SolverException, InterruptedException {
+    return unsatCore(crossword.getEquations(), crossword.getVariableCount());
+  }
+
+  /**
+   * Returns a minimal set of the given equations that cannot hold together: removing any one of
+   * them makes the rest satisfiable. By default every equation is removed in turn and kept only
+   * if the rest becomes satisfiable without it, which takes one solve per equation; solvers
+   * that can track the equations in a single check override this method.
+   *
+   * @param equations     the equations
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the conflicting equations in input order, or an empty list if the equations are
+   *         satisfiable
+   * @throws SolverException      if the underlying solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  default List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    if (solve(equations, variableCount).isPresent()) {
+      return List.of();
+    }
+    List<Equation> core = new ArrayList<>(equations);
+    for (int i = core.size() - 1; i >= 0; i--) {
+      Equation removed = core.remove(i);
+      if (solve(core, variableCount).isPresent()) {
+        core.add(i, removed);
+      }
+    }
+    return core;
+  }
+
+  /**
+   * Releases the resources held by this solver. Does nothing by default.
+   */
+  @Override
+  default void close() {
+  }
+}
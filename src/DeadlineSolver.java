@@ -0,0 +1,149 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `DeadlineSolver` class gives every call of a delegate solver a deadline.
+ *
+ * <p>Each call gets its own `ShutdownManager`, whose shutdown is requested by a timer thread
+ * when the deadline has passed. The delegate then stops, and the call throws a
+ * `SolverTimeoutException`. A pathological crossword thus only blocks a worker for a bounded
+ * time. The solver is thread-safe if the delegate is.
+ *
+ * @see SolverTimeoutException
+ */
+public class DeadlineSolver implements CrosswordSolver {
+  private static final String TIMEOUT = "The deadline has passed";
+  private final CrosswordSolver delegate;
+  private final long timeoutMillis;
+  private final ScheduledExecutorService timer;
+
+  /**
+   * The body of a call with a deadline.
+   */
+  private interface Call<T> {
+    Optional<T> run(ShutdownNotifier deadline) throws SolverException, InterruptedException;
+  }
+
+  /**
+   * Constructs a solver that stops the delegate after the given time per call.
+   *
+   * @param delegate      the solver to run, closed together with this solver
+   * @param timeoutMillis the time a call may take, in milliseconds
+   */
+  public DeadlineSolver(CrosswordSolver delegate, long timeoutMillis) {
+    this.delegate = delegate;
+    this.timeoutMillis = timeoutMillis;
+    this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "crossword-deadline");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solve(equations, variableCount, ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Solves a set of equations with the delegate until the deadline has passed or the notifier
+   * requests a shutdown.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverTimeoutException if the deadline has passed
+   * @throws SolverException        if the delegate fails
+   * @throws InterruptedException   if the shutdown was requested or solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    return withDeadline(notifier,
+        deadline -> delegate.solve(equations, variableCount, deadline));
+  }
+
+  @Override
+  public Optional<int[]> solveValues(Crossword crossword)
+      throws SolverException, InterruptedException {
+    return solveValues(crossword.getEquations(), crossword.getVariableCount(),
+        ShutdownNotifier.createDummy());
+  }
+
+  @Override
+  public Optional<int[]> solveValues(List<Equation> equations, int variableCount,
+                                     ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    return withDeadline(notifier,
+        deadline -> delegate.solveValues(equations, variableCount, deadline));
+  }
+
+  /**
+   * Runs a call of the delegate with a notifier that also requests a shutdown once the deadline
+   * has passed.
+   *
+   * @param notifier the notifier that cancels this call
+   * @param call     the call of the delegate, given the notifier with the deadline
+   * @return the result of the call
+   * @throws SolverTimeoutException if the deadline has passed
+   * @throws SolverException        if the delegate fails
+   * @throws InterruptedException   if the shutdown was requested or solving is interrupted
+   */
+  private <T> Optional<T> withDeadline(ShutdownNotifier notifier, Call<T> call)
+      throws SolverException, InterruptedException {
+    ShutdownManager deadline = ShutdownManager.createWithParent(notifier);
+    ScheduledFuture<?> alarm = timer.schedule(() -> deadline.requestShutdown(TIMEOUT),
+        timeoutMillis, TimeUnit.MILLISECONDS);
+    try {
+      return call.run(deadline.getNotifier());
+    } catch (InterruptedException | SolverException e) {
+      // some backends report a shutdown as a failure instead of an interruption
+      if (!notifier.shouldShutdown() && deadline.getNotifier().shouldShutdown()) {
+        throw new SolverTimeoutException("No answer within " + timeoutMillis + " ms");
+      }
+      throw e;
+    } finally {
+      alarm.cancel(false);
+    }
+  }
+
+  /**
+   * Enumerates the solutions with the delegate, without a deadline.
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return delegate.enumerate(equations, variableCount, limit, consumer);
+  }
+
+  /**
+   * Finds the conflicting equations with the delegate, without a deadline.
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return delegate.unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Stops the timer thread and closes the delegate.
+   */
+  @Override
+  public void close() {
+    timer.shutdownNow();
+    delegate.close();
+  }
+}
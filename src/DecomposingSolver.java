@@ -0,0 +1,153 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `DecomposingSolver` class splits a crossword into independent groups of equations and
+ * solves every group separately, several of them at the same time.
+ *
+ * <p>The groups are the components of the `EquationGraph`. Each of them is passed to a
+ * delegate solver, which therefore must be safe to use from several threads, like
+ * `NativeSolver` or `SmtSolverPool`. The values of the variables of every group are merged into
+ * one solution; a variable that occurs in no equation gets the value 0.
+ * A hard group thus no longer delays the others, and every solver call only sees the formulas of
+ * one group.
+ *
+ * @see EquationGraph
+ */
+public class DecomposingSolver implements CrosswordSolver {
+  private final CrosswordSolver delegate;
+  private final ExecutorService workers;
+
+  /**
+   * Constructs a solver that solves the groups with the given delegate.
+   *
+   * @param delegate the thread-safe solver of the groups, closed together with this solver
+   * @param threads  the number of threads solving groups besides the calling thread,
+   *                 0 for one per available core
+   */
+  public DecomposingSolver(CrosswordSolver delegate, int threads) {
+    this.delegate = delegate;
+    this.workers = Executors.newFixedThreadPool(
+        threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solve(equations, variableCount, ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Solves the groups of equations, passing the notifier on to every group.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if solving a group fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    List<List<Equation>> components = EquationGraph.components(equations, variableCount);
+    List<Future<Optional<Map<String, Integer>>>> futures = new ArrayList<>();
+    for (List<Equation> component : components.subList(Math.min(1, components.size()),
+        components.size())) {
+      futures.add(workers.submit(() -> delegate.solve(component, variableCount, notifier)));
+    }
+
+    Map<String, Integer> variableValues = new HashMap<>();
+    for (int i = 0; i < variableCount; i++) {
+      variableValues.put(Equation.nameOf(i), 0);
+    }
+    try {
+      if (!components.isEmpty()
+          && !merge(components.get(0), delegate.solve(components.get(0), variableCount, notifier),
+          variableValues)) {
+        return Optional.empty();
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        if (!merge(components.get(i + 1), futures.get(i).get(), variableValues)) {
+          return Optional.empty();
+        }
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SolverException) {
+        throw (SolverException) cause;
+      } else if (cause instanceof InterruptedException) {
+        throw (InterruptedException) cause;
+      }
+      throw new SolverException("Solving a group of equations failed", cause);
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return Optional.of(variableValues);
+  }
+
+  /**
+   * Copies the values of the variables of a group into the solution.
+   *
+   * @param component      the equations of the group
+   * @param solution       the solution of the group
+   * @param variableValues the solution of the whole crossword
+   * @return false if the group is unsatisfiable
+   */
+  private static boolean merge(List<Equation> component, Optional<Map<String, Integer>> solution,
+                               Map<String, Integer> variableValues) {
+    if (solution.isEmpty()) {
+      return false;
+    }
+    for (Equation equation : component) {
+      for (int operand : EquationGraph.operandsOf(equation)) {
+        if (!Equation.isConstant(operand)) {
+          String name = Equation.nameOf(operand);
+          variableValues.put(name, solution.get().get(name));
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Enumerates the solutions with the delegate, without splitting the equations.
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return delegate.enumerate(equations, variableCount, limit, consumer);
+  }
+
+  /**
+   * Finds the conflicting equations with the delegate, without splitting the equations.
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return delegate.unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Stops the worker threads and closes the delegate.
+   */
+  @Override
+  public void close() {
+    workers.shutdownNow();
+    delegate.close();
+  }
+}
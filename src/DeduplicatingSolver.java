@@ -0,0 +1,142 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `DeduplicatingSolver` class solves only one crossword of every group of equivalent
+ * crosswords, i.e. crosswords with the same `CanonicalForm`, such as a grid and its transpose.
+ *
+ * <p>The delegate solves the canonical form of the first crossword of a group, and its solution
+ * is mapped back to the variables of every crossword of the group. A crossword that arrives
+ * while an equivalent one is being solved, e.g. from another thread of a batch, waits for that
+ * solution instead of solving it again; if solving the representative fails or times out, it is
+ * solved on its own. The solutions of the most recently used forms are kept, up to a fixed
+ * number. Every crossword answered this way is counted as `DEDUPLICATED` in the metrics.
+ *
+ * <p>Unlike `CachingSolver`, which looks up a grid by its text and groups of equations in the
+ * order they are found in, the lookup does not depend on the order of the equations, but the
+ * canonical form of the whole crossword is computed on every call. The solver is thread-safe if
+ * the delegate is.
+ *
+ * @see CanonicalForm
+ */
+public class DeduplicatingSolver implements CrosswordSolver {
+  private final CrosswordSolver delegate;
+  private final SolverMetrics metrics;
+  private final Map<String, Optional<Map<String, Integer>>> solved;
+  private final Map<String, CompletableFuture<Optional<Map<String, Integer>>>> pending =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a solver that solves equivalent crosswords with the delegate only once.
+   *
+   * @param delegate the solver of the canonical forms, closed together with this solver
+   * @param capacity the number of forms whose solutions are kept
+   * @param metrics  the metrics that count the deduplicated crosswords
+   */
+  public DeduplicatingSolver(CrosswordSolver delegate, int capacity, SolverMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+    this.solved = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(
+          Map.Entry<String, Optional<Map<String, Integer>>> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solve(equations, variableCount, ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Solves the canonical form of the equations, unless the form was solved before or is being
+   * solved, and maps its solution back.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels solving the form, passed on to the delegate
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the delegate fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    CanonicalForm form = CanonicalForm.of(equations, variableCount);
+    String key = form.getKey();
+    CompletableFuture<Optional<Map<String, Integer>>> own = new CompletableFuture<>();
+    CompletableFuture<Optional<Map<String, Integer>>> running = pending.putIfAbsent(key, own);
+    if (running != null) {
+      try {
+        Optional<Map<String, Integer>> solution = running.get();
+        metrics.increment(SolverMetrics.Counter.DEDUPLICATED);
+        return solution.map(form::mapBack);
+      } catch (ExecutionException e) {
+        // the representative failed, this crossword gets its own chance
+        return delegate.solve(form.getEquations(), form.getVariableCount(), notifier)
+            .map(form::mapBack);
+      }
+    }
+
+    try {
+      Optional<Map<String, Integer>> solution;
+      synchronized (solved) {
+        solution = solved.get(key);
+      }
+      if (solution != null) {
+        metrics.increment(SolverMetrics.Counter.DEDUPLICATED);
+      } else {
+        solution = delegate.solve(form.getEquations(), form.getVariableCount(), notifier);
+        synchronized (solved) {
+          solved.put(key, solution);
+        }
+      }
+      own.complete(solution);
+      return solution.map(form::mapBack);
+    } catch (SolverException | InterruptedException | RuntimeException e) {
+      own.completeExceptionally(e);
+      throw e;
+    } finally {
+      pending.remove(key);
+    }
+  }
+
+  /**
+   * Enumerates the solutions with the delegate. Nothing is deduplicated.
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return delegate.enumerate(equations, variableCount, limit, consumer);
+  }
+
+  /**
+   * Finds the conflicting equations with the delegate. Nothing is deduplicated.
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return delegate.unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Closes the delegate.
+   */
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
@@ -0,0 +1,21 @@
+/**
+ * The `Encoding` enum lists the ways the equations of a `Crossword` can be encoded as SMT
+ * formulas.
+ *
+ * @see CrosswordEncoder
+ */
+public enum Encoding {
+  /**
+   * Every cell is an unbounded integer, the equations use (nonlinear) integer arithmetic.
+   *
+   * @see IntegerEncoder
+   */
+  INTEGER,
+  /**
+   * Every cell is a small bit-vector, the equations use overflow-free bit-vector arithmetic
+   * and exact division. Suitable for SAT-based backends like Boolector.
+   *
+   * @see BitvectorEncoder
+   */
+  BITVECTOR
+}
@@ -1,103 +1,132 @@
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
 /**
- * The `Equation` class represents a mathematical equation with an operation and operands.
- * It provides methods to parse an equation string, extract variables, and retrieve the components
- * of the equation.
+ * The `Equation` class represents a mathematical equation `a op b = c` with an operation and
+ * operands, as found in a row or a column of a `Crossword`.
+ *
+ * <p>An operand is stored as an `int`: a variable `x_n` by its index `n - 1`, and a constant
+ * `v` by `~v`, i.e. by a negative number. The static methods `isConstant`, `constantValue` and
+ * `constant` convert between the two. It also provides the components of the equation as
+ * strings, and the cell at which the equation starts. The names of the variables are created
+ * once and shared.
  */
 public class Equation {
 
-  private String resultSide;
-  private String operation;
-  private String[] operationSide;
-
-
-  /**
-   * Parses the given equation string and extracts the operation and operands.
-   *
-   * @param equation the equation string to parse
-   */
-  void parseEquation(String equation) {
-    String[] sides = equation.split("=");
-    Pattern pattern = Pattern.compile("[+\\-*/]");
-    Matcher matcher;
-
-    for (String side : sides) {
-
-      matcher = pattern.matcher(side);
-      if (matcher.find()) {
-        setOperationSide(extractVariables(side));
-        switch (matcher.group()) {
-          case "+":
-            setOperation("+");
-            break;
-          case "-":
-            setOperation("-");
-            break;
-          case "*":
-            setOperation("*");
-            break;
-          case "/":
-            setOperation("/");
-            break;
-          default:
-            break;
-        }
-      } else {
-        setResultSide(side);
-      }
+  /**
+   * The names `x_n` of the variables, shared so that solutions do not create them again.
+   */
+  private static volatile String[] variableNames = new String[0];
+  private final int left;
+  private final char operation;
+  private final int right;
+  private final int result;
+  private final int row;
+  private final int column;
+  private final boolean horizontal;
 
-    }
+  /**
+   * Constructs an equation `left operation right = result`.
+   *
+   * @param left       the encoded left operand
+   * @param operation  the operation, one of `+`, `-`, `*` and `/`
+   * @param right      the encoded right operand
+   * @param result     the encoded result
+   * @param row        the row of the first cell of the equation
+   * @param column     the column of the first cell of the equation
+   * @param horizontal whether the equation is read along a row
+   */
+  Equation(int left, char operation, int right, int result, int row, int column,
+           boolean horizontal) {
+    this.left = left;
+    this.operation = operation;
+    this.right = right;
+    this.result = result;
+    this.row = row;
+    this.column = column;
+    this.horizontal = horizontal;
   }
 
   /**
-   * Extracts variables from the given side of the equation.
+   * Returns whether an encoded operand is a constant.
    *
-   * @param side the side of the equation to extract variables from
-   * @return an array of variables
+   * @param operand the encoded operand
+   * @return true for a constant, false for a variable
    */
-  private String[] extractVariables(String side) {
-    String[] variables = side.split("[+\\-*/]");
-    return variables; //The order of arguments is the same as their order in the array
+  static boolean isConstant(int operand) {
+    return operand < 0;
   }
 
+  /**
+   * Returns the value of an encoded constant.
+   *
+   * @param operand the encoded constant
+   * @return the value of the constant
+   */
+  static int constantValue(int operand) {
+    return ~operand;
+  }
 
   /**
-   * Returns the operation of the equation.
+   * Encodes a constant as an operand.
    *
-   * @return the operation of the equation
+   * @param value the non-negative value of the constant
+   * @return the encoded constant
    */
-  String getOperation() {
+  static int constant(int value) {
+    return ~value;
+  }
 
-    return new String(operation);
+  /**
+   * Returns the name of an encoded operand: `x_n` for a variable, the value for a constant.
+   *
+   * @param operand the encoded operand
+   * @return the name of the operand
+   */
+  static String nameOf(int operand) {
+    if (isConstant(operand)) {
+      return Integer.toString(constantValue(operand));
+    }
+    String[] names = variableNames;
+    if (operand >= names.length) {
+      names = growVariableNames(operand + 1);
+    }
+    return names[operand];
   }
 
   /**
-   * Sets the operation of the equation.
+   * Extends the shared names of the variables to at least the given number of variables.
    *
-   * @param operation the operation of the equation
+   * @param count the number of variables that need a name
+   * @return the extended names
    */
-  void setOperation(String operation) {
-    this.operation = operation;
+  private static synchronized String[] growVariableNames(int count) {
+    String[] names = variableNames;
+    if (count > names.length) {
+      names = Arrays.copyOf(names, Math.max(count, 2 * names.length));
+      for (int i = variableNames.length; i < names.length; i++) {
+        names[i] = "x_" + (i + 1);
+      }
+      variableNames = names;
+    }
+    return names;
   }
 
   /**
-   * Returns the operands of the equation.
+   * Returns the operation of the equation.
    *
-   * @return an array of operands
+   * @return the operation of the equation
    */
-  String[] getOperationSide() {
-    return operationSide.clone();
+  String getOperation() {
+    return String.valueOf(operation);
   }
 
   /**
-   * Sets the operands of the equation.
+   * Returns the operands of the equation.
    *
-   * @param operationSide an array of operands
+   * @return an array of operands
    */
-  void setOperationSide(String[] operationSide) {
-    this.operationSide = operationSide.clone();
+  String[] getOperationSide() {
+    return new String[] {nameOf(left), nameOf(right)};
   }
 
   /**
@@ -106,15 +135,79 @@ public class Equation {
    * @return the result side of the equation
    */
   public String getResultSide() {
-    return new String(resultSide);
+    return nameOf(result);
+  }
+
+  /**
+   * Returns the operation of the equation as a character.
+   *
+   * @return one of `+`, `-`, `*` and `/`
+   */
+  char getOperator() {
+    return operation;
+  }
+
+  /**
+   * Returns the encoded left operand.
+   *
+   * @return the left operand
+   */
+  int getLeft() {
+    return left;
+  }
+
+  /**
+   * Returns the encoded right operand.
+   *
+   * @return the right operand
+   */
+  int getRight() {
+    return right;
+  }
+
+  /**
+   * Returns the encoded result.
+   *
+   * @return the result
+   */
+  int getResult() {
+    return result;
+  }
+
+  /**
+   * Returns the row of the first cell of the equation.
+   *
+   * @return the row, starting at 0
+   */
+  public int getRow() {
+    return row;
+  }
+
+  /**
+   * Returns the column of the first cell of the equation.
+   *
+   * @return the column, starting at 0
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * Returns whether the equation is read along a row or along a column.
+   *
+   * @return true for a horizontal equation
+   */
+  public boolean isHorizontal() {
+    return horizontal;
   }
 
   /**
-   * Sets the operands of the equation.
+   * Returns the equation in the notation of the grid, e.g. `1+x_1=6`.
    *
-   * @param resultSide an array of operands
+   * @return the equation as a string
    */
-  void setResultSide(String resultSide) {
-    this.resultSide = resultSide;
+  @Override
+  public String toString() {
+    return nameOf(left) + operation + nameOf(right) + "=" + nameOf(result);
   }
 }
@@ -0,0 +1,113 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The `EquationGraph` class partitions the equations of a crossword into independent groups.
+ *
+ * <p>Two equations are connected if they share a variable. The connected components of this
+ * graph have no variables in common, so each of them can be solved on its own, and the
+ * crossword is satisfiable iff every component is. The components are found with a union-find
+ * structure over the variable indices in time linear in the number of equations.
+ */
+public final class EquationGraph {
+
+  private EquationGraph() {
+  }
+
+  /**
+   * Partitions the equations into connected components over shared variables.
+   * An equation without variables forms a component of its own.
+   *
+   * @param equations     the equations to partition
+   * @param variableCount the number of variables the equations refer to
+   * @return the components, in the order of their first equation, each in input order
+   */
+  public static List<List<Equation>> components(List<Equation> equations, int variableCount) {
+    int[] parent = new int[variableCount];
+    for (int i = 0; i < variableCount; i++) {
+      parent[i] = i;
+    }
+    for (Equation equation : equations) {
+      int root = -1;
+      for (int operand : operandsOf(equation)) {
+        if (!Equation.isConstant(operand)) {
+          root = root < 0 ? find(parent, operand) : union(parent, root, operand);
+        }
+      }
+    }
+
+    List<List<Equation>> components = new ArrayList<>();
+    Map<Integer, List<Equation>> byRoot = new HashMap<>();
+    for (Equation equation : equations) {
+      int variable = firstVariable(equation);
+      List<Equation> component;
+      if (variable < 0) {
+        component = new ArrayList<>();
+        components.add(component);
+      } else {
+        component = byRoot.get(find(parent, variable));
+        if (component == null) {
+          component = new ArrayList<>();
+          byRoot.put(find(parent, variable), component);
+          components.add(component);
+        }
+      }
+      component.add(equation);
+    }
+    return components;
+  }
+
+  /**
+   * Returns the operands of an equation.
+   *
+   * @param equation the equation
+   * @return the left operand, the right operand and the result
+   */
+  static int[] operandsOf(Equation equation) {
+    return new int[] {equation.getLeft(), equation.getRight(), equation.getResult()};
+  }
+
+  /**
+   * Returns the first variable of an equation.
+   *
+   * @param equation the equation
+   * @return the index of the variable, or -1 if the equation has none
+   */
+  private static int firstVariable(Equation equation) {
+    for (int operand : operandsOf(equation)) {
+      if (!Equation.isConstant(operand)) {
+        return operand;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the representative of the set of a variable, compressing the path to it.
+   */
+  private static int find(int[] parent, int variable) {
+    int root = variable;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    while (parent[variable] != root) {
+      int next = parent[variable];
+      parent[variable] = root;
+      variable = next;
+    }
+    return root;
+  }
+
+  /**
+   * Merges the set with the given representative and the set of a variable.
+   *
+   * @return the representative of the merged set
+   */
+  private static int union(int[] parent, int root, int variable) {
+    int other = find(parent, variable);
+    parent[other] = root;
+    return root;
+  }
+}
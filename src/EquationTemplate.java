@@ -0,0 +1,139 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The `EquationTemplate` class separates the layout of a set of equations from the digits given
+ * in a particular crossword.
+ *
+ * <p>Every operand that occurs in a single place, a given digit or a variable of only one
+ * equation, becomes a slot of the template. Variables shared by several equations stay shared,
+ * and numbers of several digits stay constants. The slots and shared variables are numbered
+ * `x_1` to `x_m` in the order of their first occurrence, so crosswords that have the same layout
+ * have the same template equations and the same key, whichever digits they give. The template
+ * equations can then be encoded once, and a crossword only adds the assumptions that its slots
+ * have the given digits.
+ *
+ * <p>A template also binds the variables of the crossword it was created from to its own
+ * variables, to read a solution back.
+ */
+public final class EquationTemplate {
+  private final String key;
+  private final List<Equation> equations;
+  private final int variableCount;
+  private final int[] variables;
+  private final List<int[]> givens;
+
+  private EquationTemplate(String key, List<Equation> equations, int variableCount,
+                           int[] variables, List<int[]> givens) {
+    this.key = key;
+    this.equations = equations;
+    this.variableCount = variableCount;
+    this.variables = variables;
+    this.givens = givens;
+  }
+
+  /**
+   * Creates the template of a set of equations over the variables `x_1` to `x_n`.
+   *
+   * @param equations     the equations
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the template and the binding of the equations to it
+   */
+  public static EquationTemplate of(List<Equation> equations, int variableCount) {
+    int[] occurrences = new int[variableCount];
+    for (Equation equation : equations) {
+      for (int operand : EquationGraph.operandsOf(equation)) {
+        if (!Equation.isConstant(operand)) {
+          occurrences[operand]++;
+        }
+      }
+    }
+
+    int[] variables = new int[variableCount];
+    Arrays.fill(variables, -1);
+    List<int[]> givens = new ArrayList<>();
+    List<Equation> templateEquations = new ArrayList<>(equations.size());
+    Map<Integer, Integer> shared = new HashMap<>();
+    StringBuilder key = new StringBuilder();
+    int next = 0;
+    for (Equation equation : equations) {
+      int[] operands = EquationGraph.operandsOf(equation);
+      for (int i = 0; i < operands.length; i++) {
+        int operand = operands[i];
+        if (Equation.isConstant(operand) && Equation.constantValue(operand) > 9) {
+          key.append('=').append(Equation.constantValue(operand));
+        } else if (Equation.isConstant(operand)) {
+          givens.add(new int[] {next, Equation.constantValue(operand)});
+          key.append('#');
+          operands[i] = next++;
+        } else if (occurrences[operand] == 1) {
+          variables[operand] = next;
+          key.append('#');
+          operands[i] = next++;
+        } else {
+          Integer index = shared.get(operand);
+          if (index == null) {
+            index = next++;
+            shared.put(operand, index);
+            variables[operand] = index;
+          }
+          key.append('x').append(index);
+          operands[i] = index;
+        }
+        key.append(i == 0 ? equation.getOperator() : i == 1 ? '=' : '\n');
+      }
+      templateEquations.add(new Equation(operands[0], equation.getOperator(), operands[1],
+          operands[2], equation.getRow(), equation.getColumn(), equation.isHorizontal()));
+    }
+    return new EquationTemplate(key.toString(), templateEquations, next, variables, givens);
+  }
+
+  /**
+   * Returns the key of the template, equal for all crosswords with the same layout.
+   *
+   * @return the key
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the template equations over the variables `x_1` to `x_m` of the template.
+   *
+   * @return the template equations
+   */
+  public List<Equation> getEquations() {
+    return equations;
+  }
+
+  /**
+   * Returns the number of variables `m` of the template.
+   *
+   * @return the number of template variables
+   */
+  public int getVariableCount() {
+    return variableCount;
+  }
+
+  /**
+   * Returns the template variable bound to a variable of the crossword.
+   *
+   * @param variable the index of the variable of the crossword
+   * @return the index of the template variable, or -1 if the variable is in no equation
+   */
+  public int getVariable(int variable) {
+    return variables[variable];
+  }
+
+  /**
+   * Returns the digits the crossword gives, as pairs of a template variable and its value.
+   *
+   * @return the given digits
+   */
+  public List<int[]> getGivens() {
+    return givens;
+  }
+}
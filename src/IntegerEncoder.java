@@ -0,0 +1,85 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+/**
+ * The `IntegerEncoder` class encodes every cell as an unbounded `IntegerFormula`.
+ * Multiplication and division of two variables are nonlinear, which not every solver supports.
+ * Division is the integer division of the solver.
+ */
+public class IntegerEncoder implements CrosswordEncoder {
+  private final IntegerFormulaManager imgr;
+  private final List<IntegerFormula> variables = new ArrayList<>();
+  private final Map<Integer, IntegerFormula> numerals = new HashMap<>();
+
+  /**
+   * Constructs an encoder on top of the given formula manager.
+   *
+   * @param imgr the integer formula manager of the solver context
+   */
+  public IntegerEncoder(IntegerFormulaManager imgr) {
+    this.imgr = imgr;
+  }
+
+  @Override
+  public List<BooleanFormula> declareVariables(int variableCount) {
+    List<BooleanFormula> domains = new ArrayList<>();
+    IntegerFormula zero = formulaOf(Equation.constant(0));
+    IntegerFormula nine = formulaOf(Equation.constant(9));
+    for (int i = variables.size(); i < variableCount; i++) {
+      IntegerFormula formula = imgr.makeVariable(Equation.nameOf(i));
+      variables.add(formula);
+      domains.add(imgr.greaterOrEquals(formula, zero));
+      domains.add(imgr.lessOrEquals(formula, nine));
+    }
+    return domains;
+  }
+
+  @Override
+  public BooleanFormula encode(Equation equation) {
+    IntegerFormula left = formulaOf(equation.getLeft());
+    IntegerFormula right = formulaOf(equation.getRight());
+    IntegerFormula result = formulaOf(equation.getResult());
+
+    switch (equation.getOperator()) {
+      case '+':
+        return imgr.equal(imgr.add(left, right), result);
+      case '-':
+        return imgr.equal(imgr.subtract(left, right), result);
+      case '*':
+        return imgr.equal(imgr.multiply(left, right), result);
+      case '/':
+        return imgr.equal(imgr.divide(left, right), result);
+      default:
+        throw new IllegalArgumentException("Unknown operation in " + equation);
+    }
+  }
+
+  @Override
+  public BooleanFormula hasValue(int variable, int value) {
+    return imgr.equal(variables.get(variable), formulaOf(Equation.constant(value)));
+  }
+
+  @Override
+  public int evaluate(Model model, int variable) {
+    return model.evaluate(variables.get(variable)).intValue();
+  }
+
+  /**
+   * Returns the formula of an encoded operand, creating the formula of a numeral on first use.
+   *
+   * @param operand the operand as encoded by `Equation`
+   * @return the variable or numeral formula
+   */
+  private IntegerFormula formulaOf(int operand) {
+    if (Equation.isConstant(operand)) {
+      return numerals.computeIfAbsent(Equation.constantValue(operand), imgr::makeNumber);
+    }
+    return variables.get(operand);
+  }
+}
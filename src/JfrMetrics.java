@@ -0,0 +1,69 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The `JfrMetrics` class emits the measurements of the solve pipeline as Java Flight Recorder
+ * events, so they can be recorded in production with `-XX:StartFlightRecording` and inspected
+ * next to GC and JIT events.
+ *
+ * <p>Every phase becomes a `mathcrossword.Phase` event and every counter increment a
+ * `mathcrossword.Counter` event. While no recording is active the events are disabled, and
+ * emitting them costs little more than a check.
+ */
+public class JfrMetrics implements SolverMetrics {
+
+  /**
+   * A phase of solving a crossword.
+   */
+  @Name("mathcrossword.Phase")
+  @Label("Crossword Phase")
+  @Category("MathCrossword")
+  @Description("A phase of solving a crossword")
+  static final class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+  }
+
+  /**
+   * An increment of a counter of the solve pipeline.
+   */
+  @Name("mathcrossword.Counter")
+  @Label("Crossword Counter")
+  @Category("MathCrossword")
+  @Description("An increment of a counter of the solve pipeline")
+  static final class CounterEvent extends Event {
+    @Label("Counter")
+    String counter;
+
+    @Label("Amount")
+    long amount;
+  }
+
+  @Override
+  public void recordPhase(Phase phase, long nanos) {
+    PhaseEvent event = new PhaseEvent();
+    if (event.isEnabled()) {
+      event.phase = phase.name();
+      event.nanos = nanos;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void increment(Counter counter, long amount) {
+    CounterEvent event = new CounterEvent();
+    if (event.isEnabled()) {
+      event.counter = counter.name();
+      event.amount = amount;
+      event.commit();
+    }
+  }
+}
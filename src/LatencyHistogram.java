@@ -0,0 +1,109 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The `LatencyHistogram` class counts durations in logarithmic buckets to estimate percentiles.
+ *
+ * <p>Every power of two is split into `SUB_BUCKETS` linear buckets, so a percentile is estimated
+ * with a relative error of at most 1 / `SUB_BUCKETS` while the histogram has a fixed size. All
+ * updates are lock-free, so the histogram can be shared between threads.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a duration.
+   *
+   * @param nanos the duration in nanoseconds, negative values count as 0
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    counts.incrementAndGet(bucketOf(value));
+    count.incrementAndGet();
+    total.addAndGet(value);
+    max.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * Returns the number of recorded durations.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the sum of the recorded durations.
+   *
+   * @return the total in nanoseconds
+   */
+  public long getTotal() {
+    return total.get();
+  }
+
+  /**
+   * Returns the longest recorded duration.
+   *
+   * @return the maximum in nanoseconds
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Estimates a percentile of the recorded durations by the upper bound of its bucket.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the estimated duration in nanoseconds, 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    long recorded = count.get();
+    if (recorded == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Returns the bucket of a value: values below `SUB_BUCKETS` have a bucket each, larger values
+   * share a bucket with the values that agree in the highest `SUB_BUCKET_BITS + 1` bits.
+   */
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int mantissa = (int) (value >>> exponent) - SUB_BUCKETS;
+    return (exponent + 1) * SUB_BUCKETS + mantissa;
+  }
+
+  /**
+   * Returns the largest value of a bucket.
+   */
+  private static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS - 1;
+    long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+    if (exponent >= Long.SIZE - SUB_BUCKET_BITS - 1) {
+      return Long.MAX_VALUE;
+    }
+    return ((mantissa + 1) << exponent) - 1;
+  }
+}
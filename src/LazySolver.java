@@ -0,0 +1,117 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `LazySolver` class creates its delegate solver only when it is first called.
+ *
+ * <p>Creating an SMT solver loads the configuration and logging of JavaSMT, Guava and the
+ * classes of the backend, which takes much longer than parsing and presolving a crossword. A
+ * crossword the presolver answers completely, or a run that fails before solving, never pays
+ * for it. An invalid configuration of the delegate is therefore only reported by the first
+ * call, as a `SolverException`. The solver is thread-safe if the delegate is.
+ */
+public class LazySolver implements CrosswordSolver {
+  private final Factory factory;
+  private volatile CrosswordSolver delegate;
+  private boolean closed = false;
+
+  /**
+   * Creates the delegate solver.
+   */
+  @FunctionalInterface
+  public interface Factory {
+    /**
+     * Creates the solver.
+     *
+     * @return the new solver
+     * @throws InvalidConfigurationException if the solver cannot be configured
+     */
+    CrosswordSolver create() throws InvalidConfigurationException;
+  }
+
+  /**
+   * Constructs a solver that creates its delegate on first use.
+   *
+   * @param factory the factory of the delegate, which is closed together with this solver
+   */
+  public LazySolver(Factory factory) {
+    this.factory = factory;
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return delegate().solve(equations, variableCount);
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    return delegate().solve(equations, variableCount, notifier);
+  }
+
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return delegate().enumerate(equations, variableCount, limit, consumer);
+  }
+
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return delegate().unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Returns whether the delegate has been created.
+   *
+   * @return true once the solver was called
+   */
+  public boolean isCreated() {
+    return delegate != null;
+  }
+
+  /**
+   * Returns the delegate, creating it on the first call.
+   *
+   * @return the delegate
+   * @throws SolverException if the delegate cannot be configured or this solver is closed
+   */
+  private CrosswordSolver delegate() throws SolverException {
+    CrosswordSolver solver = delegate;
+    if (solver != null) {
+      return solver;
+    }
+    synchronized (this) {
+      if (closed) {
+        throw new SolverException("The solver is closed");
+      }
+      if (delegate == null) {
+        try {
+          delegate = factory.create();
+        } catch (InvalidConfigurationException e) {
+          throw new SolverException("Cannot create the solver", e);
+        }
+      }
+      return delegate;
+    }
+  }
+
+  /**
+   * Closes the delegate if it was created.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (delegate != null) {
+      delegate.close();
+    }
+  }
+}
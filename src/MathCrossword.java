@@ -1,21 +1,25 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import org.sosy_lab.common.ShutdownManager;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.BasicLogManager;
 import org.sosy_lab.common.log.LogManager;
-import org.sosy_lab.java_smt.SolverContextFactory;
-import org.sosy_lab.java_smt.api.BooleanFormula;
-import org.sosy_lab.java_smt.api.BooleanFormulaManager;
-import org.sosy_lab.java_smt.api.FormulaManager;
-import org.sosy_lab.java_smt.api.IntegerFormulaManager;
-import org.sosy_lab.java_smt.api.Model;
-import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
-import org.sosy_lab.java_smt.api.ProverEnvironment;
-import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.SolverException;
 
 /**
@@ -78,6 +82,39 @@ import org.sosy_lab.java_smt.api.SolverException;
  * <p>To use this code, it is important to make sure the selected solver supports the operations '+' '-' '*' '/'.
  * The classes Crossword and Equation help identify equations and variables for later processing to create IntegerFormulas and Boolean Formulas.
  * Executing the code will solve a crossword given in the problem description using the Princess solver.
+ * Passing `--crossword.mode=native` solves it with the built-in {@link NativeSolver} instead,
+ * which needs neither a solver context nor native libraries.
+ * The SMT backend is chosen with `--crossword.solver`, and `--crossword.encoding=bitvector`
+ * encodes the cells as small bit-vectors instead of integers, e.g. for Boolector.
+ * `--crossword.templates=true` encodes the layout of consecutive crosswords once and passes only
+ * their given digits to the SMT solver as assumptions.
+ * With `--crossword.decompose=true` groups of equations without shared cells are solved
+ * separately and in parallel. Cells forced by an equation with a single unknown are fixed
+ * before the solver is called, unless `--crossword.presolve=false` is passed.
+ * Passing `--crossword.batch=FILE` solves all crosswords of the file, separated by empty lines,
+ * in parallel (use `-` to read them from standard input). With `--crossword.format=binary` the
+ * crosswords are length-prefixed records instead, and `--crossword.output=FILE` writes the
+ * results to a file instead of standard output.
+ * `--crossword.timeout=MS` stops solving a crossword after MS milliseconds, and
+ * `--crossword.portfolio=native,princess,z3` races the listed solvers on every crossword, and
+ * `--crossword.select=native,princess,z3` calls the one predicted fastest from the
+ * features of the crossword and the timings in `--crossword.select.profile=FILE`.
+ * `--crossword.metrics=true` prints the time spent in every phase and the counters of the solve
+ * pipeline at the end, `--crossword.jfr=true` emits them as Java Flight Recorder events.
+ * `--crossword.solutions=N` prints up to N solutions (0 for all), enumerated one by one, and
+ * `--crossword.unique=true` only checks whether the crossword has exactly one solution.
+ * `--crossword.explain=true` prints a minimal set of conflicting equations of an unsatisfiable
+ * crossword with their positions.
+ * `--crossword.generate=N` generates N crosswords with a unique solution in parallel and writes
+ * them to the output, `--crossword.generator.*` sets their size, equations and seed.
+ * `--crossword.edit=true` opens the crossword for editing: every line `ROW COLUMN SYMBOL` of
+ * standard input sets a cell, counted from 1, and only the equations it changes are solved again.
+ * `--crossword.server.port=PORT` keeps the solver running and solves the crosswords posted to
+ * `http://localhost:PORT/solve`.
+ * With `--crossword.cache.size=N` up to N solutions of crosswords and of groups of equations are
+ * cached, and `--crossword.cache.directory=DIR` also keeps them on disk across runs.
+ * `--crossword.dedup.size=N` solves only one of every group of equivalent crosswords, e.g. a grid
+ * and its transpose, and keeps the solutions of N groups.
  *
  * @see Crossword
  * @see Equation
@@ -95,143 +132,495 @@ public class MathCrossword {
           + "8/_=_   1\n"
           + "  = =   =\n"
           + "  _ 8-_=_";
-  private static Map<String, IntegerFormula> variables = new HashMap<>();
-  private static List<BooleanFormula> booleanFormulas = new ArrayList<>();
+  private static final int GENERATE_CHUNK = 1024;
 
   public static void main(String[] args) throws InvalidConfigurationException {
 
-    Configuration config = Configuration.fromCmdLineArguments(args);
-    LogManager logger = BasicLogManager.create(config);
-    ShutdownManager shutdown = ShutdownManager.create();
-
-    // SolverContext is a class wrapping a solver context.
-    // Solver can be selected either using an argument or a configuration option
-    // inside `config`.
-    SolverContext context = SolverContextFactory.createSolverContext(
-        config, logger, shutdown.getNotifier(), SolverContextFactory.Solvers.PRINCESS);
+    // Without arguments the defaults apply, and the configuration is only created if an SMT
+    // solver is used.
+    Configuration config = args.length == 0 ? null : Configuration.fromCmdLineArguments(args);
+    CrosswordOptions options =
+        config == null ? CrosswordOptions.defaults() : new CrosswordOptions(config);
+    MetricsRegistry registry = new MetricsRegistry();
+    SolverMetrics metrics = createMetrics(options, registry);
+    try {
+      if (options.getGenerate() > 0) {
+        generate(options);
+      } else if (options.getServerPort() > 0) {
+        serve(config, options, metrics);
+      } else if (options.getBatch() != null) {
+        solveBatch(config, options, metrics);
+      } else if (options.isEdit()) {
+        edit(config, options, metrics);
+      } else {
+        solveInput(config, options, metrics);
+      }
+    } finally {
+      if (options.isMetrics()) {
+        System.err.print(registry.report());
+      }
+    }
+  }
 
+  /**
+   * Solves the crossword `input` and prints it, its solutions or whether it is unique.
+   *
+   * @param config  the configuration used to create the solver contexts, or null for the
+   *                defaults
+   * @param options the options selecting the solver
+   * @param metrics the metrics of the solve pipeline
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  private static void solveInput(Configuration config, CrosswordOptions options,
+                                 SolverMetrics metrics) throws InvalidConfigurationException {
     Crossword crossword = new Crossword(input);
     System.out.println(crossword.toString());
     System.out.println("--------------");
+    long start = System.nanoTime();
     crossword.parseCrossword();
+    metrics.recordPhase(SolverMetrics.Phase.PARSE, System.nanoTime() - start);
 
-    FormulaManager fmgr = context.getFormulaManager();
+    try (CrosswordSolver solver = createSolver(config, options, metrics)) {
+      if (options.isUnique()) {
+        long count = solver.enumerate(crossword, 2, solution -> { });
+        System.out.println(count == 0 ? "Unsatisfiable" : count == 1 ? "Unique" : "Not unique");
+        return;
+      }
+      if (options.getSolutions() != 1) {
+        long limit = options.getSolutions() > 0 ? options.getSolutions() : Long.MAX_VALUE;
+        long count = solver.enumerate(crossword, limit,
+            solution -> System.out.println(format(input, solution)));
+        System.out.println(count == 0 ? "Unsatisfiable" : count + " solution(s)");
+        return;
+      }
+      Optional<int[]> solution = solver.solveValues(crossword);
+      if (solution.isPresent()) {
+        crossword.updateVariables(solution.get());
+        crossword.render(System.out);
+        System.out.println();
+      } else {
+        System.out.println("Unsatisfiable");
+        if (options.isExplain()) {
+          System.out.println("Conflicting equations:");
+          List<Equation> core = solver.unsatCore(crossword);
+          for (Equation equation : core) {
+            System.out.println("  " + describe(equation));
+          }
+          if (core.isEmpty()) {
+            System.out.println("  none found");
+          }
+        }
+      }
+    } catch (SolverTimeoutException e) {
+      System.out.println("Timeout: " + e.getMessage());
+    } catch (IOException | SolverException | InterruptedException e) {
+      e.printStackTrace();
+    }
+  }
 
-    BooleanFormulaManager bmgr = fmgr.getBooleanFormulaManager();
-    IntegerFormulaManager imgr = fmgr.getIntegerFormulaManager();
+  /**
+   * Opens the crossword `input` in a `CrosswordSession` and applies the edits read from standard
+   * input, one `ROW COLUMN SYMBOL` per line with rows and columns counted from 1, printing the
+   * solved grid or the conflicting equations and the time taken after every edit. A missing
+   * symbol clears the cell.
+   *
+   * @param config  the configuration used to create the solver contexts, or null for the
+   *                defaults
+   * @param options the options selecting the solver
+   * @param metrics the metrics of the solve pipeline
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  private static void edit(Configuration config, CrosswordOptions options,
+                           SolverMetrics metrics) throws InvalidConfigurationException {
+    try (CrosswordSolver solver = createSolver(config, options, metrics);
+         BufferedReader in = new BufferedReader(
+             new InputStreamReader(System.in, StandardCharsets.US_ASCII))) {
+      CrosswordSession session = new CrosswordSession(input, solver);
+      printSession(session);
+      String line;
+      while ((line = in.readLine()) != null) {
+        String[] edit = line.trim().split("\\s+", 3);
+        if (edit.length < 2) {
+          continue;
+        }
+        long start = System.nanoTime();
+        try {
+          session.set(Integer.parseInt(edit[0]) - 1, Integer.parseInt(edit[1]) - 1,
+              edit.length == 3 ? edit[2].charAt(0) : ' ');
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+          System.out.println("Invalid edit: " + e.getMessage());
+          continue;
+        }
+        long micros = (System.nanoTime() - start) / 1000;
+        printSession(session);
+        System.out.printf(Locale.ROOT, "%d group(s) solved in %.3f ms%n",
+            session.getResult().getSolvedGroups(), micros / 1000.0);
+      }
+    } catch (SolverTimeoutException e) {
+      System.out.println("Timeout: " + e.getMessage());
+    } catch (IOException | SolverException | InterruptedException e) {
+      e.printStackTrace();
+    }
+  }
 
-    generateBooleanFormulas(crossword, imgr);
-    BooleanFormula constraint = bmgr.and(booleanFormulas);
+  /**
+   * Prints the grid of a session, or its conflicting equations if it has no solution.
+   *
+   * @param session the session
+   * @throws IOException if the grid cannot be printed
+   */
+  private static void printSession(CrosswordSession session) throws IOException {
+    if (session.getResult().isSatisfiable()) {
+      session.render(System.out);
+    } else {
+      System.out.println("Unsatisfiable, conflicting equations:");
+      for (Equation equation : session.getResult().getConflict()) {
+        System.out.println("  " + describe(equation));
+      }
+    }
+  }
 
-    try (ProverEnvironment prover = context.newProverEnvironment(
-        SolverContext.ProverOptions.GENERATE_MODELS)) {
-      prover.addConstraint(constraint);
+  /**
+   * Describes an equation by its position in the grid, counting rows and columns from 1.
+   *
+   * @param equation the equation
+   * @return the position, the direction and the equation
+   */
+  private static String describe(Equation equation) {
+    return "row " + (equation.getRow() + 1) + ", column " + (equation.getColumn() + 1)
+        + (equation.isHorizontal() ? " across: " : " down: ") + equation;
+  }
 
-      for (IntegerFormula var : variables.values()) {
-        prover.addConstraint(imgr.greaterOrEquals(var, imgr.makeNumber(0)));
-        prover.addConstraint(imgr.lessOrEquals(var, imgr.makeNumber(9)));
-      }
+  /**
+   * Formats a solution of a crossword without modifying the parsed crossword.
+   *
+   * @param puzzle   the unsolved crossword
+   * @param solution the values of its variables
+   * @return the solved crossword
+   */
+  private static String format(String puzzle, Map<String, Integer> solution) {
+    Crossword crossword = new Crossword(puzzle);
+    crossword.parseCrossword();
+    crossword.updateVariables(solution);
+    StringBuilder text = new StringBuilder(crossword.getRenderedLength());
+    try {
+      crossword.render(text);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return text.toString();
+  }
 
-      boolean isUnsat = prover.isUnsat();
-      if (!isUnsat) {
-        Model model = prover.getModel();
-        Map<String, Integer> variableValues = new HashMap<>();
-        for (Map.Entry<String, IntegerFormula> entry : variables.entrySet()) {
-          String variableName = entry.getKey();
-          IntegerFormula variable = entry.getValue();
-          int value = model.evaluate(variable).intValue();
-          variableValues.put(variableName, value);
+  /**
+   * Solves all crosswords of the batch given in the options and writes the results in the
+   * format given in the options. The batch is streamed through channels, so its size is not
+   * limited by memory.
+   *
+   * @param config  the configuration used to create the solver contexts, or null for the
+   *                defaults
+   * @param options the options selecting the batch and the solver
+   * @param metrics the metrics of the solve pipeline
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  private static void solveBatch(Configuration config, CrosswordOptions options,
+                                 SolverMetrics metrics) throws InvalidConfigurationException {
+    try (ReadableByteChannel in = options.getBatch().equals("-")
+        ? Channels.newChannel(System.in)
+        : FileChannel.open(Paths.get(options.getBatch()), StandardOpenOption.READ);
+         PuzzleChannelWriter out = new PuzzleChannelWriter(options.getOutput().equals("-")
+             ? Channels.newChannel(System.out)
+             : FileChannel.open(Paths.get(options.getOutput()), StandardOpenOption.CREATE,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+             options.getFormat());
+         CrosswordSolver solver = createSolver(config, options, metrics);
+         BatchSolver batchSolver = new BatchSolver(solver, options.getThreads(), metrics)) {
+      PuzzleChannelReader puzzles = new PuzzleChannelReader(in, options.getFormat());
+      batchSolver.solveCrosswords(puzzles, options.isOrdered(), result -> {
+        try {
+          switch (result.getStatus()) {
+            case SOLVED:
+              out.write(result.getCrossword());
+              break;
+            case UNSATISFIABLE:
+              out.write("Unsatisfiable");
+              break;
+            case TIMEOUT:
+              out.write("Timeout");
+              break;
+            default:
+              out.write("Failed: " + result.getError());
+              break;
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (IOException | UncheckedIOException | InterruptedException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Generates the number of crosswords given in the options and writes them in the format given
+   * in the options, followed by the throughput on standard error. The crosswords are unique
+   * with the division of the solvers selected by the options.
+   *
+   * @param options the options of the generator and the output
+   * @throws InvalidConfigurationException if the size or the number of equations is invalid
+   */
+  private static void generate(CrosswordOptions options) throws InvalidConfigurationException {
+    PuzzleGenerator generator;
+    try {
+      generator = new PuzzleGenerator(options.getGeneratorWidth(),
+          options.getGeneratorHeight(), options.getGeneratorEquations(),
+          options.getGeneratorSeed(), isExactDivision(options));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidConfigurationException(e.getMessage(), e);
+    }
+    ForkJoinPool pool = new ForkJoinPool(options.getThreads() > 0
+        ? options.getThreads() : Runtime.getRuntime().availableProcessors());
+    long start = System.nanoTime();
+    try (PuzzleChannelWriter out = new PuzzleChannelWriter(options.getOutput().equals("-")
+        ? Channels.newChannel(System.out)
+        : FileChannel.open(Paths.get(options.getOutput()), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+        options.getFormat())) {
+      for (long first = 0; first < options.getGenerate(); first += GENERATE_CHUNK) {
+        int count = (int) Math.min(GENERATE_CHUNK, options.getGenerate() - first);
+        for (String puzzle : generator.generate(pool, first, count)) {
+          out.write(new Crossword(puzzle));
         }
-        crossword.updateVariables(variableValues);
-        crossword.replaceVariablesWithValues();
-        System.out.println(crossword.toString());
-      } else {
-        System.out.println("Unsatisfiable");
       }
-    } catch (SolverException | InterruptedException e) {
+    } catch (IOException e) {
       e.printStackTrace();
+    } finally {
+      pool.shutdown();
     }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.err.printf(Locale.ROOT, "Generated %d crosswords in %.3f s (%.1f crosswords/s)%n",
+        options.getGenerate(), seconds, options.getGenerate() / seconds);
+  }
 
+  /**
+   * Runs the solve server on the port given in the options until the JVM is shut down.
+   *
+   * @param config  the configuration used to create the solver contexts, or null for the
+   *                defaults
+   * @param options the options selecting the port and the solver
+   * @param metrics the metrics of the solve pipeline
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  private static void serve(Configuration config, CrosswordOptions options,
+                            SolverMetrics metrics) throws InvalidConfigurationException {
+    try (CrosswordSolver solver = createSolver(config, options, metrics);
+         SolveServer server = new SolveServer(solver, options.getServerPort(),
+             options.getThreads(), options.getServerQueue(), options.getServerBatch(),
+             metrics)) {
+      Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+      server.start();
+      System.err.println("Solving crosswords posted to http://localhost:" + server.getPort()
+          + "/solve");
+      server.awaitClose();
+    } catch (IOException | InterruptedException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Creates the solver selected by the options.
+   *
+   * @param config  the configuration used to create a solver context, or null for the defaults
+   * @param options the options selecting the solver
+   * @param metrics the metrics the solvers report to
+   * @return the thread-safe solver, to be closed by the caller
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  static CrosswordSolver createSolver(Configuration config, CrosswordOptions options,
+                                      SolverMetrics metrics)
+      throws InvalidConfigurationException {
+    CrosswordSolver solver;
+    if (!options.getPortfolio().isBlank()) {
+      checkDivision(options, options.getPortfolio());
+      List<CrosswordSolver> members = new ArrayList<>();
+      try {
+        for (String member : options.getPortfolio().split(",")) {
+          members.add(createMember(config, options, member.trim(), metrics));
+        }
+      } catch (InvalidConfigurationException e) {
+        members.forEach(CrosswordSolver::close);
+        throw e;
+      }
+      solver = new PortfolioSolver(members, options.getThreads());
+    } else if (!options.getSelect().isBlank()) {
+      checkDivision(options, options.getSelect());
+      Map<String, CrosswordSolver> members = new LinkedHashMap<>();
+      try {
+        for (String member : options.getSelect().split(",")) {
+          members.put(member.trim(), createMember(config, options, member.trim(), metrics));
+        }
+        solver = new SelectingSolver(members, options.getSelectProfile() == null
+            ? new SolverProfile() : new SolverProfile(Paths.get(options.getSelectProfile())));
+      } catch (InvalidConfigurationException e) {
+        members.values().forEach(CrosswordSolver::close);
+        throw e;
+      } catch (IOException e) {
+        members.values().forEach(CrosswordSolver::close);
+        throw new InvalidConfigurationException("Cannot read the solver profile "
+            + options.getSelectProfile(), e);
+      }
+    } else if (options.getMode() == SolverMode.NATIVE) {
+      solver = new NativeSolver(metrics);
+    } else {
+      // The pool, its logger and the configuration are created on first use, and a
+      // SolverContext per thread by the pool.
+      solver = new LazySolver(() -> {
+        Configuration smtConfig = config == null ? Configuration.defaultConfiguration() : config;
+        LogManager logger = BasicLogManager.create(smtConfig);
+        return new SmtSolverPool(smtConfig, logger, options.getSolver(), options.getEncoding(),
+            metrics, options.isTemplates());
+      });
+    }
+    if (options.isDecompose()) {
+      solver = new DecomposingSolver(solver, options.getThreads());
+    }
+    if (options.isPresolve()) {
+      solver = new PresolvingSolver(solver, metrics, isExactDivision(options));
+    }
+    if (options.getTimeout() > 0) {
+      solver = new DeadlineSolver(solver, options.getTimeout());
+    }
+    if (metrics != SolverMetrics.NONE) {
+      solver = new MeasuredSolver(solver, metrics);
+    }
+    if (options.getDedupSize() > 0) {
+      solver = new DeduplicatingSolver(solver, options.getDedupSize(), metrics);
+    }
+    if (options.getCacheSize() > 0) {
+      try {
+        solver = new CachingSolver(solver, new SolutionCache(options.getCacheSize(),
+            options.getCacheDirectory() == null ? null : Paths.get(options.getCacheDirectory()),
+            metrics), isExactDivision(options));
+      } catch (IOException e) {
+        solver.close();
+        throw new InvalidConfigurationException("Cannot create the cache directory "
+            + options.getCacheDirectory(), e);
+      }
+    }
+    return solver;
+  }
 
+  /**
+   * Creates the metrics selected by the options.
+   *
+   * @param options  the options selecting the metrics
+   * @param registry the registry that collects the metrics printed at the end
+   * @return the metrics the solve pipeline reports to
+   */
+  private static SolverMetrics createMetrics(CrosswordOptions options, MetricsRegistry registry) {
+    SolverMetrics metrics = options.isMetrics() ? registry : SolverMetrics.NONE;
+    return options.isJfr() ? SolverMetrics.both(metrics, new JfrMetrics()) : metrics;
   }
 
   /**
-   * Generates the boolean formulas for the given crossword and integer formula manager.
+   * Returns whether every solver selected by the options reads division as exact: the native
+   * solver and the bit-vector encoding do, the integer encoding rounds down.
    *
-   * @param crossword the crossword object containing the equations and variables
-   * @param imgr      the integer formula manager used to create integer formulas
+   * @param options the options selecting the solvers
+   * @return true if division is exact, false if any solver uses integer division
    */
-  private static void generateBooleanFormulas(Crossword crossword,
-                                              IntegerFormulaManager imgr) {
-    Map<String, Integer> variablesMap = crossword.getVariables();
-    List<String> variablesNames = new ArrayList<>(variablesMap.keySet());
-    List<Equation> equations = crossword.getEquations();
-
-    generateVariables(variablesNames, imgr);
-
-    for (Equation equation : equations) {
-      String operation = equation.getOperation();
-      String[] operationSide = equation.getOperationSide();
-
-      switch (operation) {
-        case "+":
-          booleanFormulas.add(
-              imgr.equal(
-                  imgr.add(
-                      variables.get(operationSide[0]),
-                      variables.get(operationSide[1])
-                  ), variables.get(equation.getResultSide())
-              ));
-          break;
-        case "-":
-          booleanFormulas.add(
-              imgr.equal(
-                  imgr.subtract(
-                      variables.get(operationSide[0]),
-                      variables.get(operationSide[1])
-                  ), variables.get(equation.getResultSide())
-              ));
-          break;
-        case "*":
-          booleanFormulas.add(
-              imgr.equal(
-                  imgr.multiply(
-                      variables.get(operationSide[0]),
-                      variables.get(operationSide[1])
-                  ), variables.get(equation.getResultSide())
-              ));
-          break;
-        case "/":
-          booleanFormulas.add(
-              imgr.equal(
-                  imgr.divide(
-                      variables.get(operationSide[0]),
-                      variables.get(operationSide[1])
-                  ), variables.get(equation.getResultSide())
-              ));
-          break;
-        default:
-          break;
+  static boolean isExactDivision(CrosswordOptions options) {
+    String members = options.getPortfolio().isBlank()
+        ? options.getSelect() : options.getPortfolio();
+    if (members.isBlank()) {
+      return options.getMode() == SolverMode.NATIVE
+          || options.getEncoding() == Encoding.BITVECTOR;
+    }
+    for (String member : members.split(",")) {
+      if (isIntegerDivision(options, member.trim())) {
+        return false;
       }
     }
+    return true;
   }
 
   /**
-   * Generates the variables for the given list of variable names and integer formula manager.
+   * Returns whether a member of a portfolio or selection is an SMT backend with the integer
+   * encoding, which rounds division down.
    *
-   * @param variablesNames the list of variable names to generate
-   * @param imgr           the integer formula manager used to create integer formulas
+   * @param options the options with the default encoding
+   * @param name    `native` or the name of a JavaSMT backend, optionally with an encoding
+   * @return true for the integer encoding, false for the native solver and bit-vectors
    */
-  private static void generateVariables(List<String> variablesNames, IntegerFormulaManager
-      imgr) {
-    for (String variable : variablesNames) {
-      if (variable.startsWith("x_")) {
-        variables.put(variable, imgr.makeVariable(variable));
-      } else {
-        variables.put(variable, imgr.makeNumber(Integer.parseInt(variable)));
+  private static boolean isIntegerDivision(CrosswordOptions options, String name) {
+    String[] parts = name.split(":", 2);
+    if (parts[0].equalsIgnoreCase("native")) {
+      return false;
+    }
+    return parts.length == 2
+        ? !parts[1].equalsIgnoreCase(Encoding.BITVECTOR.name())
+        : options.getEncoding() != Encoding.BITVECTOR;
+  }
+
+  /**
+   * Checks that the SMT members of a portfolio or selection read division alike, since the
+   * answer of a member would otherwise depend on which member is run. Native members follow the
+   * others.
+   *
+   * @param options the options with the default encoding
+   * @param members the names of the members, separated by commas
+   * @throws InvalidConfigurationException if the bit-vector and the integer encoding are mixed
+   */
+  private static void checkDivision(CrosswordOptions options, String members)
+      throws InvalidConfigurationException {
+    boolean integer = false;
+    boolean exact = false;
+    for (String member : members.split(",")) {
+      if (isIntegerDivision(options, member.trim())) {
+        integer = true;
+      } else if (!member.trim().equalsIgnoreCase("native")) {
+        exact = true;
       }
+    }
+    if (integer && exact) {
+      throw new InvalidConfigurationException("The solvers " + members + " read division "
+          + "differently, use either the integer or the bit-vector encoding for all of them");
+    }
+  }
 
+  /**
+   * Creates a member of a portfolio or selection: the native solver or a pool of the named SMT
+   * backend, with the encoding of the options or the one after a colon, e.g. `z3:bitvector`.
+   *
+   * @param config  the configuration used to create the solver contexts, or null for the
+   *                defaults
+   * @param options the options selecting the encoding
+   * @param name    `native` or the name of a JavaSMT backend, optionally with an encoding
+   * @param metrics the metrics the solver reports to
+   * @return the thread-safe solver, whose division is that of all members, see
+   *         `isExactDivision`
+   * @throws InvalidConfigurationException if the name or the encoding is unknown
+   */
+  private static CrosswordSolver createMember(Configuration config, CrosswordOptions options,
+                                              String name, SolverMetrics metrics)
+      throws InvalidConfigurationException {
+    if (name.equalsIgnoreCase("native")) {
+      return new NativeSolver(metrics, isExactDivision(options));
+    }
+    String[] parts = name.split(":", 2);
+    Solvers backend;
+    Encoding encoding;
+    try {
+      backend = Solvers.valueOf(parts[0].toUpperCase(Locale.ROOT));
+      encoding = parts.length == 2
+          ? Encoding.valueOf(parts[1].toUpperCase(Locale.ROOT)) : options.getEncoding();
+    } catch (IllegalArgumentException e) {
+      throw new InvalidConfigurationException("Unknown solver: " + name, e);
     }
+    return new LazySolver(() -> {
+      Configuration smtConfig = config == null ? Configuration.defaultConfiguration() : config;
+      return new SmtSolverPool(smtConfig, BasicLogManager.create(smtConfig), backend, encoding,
+          metrics, options.isTemplates());
+    });
   }
 
 }
@@ -0,0 +1,156 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `MeasuredSolver` class reports every call of a delegate solver to `SolverMetrics`.
+ *
+ * <p>It records the duration of the call as the phase `SOLVE`, counts the crosswords, equations
+ * and variables it was given and how the call ended, and the bytes the calling thread allocated
+ * during the call if the JVM supports measuring them. The phases inside the call are reported by
+ * the solvers themselves. The solver is thread-safe if the delegate is.
+ *
+ * @see SolverMetrics
+ */
+public class MeasuredSolver implements CrosswordSolver {
+  private final CrosswordSolver delegate;
+  private final SolverMetrics metrics;
+
+  /**
+   * Holds the thread bean, so the management classes are only loaded once a call is measured.
+   */
+  private static final class Threads {
+    private static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+  }
+
+  /**
+   * The body of a measured call.
+   */
+  private interface Call<T> {
+    Optional<T> run() throws SolverException, InterruptedException;
+  }
+
+  /**
+   * Constructs a solver that measures the calls of the delegate.
+   *
+   * @param delegate the solver to measure, closed together with this solver
+   * @param metrics  the metrics to report to
+   */
+  public MeasuredSolver(CrosswordSolver delegate, SolverMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(Crossword crossword)
+      throws SolverException, InterruptedException {
+    metrics.increment(SolverMetrics.Counter.CROSSWORDS);
+    return measure(crossword.getEquations().size(), crossword.getVariableCount(),
+        () -> delegate.solve(crossword));
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return measure(equations.size(), variableCount,
+        () -> delegate.solve(equations, variableCount));
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    return measure(equations.size(), variableCount,
+        () -> delegate.solve(equations, variableCount, notifier));
+  }
+
+  @Override
+  public Optional<int[]> solveValues(Crossword crossword)
+      throws SolverException, InterruptedException {
+    metrics.increment(SolverMetrics.Counter.CROSSWORDS);
+    return measure(crossword.getEquations().size(), crossword.getVariableCount(),
+        () -> delegate.solveValues(crossword));
+  }
+
+  @Override
+  public Optional<int[]> solveValues(List<Equation> equations, int variableCount,
+                                     ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    return measure(equations.size(), variableCount,
+        () -> delegate.solveValues(equations, variableCount, notifier));
+  }
+
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return delegate.enumerate(equations, variableCount, limit, consumer);
+  }
+
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return delegate.unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Runs a call of the delegate and reports it.
+   *
+   * @param equationCount the number of equations of the call
+   * @param variableCount the number of variables of the call
+   * @param call          the call of the delegate
+   * @return the result of the call
+   * @throws SolverException      if the call fails
+   * @throws InterruptedException if the call is interrupted
+   */
+  private <T> Optional<T> measure(int equationCount, int variableCount, Call<T> call)
+      throws SolverException, InterruptedException {
+    metrics.increment(SolverMetrics.Counter.EQUATIONS, equationCount);
+    metrics.increment(SolverMetrics.Counter.VARIABLES, variableCount);
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      Optional<T> solution = call.run();
+      metrics.increment(solution.isPresent()
+          ? SolverMetrics.Counter.SATISFIABLE : SolverMetrics.Counter.UNSATISFIABLE);
+      return solution;
+    } catch (SolverTimeoutException e) {
+      metrics.increment(SolverMetrics.Counter.TIMEOUTS);
+      throw e;
+    } catch (SolverException | InterruptedException | RuntimeException e) {
+      metrics.increment(SolverMetrics.Counter.FAILURES);
+      throw e;
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SOLVE, System.nanoTime() - start);
+      long allocatedAfter = allocatedBytes();
+      if (allocatedBefore >= 0 && allocatedAfter >= allocatedBefore) {
+        metrics.increment(SolverMetrics.Counter.ALLOCATED_BYTES, allocatedAfter - allocatedBefore);
+      }
+    }
+  }
+
+  /**
+   * Returns the bytes allocated by the current thread so far.
+   *
+   * @return the allocated bytes, or -1 if the JVM does not measure them
+   */
+  private static long allocatedBytes() {
+    if (Threads.BEAN instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) Threads.BEAN).getCurrentThreadAllocatedBytes();
+    }
+    return -1;
+  }
+
+  /**
+   * Closes the delegate.
+   */
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
@@ -0,0 +1,80 @@
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The `MetricsRegistry` class aggregates the measurements of the solve pipeline in memory.
+ *
+ * <p>It keeps one `LatencyHistogram` per phase and one counter per `SolverMetrics.Counter`, all
+ * of them thread-safe. `report` formats the count, mean, p50, p99 and maximum of every phase
+ * and all counters, e.g. to print them at the end of a batch.
+ */
+public class MetricsRegistry implements SolverMetrics {
+  private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+  private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+
+  /**
+   * Constructs a registry with empty histograms and counters.
+   */
+  public MetricsRegistry() {
+    for (Phase phase : Phase.values()) {
+      phases.put(phase, new LatencyHistogram());
+    }
+    for (Counter counter : Counter.values()) {
+      counters.put(counter, new LongAdder());
+    }
+  }
+
+  @Override
+  public void recordPhase(Phase phase, long nanos) {
+    phases.get(phase).record(nanos);
+  }
+
+  @Override
+  public void increment(Counter counter, long amount) {
+    counters.get(counter).add(amount);
+  }
+
+  /**
+   * Returns the histogram of a phase.
+   *
+   * @param phase the phase
+   * @return the histogram of its durations
+   */
+  public LatencyHistogram getHistogram(Phase phase) {
+    return phases.get(phase);
+  }
+
+  /**
+   * Returns the value of a counter.
+   *
+   * @param counter the counter
+   * @return its current value
+   */
+  public long getCount(Counter counter) {
+    return counters.get(counter).sum();
+  }
+
+  /**
+   * Formats all histograms and counters, one per line. Durations are given in microseconds.
+   *
+   * @return the report
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    for (Phase phase : Phase.values()) {
+      LatencyHistogram histogram = phases.get(phase);
+      long count = histogram.getCount();
+      sb.append(String.format(Locale.ROOT,
+          "%-8s count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus%n",
+          phase, count, count == 0 ? 0.0 : histogram.getTotal() / 1e3 / count,
+          histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3,
+          histogram.getMax() / 1e3));
+    }
+    for (Counter counter : Counter.values()) {
+      sb.append(counter).append('=').append(getCount(counter)).append(System.lineSeparator());
+    }
+    return sb.toString();
+  }
+}
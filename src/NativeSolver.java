@@ -0,0 +1,627 @@
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+
+/**
+ * The `NativeSolver` class solves a parsed `Crossword` with a built-in finite-domain constraint
+ * propagation engine instead of an SMT solver.
+ *
+ * <p>Every variable `x_n` of the crossword is given a domain of the digits 0 to 9, stored as a
+ * bitset in a single `int`. Each `Equation` becomes a ternary constraint `a op b = c` whose
+ * operands are either variables or constants. The solver alternates between
+ * <ul>
+ *   <li>propagation: every constraint removes the values of its variables that have no support
+ *   in the domains of the other operands (generalized arc consistency), until a fixpoint</li>
+ *   <li>search: the unassigned variable with the fewest remaining values is tried value by value,
+ *   backtracking on a wiped out domain</li>
+ * </ul>
+ *
+ * <p>Division is interpreted as exact division, i.e. `a / b = c` holds iff `b != 0` and
+ * `a = b * c`, which is how the crossword puzzles are meant to be read. A solver created with
+ * integer division instead reads it like the integer encoding of the SMT solvers: `a / b`
+ * rounds down, and a division by zero, whose result SMT leaves unspecified, allows any result.
+ * The latter admits at least the solutions of the SMT solvers, so a crossword it finds unique is
+ * unique for them too.
+ * No native libraries or solver contexts are needed, so an instance is cheap to create.
+ * An instance keeps no state between calls, so it may be shared between threads.
+ * A call with a `ShutdownNotifier` checks it regularly during the search and stops once a
+ * shutdown is requested.
+ *
+ * @see Crossword
+ * @see Equation
+ */
+public class NativeSolver implements CrosswordSolver {
+  private static final int FULL_DOMAIN = (1 << 10) - 1;
+  private final SolverMetrics metrics;
+  private final boolean exactDivision;
+
+  /**
+   * Constructs a solver that reports no metrics.
+   */
+  public NativeSolver() {
+    this(SolverMetrics.NONE);
+  }
+
+  /**
+   * Constructs a solver that reports the phases of every call to the given metrics: compiling
+   * the constraints as `ENCODE`, propagation and search as `CHECK` and reading the values as
+   * `MODEL`.
+   *
+   * @param metrics the metrics to report to
+   */
+  public NativeSolver(SolverMetrics metrics) {
+    this(metrics, true);
+  }
+
+  /**
+   * Constructs a solver that reports to the given metrics and reads division as exact or as
+   * integer division.
+   *
+   * @param metrics       the metrics to report to
+   * @param exactDivision whether division is exact, or else integer division
+   */
+  public NativeSolver(SolverMetrics metrics, boolean exactDivision) {
+    this.metrics = metrics;
+    this.exactDivision = exactDivision;
+  }
+
+  /**
+   * Solves the given parsed crossword.
+   *
+   * @param crossword the crossword, `parseCrossword` must have been called on it
+   * @return the values of all variables `x_n`, or an empty `Optional` if it is unsatisfiable
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(Crossword crossword) {
+    return solve(crossword.getEquations(), crossword.getVariableCount());
+  }
+
+  /**
+   * Solves a set of equations over the variables `x_1` to `x_n`.
+   * A variable that occurs in no equation gets the value 0.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount) {
+    return new Search(null, metrics, exactDivision).solve(equations, variableCount);
+  }
+
+  /**
+   * Solves a set of equations over the variables `x_1` to `x_n` until the notifier requests a
+   * shutdown.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws InterruptedException if the shutdown was requested
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws InterruptedException {
+    notifier.shutdownIfNecessary();
+    Optional<Map<String, Integer>> solution =
+        new Search(notifier, metrics, exactDivision).solve(equations, variableCount);
+    notifier.shutdownIfNecessary();
+    return solution;
+  }
+
+  /**
+   * Solves the given parsed crossword into an array indexed like its variables, decoded straight
+   * from the solved domains.
+   *
+   * @param crossword the crossword, `parseCrossword` must have been called on it
+   * @return the value of `x_(i+1)` at index `i`, or an empty `Optional` if it is unsatisfiable
+   */
+  @Override
+  public Optional<int[]> solveValues(Crossword crossword) {
+    return new Search(null, metrics, exactDivision)
+        .solveValues(crossword.getEquations(), crossword.getVariableCount());
+  }
+
+  /**
+   * Solves a set of equations into an array indexed like the variables until the notifier
+   * requests a shutdown.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the value of `x_(i+1)` at index `i`, or an empty `Optional` if it is unsatisfiable
+   * @throws InterruptedException if the shutdown was requested
+   */
+  @Override
+  public Optional<int[]> solveValues(List<Equation> equations, int variableCount,
+                                     ShutdownNotifier notifier)
+      throws InterruptedException {
+    notifier.shutdownIfNecessary();
+    Optional<int[]> solution =
+        new Search(notifier, metrics, exactDivision).solveValues(equations, variableCount);
+    notifier.shutdownIfNecessary();
+    return solution;
+  }
+
+  /**
+   * Enumerates the solutions of the given parsed crossword.
+   *
+   * @param crossword the crossword, `parseCrossword` must have been called on it
+   * @param limit     the maximal number of solutions to enumerate
+   * @param consumer  the consumer of the solutions
+   * @return the number of solutions passed to the consumer
+   */
+  @Override
+  public long enumerate(Crossword crossword, long limit,
+                        Consumer<Map<String, Integer>> consumer) {
+    return enumerate(crossword.getEquations(), crossword.getVariableCount(), limit, consumer);
+  }
+
+  /**
+   * Enumerates the solutions of a set of equations by continuing the search after every
+   * solution, until the search space is exhausted or the limit is reached.
+   * A variable that occurs in no equation gets the value 0 in every solution.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param limit         the maximal number of solutions to enumerate
+   * @param consumer      the consumer of the solutions
+   * @return the number of solutions passed to the consumer
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer) {
+    return new Search(null, metrics, exactDivision)
+        .enumerate(equations, variableCount, limit, consumer);
+  }
+
+  @Override
+  public boolean isUnique(Crossword crossword) {
+    return enumerate(crossword, 2, solution -> { }) == 1;
+  }
+
+  /**
+   * Applies an operation, returning -1 if the result is undefined.
+   *
+   * @param operation one of `+`, `-`, `*` and `/`
+   * @param a         the left operand
+   * @param b         the right operand
+   * @return the result of `a operation b`
+   */
+  static long apply(char operation, long a, long b) {
+    switch (operation) {
+      case '+':
+        return a + b;
+      case '-':
+        return a - b;
+      case '*':
+        return a * b;
+      case '/':
+        return b != 0 && a % b == 0 ? a / b : -1;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * The state of solving a single crossword.
+   */
+  private static final class Search {
+    private static final int CHECK_INTERVAL = 1024;
+    private final ShutdownNotifier notifier;
+    private final SolverMetrics metrics;
+    private final boolean exactDivision;
+    private int nodes;
+    private boolean cancelled;
+    private int[] operandA;
+    private int[] operandB;
+    private int[] operandC;
+    private char[] operations;
+    private int[][] constraintsOfVariable;
+    private boolean[] queued;
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+    private Consumer<Map<String, Integer>> consumer;
+    private long limit;
+    private long found;
+
+    /**
+     * Creates the state of one search.
+     *
+     * @param notifier      the notifier checked every `CHECK_INTERVAL` nodes, or null
+     * @param metrics       the metrics of the phases
+     * @param exactDivision whether division is exact, or else integer division
+     */
+    Search(ShutdownNotifier notifier, SolverMetrics metrics, boolean exactDivision) {
+      this.notifier = notifier;
+      this.metrics = metrics;
+      this.exactDivision = exactDivision;
+    }
+
+    /**
+     * Solves a set of equations over the variables `x_1` to `x_n`.
+     *
+     * @param equations     the equations to solve
+     * @param variableCount the number of variables `n` the equations refer to
+     * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+     */
+    Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount) {
+      return solveValues(equations, variableCount).map(Search::valuesOf);
+    }
+
+    /**
+     * Solves a set of equations over the variables `x_1` to `x_n` into an array indexed like
+     * the variables.
+     *
+     * @param equations     the equations to solve
+     * @param variableCount the number of variables `n` the equations refer to
+     * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+     */
+    Optional<int[]> solveValues(List<Equation> equations, int variableCount) {
+      long start = System.nanoTime();
+      int[] domains = compile(equations, variableCount);
+      long compiled = System.nanoTime();
+      metrics.recordPhase(SolverMetrics.Phase.ENCODE, compiled - start);
+      int[] solution = propagateAll(domains) ? search(domains) : null;
+      long searched = System.nanoTime();
+      metrics.recordPhase(SolverMetrics.Phase.CHECK, searched - compiled);
+      if (solution == null) {
+        return Optional.empty();
+      }
+      int[] values = decode(solution);
+      metrics.recordPhase(SolverMetrics.Phase.MODEL, System.nanoTime() - searched);
+      return Optional.of(values);
+    }
+
+    /**
+     * Enumerates the solutions of a set of equations over the variables `x_1` to `x_n`.
+     *
+     * @param equations     the equations to solve
+     * @param variableCount the number of variables `n` the equations refer to
+     * @param limit         the maximal number of solutions to enumerate
+     * @param consumer      the consumer of the solutions
+     * @return the number of solutions passed to the consumer
+     */
+    long enumerate(List<Equation> equations, int variableCount, long limit,
+                   Consumer<Map<String, Integer>> consumer) {
+      int[] domains = compile(equations, variableCount);
+      this.consumer = consumer;
+      this.limit = limit;
+      this.found = 0;
+      if (limit > 0 && propagateAll(domains)) {
+        searchAll(domains);
+      }
+      return found;
+    }
+
+    /**
+     * Converts solved domains into the values of the variables.
+     *
+     * @param solution the solved domains, each a single bit
+     * @return the values of all variables, indexed like the variables
+     */
+    private static int[] decode(int[] solution) {
+      int[] values = new int[solution.length];
+      for (int i = 0; i < solution.length; i++) {
+        values[i] = Integer.numberOfTrailingZeros(solution[i]);
+      }
+      return values;
+    }
+
+    /**
+     * Converts the values of the variables, indexed like the variables, into a map by name.
+     *
+     * @param values the values of the variables
+     * @return the values of all variables
+     */
+    private static Map<String, Integer> valuesOf(int[] values) {
+      Map<String, Integer> variableValues = HashMap.newHashMap(values.length);
+      for (int i = 0; i < values.length; i++) {
+        variableValues.put(Equation.nameOf(i), values[i]);
+      }
+      return variableValues;
+    }
+
+    /**
+     * Translates the equations into constraints over variable indices, using the operand
+     * encoding of `Equation`.
+     *
+     * @param equations     the equations of the crossword
+     * @param variableCount the number of variables of the crossword
+     * @return the initial domains of all variables
+     */
+    private int[] compile(List<Equation> equations, int variableCount) {
+      int size = equations.size();
+      operandA = new int[size];
+      operandB = new int[size];
+      operandC = new int[size];
+      operations = new char[size];
+      int[] degrees = new int[variableCount];
+
+      for (int i = 0; i < size; i++) {
+        Equation equation = equations.get(i);
+        operandA[i] = equation.getLeft();
+        operandB[i] = equation.getRight();
+        operandC[i] = equation.getResult();
+        operations[i] = equation.getOperator();
+        for (int operand : operandsOf(i)) {
+          if (operand >= 0) {
+            degrees[operand]++;
+          }
+        }
+      }
+
+      constraintsOfVariable = new int[variableCount][];
+      for (int i = 0; i < variableCount; i++) {
+        constraintsOfVariable[i] = new int[degrees[i]];
+        degrees[i] = 0;
+      }
+      for (int i = 0; i < size; i++) {
+        for (int operand : operandsOf(i)) {
+          if (operand >= 0) {
+            constraintsOfVariable[operand][degrees[operand]++] = i;
+          }
+        }
+      }
+      queued = new boolean[size];
+
+      int[] domains = new int[variableCount];
+      for (int i = 0; i < domains.length; i++) {
+        domains[i] = constraintsOfVariable[i].length == 0 ? 1 : FULL_DOMAIN;
+      }
+      return domains;
+    }
+
+    /**
+     * Returns the distinct operands of a constraint; a variable occurring twice is listed once.
+     *
+     * @param constraint the constraint index
+     * @return the operands of the constraint
+     */
+    private int[] operandsOf(int constraint) {
+      int a = operandA[constraint];
+      int b = operandB[constraint];
+      int c = operandC[constraint];
+      return new int[] {a, b == a ? Equation.constant(0) : b,
+          c == a || c == b ? Equation.constant(0) : c};
+    }
+
+    /**
+     * Runs depth-first search with propagation at every node.
+     *
+     * @param domains the propagated domains to start with
+     * @return the solved domains, each a single bit, or null if there is no solution
+     */
+    private int[] search(int[] domains) {
+      if (isCancelled()) {
+        return null;
+      }
+      int variable = selectVariable(domains);
+      if (variable < 0) {
+        return domains;
+      }
+      int remaining = domains[variable];
+      while (remaining != 0) {
+        int value = Integer.lowestOneBit(remaining);
+        remaining &= ~value;
+        int[] branch = domains.clone();
+        branch[variable] = value;
+        if (propagate(branch, constraintsOfVariable[variable])) {
+          int[] solution = search(branch);
+          if (solution != null) {
+            return solution;
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Runs depth-first search over the whole search space, passing every solution to the
+     * consumer.
+     *
+     * @param domains the propagated domains to start with
+     * @return false once the limit of solutions is reached
+     */
+    private boolean searchAll(int[] domains) {
+      if (isCancelled()) {
+        return false;
+      }
+      int variable = selectVariable(domains);
+      if (variable < 0) {
+        consumer.accept(valuesOf(decode(domains)));
+        return ++found < limit;
+      }
+      int remaining = domains[variable];
+      while (remaining != 0) {
+        int value = Integer.lowestOneBit(remaining);
+        remaining &= ~value;
+        int[] branch = domains.clone();
+        branch[variable] = value;
+        if (propagate(branch, constraintsOfVariable[variable]) && !searchAll(branch)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Checks the notifier every `CHECK_INTERVAL` search nodes. A cancelled search unwinds as if
+     * there were no further solutions; the caller checks the notifier afterwards.
+     *
+     * @return true if a shutdown was requested
+     */
+    private boolean isCancelled() {
+      if (!cancelled && notifier != null && ++nodes % CHECK_INTERVAL == 0) {
+        cancelled = notifier.shouldShutdown();
+      }
+      return cancelled;
+    }
+
+    /**
+     * Selects the unassigned variable with the smallest domain.
+     *
+     * @param domains the current domains
+     * @return the index of the variable, or -1 if every variable is assigned
+     */
+    private static int selectVariable(int[] domains) {
+      int best = -1;
+      int bestSize = Integer.MAX_VALUE;
+      for (int i = 0; i < domains.length; i++) {
+        int size = Integer.bitCount(domains[i]);
+        if (size > 1 && size < bestSize) {
+          best = i;
+          bestSize = size;
+        }
+      }
+      return best;
+    }
+
+    /**
+     * Propagates all constraints until a fixpoint is reached.
+     *
+     * @param domains the domains, narrowed in place
+     * @return false if a domain became empty
+     */
+    private boolean propagateAll(int[] domains) {
+      int[] all = new int[operations.length];
+      for (int i = 0; i < all.length; i++) {
+        all[i] = i;
+      }
+      return propagate(domains, all);
+    }
+
+    /**
+     * Propagates the given constraints and every constraint affected by a narrowed domain.
+     *
+     * @param domains     the domains, narrowed in place
+     * @param constraints the constraints to start with
+     * @return false if a domain became empty
+     */
+    private boolean propagate(int[] domains, int[] constraints) {
+      for (int constraint : constraints) {
+        enqueue(constraint);
+      }
+      while (!queue.isEmpty()) {
+        int constraint = queue.poll();
+        queued[constraint] = false;
+        if (!revise(domains, constraint)) {
+          while (!queue.isEmpty()) {
+            queued[queue.poll()] = false;
+          }
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Adds a constraint to the propagation queue unless it is already queued.
+     *
+     * @param constraint the constraint index
+     */
+    private void enqueue(int constraint) {
+      if (!queued[constraint]) {
+        queued[constraint] = true;
+        queue.add(constraint);
+      }
+    }
+
+    /**
+     * Removes all unsupported values from the domains of the operands of one constraint.
+     *
+     * @param domains    the domains, narrowed in place
+     * @param constraint the constraint index
+     * @return false if a domain became empty
+     */
+    private boolean revise(int[] domains, int constraint) {
+      int a = operandA[constraint];
+      int b = operandB[constraint];
+      int c = operandC[constraint];
+      int domainA = domainOf(domains, a);
+      int domainB = domainOf(domains, b);
+      int domainC = domainOf(domains, c);
+      int supportA = 0;
+      int supportB = 0;
+      int supportC = 0;
+
+      for (int valuesA = domainA; valuesA != 0; valuesA &= valuesA - 1) {
+        int valueA = valueOf(a, valuesA);
+        for (int valuesB = domainB; valuesB != 0; valuesB &= valuesB - 1) {
+          int valueB = valueOf(b, valuesB);
+          if (b == a && valueB != valueA) {
+            continue;
+          }
+          boolean integerDivision = !exactDivision && operations[constraint] == '/';
+          if (integerDivision && valueB == 0) {
+            supportA |= Integer.lowestOneBit(valuesA);
+            supportB |= Integer.lowestOneBit(valuesB);
+            supportC |= domainC;
+            continue;
+          }
+          long result = integerDivision
+              ? valueA / valueB : apply(operations[constraint], valueA, valueB);
+          boolean inconsistent = (c == a && result != valueA) || (c == b && result != valueB);
+          if (!inconsistent && supports(c, domainC, result)) {
+            supportA |= Integer.lowestOneBit(valuesA);
+            supportB |= Integer.lowestOneBit(valuesB);
+            supportC |= c >= 0 ? 1 << result : 1;
+          }
+        }
+      }
+
+      return narrow(domains, a, supportA) && narrow(domains, b, supportB)
+          && narrow(domains, c, supportC);
+    }
+
+    /**
+     * Returns the domain of an operand, a constant has the single placeholder bit 1.
+     */
+    private static int domainOf(int[] domains, int operand) {
+      return operand >= 0 ? domains[operand] : 1;
+    }
+
+    /**
+     * Returns the value selected by the lowest bit of a domain iteration.
+     */
+    private static int valueOf(int operand, int values) {
+      return operand >= 0 ? Integer.numberOfTrailingZeros(values) : Equation.constantValue(operand);
+    }
+
+    /**
+     * Checks whether a computed result is allowed for the result operand.
+     */
+    private static boolean supports(int operand, int domain, long result) {
+      if (operand >= 0) {
+        return result >= 0 && result <= 9 && (domain & (1 << result)) != 0;
+      }
+      return result == Equation.constantValue(operand);
+    }
+
+    /**
+     * Narrows the domain of an operand to its supported values and schedules dependent constraints.
+     *
+     * @return false if the domain became empty
+     */
+    private boolean narrow(int[] domains, int operand, int support) {
+      if (operand < 0) {
+        return support != 0;
+      }
+      int narrowed = domains[operand] & support;
+      if (narrowed == 0) {
+        return false;
+      }
+      if (domains[operand] != narrowed) {
+        domains[operand] = narrowed;
+        for (int constraint : constraintsOfVariable[operand]) {
+          enqueue(constraint);
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `PortfolioSolver` class races several solvers on the same crossword.
+ *
+ * <p>Every call starts all member solvers at the same time, each on a thread of its own. The
+ * first answer, a solution or unsatisfiable, is returned and the other members are stopped
+ * through a shared `ShutdownManager`; a member that fails does not end the race. Different
+ * backends are slow on different crosswords, so the time of a call is that of the fastest member
+ * instead of that of the member chosen in advance. The members must be thread-safe, like
+ * `NativeSolver` or `SmtSolverPool`.
+ *
+ * <p>Every member has a fixed pool of threads that lives as long as the portfolio, one per race
+ * that may run at the same time. A `SmtSolverPool` keeps one context per thread, so a member
+ * creates at most that many contexts and keeps them warm between races. A context that was
+ * stopped because its member lost a race cannot be used again and is replaced by the pool; a
+ * member that had not started yet when the race ended is not run at all.
+ *
+ * <p>The members must read division alike, exactly or as integer division, or the answer would
+ * depend on which member was fastest.
+ */
+public class PortfolioSolver implements CrosswordSolver {
+  private static final String CANCELLED = "Another solver answered first";
+  private final List<CrosswordSolver> members;
+  private final List<ExecutorService> workers = new ArrayList<>();
+
+  /**
+   * Constructs a solver that races the given members, running up to one race per available
+   * core at the same time.
+   *
+   * @param members the thread-safe solvers to race, closed together with this solver
+   */
+  public PortfolioSolver(List<CrosswordSolver> members) {
+    this(members, 0);
+  }
+
+  /**
+   * Constructs a solver that races the given members, running up to the given number of races
+   * at the same time. Further races wait for a thread of every member.
+   *
+   * @param members the thread-safe solvers to race, closed together with this solver
+   * @param threads the number of threads of every member, or 0 for one per available core
+   */
+  public PortfolioSolver(List<CrosswordSolver> members, int threads) {
+    if (members.isEmpty()) {
+      throw new IllegalArgumentException("A portfolio needs at least one solver");
+    }
+    this.members = List.copyOf(members);
+    int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    for (int i = 0; i < members.size(); i++) {
+      workers.add(Executors.newFixedThreadPool(size));
+    }
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solve(equations, variableCount, ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Races the members on a set of equations and returns the first answer.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call and every member
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if every member fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    ShutdownManager race = ShutdownManager.createWithParent(notifier);
+    BlockingQueue<Future<Optional<Map<String, Integer>>>> done = new LinkedBlockingQueue<>();
+    List<Future<Optional<Map<String, Integer>>>> futures = new ArrayList<>();
+    for (int i = 0; i < members.size(); i++) {
+      CrosswordSolver member = members.get(i);
+      futures.add(new ExecutorCompletionService<Optional<Map<String, Integer>>>(
+          workers.get(i), done)
+          .submit(() -> member.solve(equations, variableCount, race.getNotifier())));
+    }
+
+    SolverException failure = null;
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          return done.take().get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof InterruptedException && notifier.shouldShutdown()) {
+            throw (InterruptedException) cause;
+          }
+          if (failure == null) {
+            failure = new SolverException("Every solver of the portfolio failed", cause);
+          } else {
+            failure.addSuppressed(cause);
+          }
+        }
+      }
+      throw failure;
+    } finally {
+      // a member still waiting for a thread never starts, so its context stays usable
+      for (Future<Optional<Map<String, Integer>>> future : futures) {
+        future.cancel(false);
+      }
+      race.requestShutdown(CANCELLED);
+    }
+  }
+
+  /**
+   * Enumerates the solutions with the first member.
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return members.get(0).enumerate(equations, variableCount, limit, consumer);
+  }
+
+  /**
+   * Finds the conflicting equations with the first member.
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return members.get(0).unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Stops the threads of the members and closes the members.
+   */
+  @Override
+  public void close() {
+    for (ExecutorService worker : workers) {
+      worker.shutdownNow();
+    }
+    for (CrosswordSolver member : members) {
+      member.close();
+    }
+  }
+}
@@ -0,0 +1,245 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The `Presolver` class fixes the cells of a crossword that are forced by a single equation,
+ * before a solver is called.
+ *
+ * <p>An equation with only one unknown variable, such as `1+x_1=6`, is solved by trying every
+ * digit. If exactly one digit satisfies it, the variable is fixed and the value is substituted
+ * into every other equation of the variable, which may leave those with one unknown in turn.
+ * This is repeated until no equation forces a value. An equation whose operands are all known
+ * is checked and dropped, so a contradiction is found without calling a solver. The remaining
+ * equations, with the fixed values substituted as constants, form the core that still needs a
+ * solver; on typical crosswords it is much smaller than the whole set or even empty.
+ *
+ * <p>Division is either exact, as in `NativeSolver` and the bit-vector encoding, or integer
+ * division, as in the integer encoding of the SMT solvers, which rounds down. Integer division
+ * by zero has an unspecified result in SMT, so under integer division an equation whose divisor
+ * is zero or unknown never forces a value, is never a contradiction and is always passed on to
+ * the solver.
+ */
+public final class Presolver {
+  private static final int UNKNOWN = -1;
+
+  private Presolver() {
+  }
+
+  /**
+   * The outcome of presolving a set of equations.
+   */
+  public static final class Result {
+    private final int[] values;
+    private final List<Equation> core;
+    private final boolean contradiction;
+
+    private Result(int[] values, List<Equation> core, boolean contradiction) {
+      this.values = values;
+      this.core = core;
+      this.contradiction = contradiction;
+    }
+
+    /**
+     * Returns whether an equation cannot be satisfied, so the equations are unsatisfiable.
+     *
+     * @return true if a contradiction was found
+     */
+    public boolean isContradiction() {
+      return contradiction;
+    }
+
+    /**
+     * Returns the value of a variable, if it is fixed.
+     *
+     * @param variable the index of the variable
+     * @return the value, or -1 if the variable is not fixed
+     */
+    public int getValue(int variable) {
+      return values[variable];
+    }
+
+    /**
+     * Returns the number of fixed variables.
+     *
+     * @return the number of variables with a value
+     */
+    public int getFixedCount() {
+      int fixed = 0;
+      for (int value : values) {
+        if (value != UNKNOWN) {
+          fixed++;
+        }
+      }
+      return fixed;
+    }
+
+    /**
+     * Returns the equations that still have at least one unknown variable after substituting
+     * the fixed values, in input order.
+     *
+     * @return the equations left for a solver
+     */
+    public List<Equation> getCore() {
+      return core;
+    }
+  }
+
+  /**
+   * Presolves a set of equations over the variables `x_1` to `x_n` with exact division.
+   *
+   * @param equations     the equations to presolve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the fixed values and the remaining equations
+   */
+  public static Result presolve(List<Equation> equations, int variableCount) {
+    return presolve(equations, variableCount, true);
+  }
+
+  /**
+   * Presolves a set of equations over the variables `x_1` to `x_n`.
+   *
+   * @param equations     the equations to presolve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param exactDivision whether division is exact, or else integer division
+   * @return the fixed values and the remaining equations
+   */
+  public static Result presolve(List<Equation> equations, int variableCount,
+                                boolean exactDivision) {
+    int[] values = new int[variableCount];
+    Arrays.fill(values, UNKNOWN);
+    List<List<Integer>> equationsOfVariable = new ArrayList<>(variableCount);
+    for (int i = 0; i < variableCount; i++) {
+      equationsOfVariable.add(new ArrayList<>());
+    }
+    for (int i = 0; i < equations.size(); i++) {
+      for (int operand : EquationGraph.operandsOf(equations.get(i))) {
+        if (!Equation.isConstant(operand)) {
+          equationsOfVariable.get(operand).add(i);
+        }
+      }
+    }
+
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    boolean[] queued = new boolean[equations.size()];
+    for (int i = 0; i < equations.size(); i++) {
+      queue.add(i);
+      queued[i] = true;
+    }
+    while (!queue.isEmpty()) {
+      int index = queue.poll();
+      queued[index] = false;
+      Equation equation = equations.get(index);
+      int unknown = singleUnknown(equation, values);
+      if (unknown == UNKNOWN - 1 || undecided(equation, values, exactDivision)) {
+        continue;
+      }
+      int forced = UNKNOWN;
+      int solutions = 0;
+      for (int digit = 0; digit <= (unknown == UNKNOWN ? 0 : 9); digit++) {
+        if (holds(equation, values, unknown, digit, exactDivision)) {
+          forced = digit;
+          solutions++;
+        }
+      }
+      if (solutions == 0) {
+        return new Result(values, List.of(), true);
+      }
+      if (unknown != UNKNOWN && solutions == 1) {
+        values[unknown] = forced;
+        for (int other : equationsOfVariable.get(unknown)) {
+          if (!queued[other]) {
+            queued[other] = true;
+            queue.add(other);
+          }
+        }
+      }
+    }
+
+    List<Equation> core = new ArrayList<>();
+    for (Equation equation : equations) {
+      if (singleUnknown(equation, values) != UNKNOWN
+          || undecided(equation, values, exactDivision)) {
+        core.add(substitute(equation, values));
+      }
+    }
+    return new Result(values, core, false);
+  }
+
+  /**
+   * Returns the only unknown variable of an equation.
+   *
+   * @param equation the equation
+   * @param values   the values of the variables
+   * @return the variable, `UNKNOWN` if every operand is known, or `UNKNOWN - 1` if the equation
+   *         has two different unknown variables
+   */
+  private static int singleUnknown(Equation equation, int[] values) {
+    int unknown = UNKNOWN;
+    for (int operand : EquationGraph.operandsOf(equation)) {
+      if (!Equation.isConstant(operand) && values[operand] == UNKNOWN) {
+        if (unknown != UNKNOWN && unknown != operand) {
+          return UNKNOWN - 1;
+        }
+        unknown = operand;
+      }
+    }
+    return unknown;
+  }
+
+  /**
+   * Returns whether the presolver cannot decide an equation: an integer division whose divisor
+   * is zero or unknown.
+   */
+  private static boolean undecided(Equation equation, int[] values, boolean exactDivision) {
+    if (exactDivision || equation.getOperator() != '/') {
+      return false;
+    }
+    int divisor = equation.getRight();
+    if (Equation.isConstant(divisor)) {
+      return Equation.constantValue(divisor) == 0;
+    }
+    return values[divisor] == UNKNOWN || values[divisor] == 0;
+  }
+
+  /**
+   * Checks whether an equation holds if its only unknown variable has the given digit.
+   */
+  private static boolean holds(Equation equation, int[] values, int unknown, int digit,
+                               boolean exactDivision) {
+    long left = valueOf(equation.getLeft(), values, unknown, digit);
+    long right = valueOf(equation.getRight(), values, unknown, digit);
+    long result = valueOf(equation.getResult(), values, unknown, digit);
+    long computed = !exactDivision && equation.getOperator() == '/'
+        ? left / right
+        : NativeSolver.apply(equation.getOperator(), left, right);
+    return computed >= 0 && computed == result;
+  }
+
+  /**
+   * Returns the value of an operand, taking the digit for the unknown variable.
+   */
+  private static long valueOf(int operand, int[] values, int unknown, int digit) {
+    if (Equation.isConstant(operand)) {
+      return Equation.constantValue(operand);
+    }
+    return operand == unknown ? digit : values[operand];
+  }
+
+  /**
+   * Replaces the fixed variables of an equation by constants.
+   */
+  private static Equation substitute(Equation equation, int[] values) {
+    return new Equation(substitute(equation.getLeft(), values), equation.getOperator(),
+        substitute(equation.getRight(), values), substitute(equation.getResult(), values),
+        equation.getRow(), equation.getColumn(), equation.isHorizontal());
+  }
+
+  private static int substitute(int operand, int[] values) {
+    if (Equation.isConstant(operand) || values[operand] == UNKNOWN) {
+      return operand;
+    }
+    return Equation.constant(values[operand]);
+  }
+}
@@ -0,0 +1,205 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `PresolvingSolver` class runs the `Presolver` before a delegate solver.
+ *
+ * <p>Only the equations the presolver leaves are passed to the delegate, with the forced
+ * values substituted as constants, and the forced values are merged into its solution. A
+ * crossword in which every cell is forced, or which has a contradiction, never reaches the
+ * delegate. A variable that is neither forced nor in a remaining equation gets the value 0.
+ * The presolver must read division like the delegate, exactly or as integer division, or the
+ * two would disagree on crosswords with a division that does not divide evenly. The solver is
+ * thread-safe if the delegate is.
+ *
+ * @see Presolver
+ */
+public class PresolvingSolver implements CrosswordSolver {
+  private final CrosswordSolver delegate;
+  private final SolverMetrics metrics;
+  private final boolean exactDivision;
+
+  /**
+   * Constructs a solver that presolves the equations with exact division before calling the
+   * delegate.
+   *
+   * @param delegate the solver of the remaining equations, closed together with this solver
+   * @param metrics  the metrics of the phase `PRESOLVE`
+   */
+  public PresolvingSolver(CrosswordSolver delegate, SolverMetrics metrics) {
+    this(delegate, metrics, true);
+  }
+
+  /**
+   * Constructs a solver that presolves the equations before calling the delegate.
+   *
+   * @param delegate      the solver of the remaining equations, closed together with this
+   *                      solver
+   * @param metrics       the metrics of the phase `PRESOLVE`
+   * @param exactDivision whether the delegate reads division as exact, or else as integer
+   *                      division
+   */
+  public PresolvingSolver(CrosswordSolver delegate, SolverMetrics metrics,
+                          boolean exactDivision) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+    this.exactDivision = exactDivision;
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solve(equations, variableCount, ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Presolves the equations and solves the remaining ones with the delegate.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the delegate fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    Presolver.Result presolved = presolve(equations, variableCount);
+    if (presolved.isContradiction()) {
+      return Optional.empty();
+    }
+    Map<String, Integer> variableValues = new HashMap<>();
+    if (!presolved.getCore().isEmpty()) {
+      Optional<Map<String, Integer>> solution =
+          delegate.solve(presolved.getCore(), variableCount, notifier);
+      if (solution.isEmpty()) {
+        return Optional.empty();
+      }
+      variableValues.putAll(solution.get());
+    }
+    return Optional.of(merge(presolved, variableCount, variableValues));
+  }
+
+  @Override
+  public Optional<int[]> solveValues(Crossword crossword)
+      throws SolverException, InterruptedException {
+    return solveValues(crossword.getEquations(), crossword.getVariableCount(),
+        ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Presolves the equations and solves the remaining ones with the delegate, into an array
+   * indexed like the variables.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the value of `x_(i+1)` at index `i`, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the delegate fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   */
+  @Override
+  public Optional<int[]> solveValues(List<Equation> equations, int variableCount,
+                                     ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    Presolver.Result presolved = presolve(equations, variableCount);
+    if (presolved.isContradiction()) {
+      return Optional.empty();
+    }
+    int[] values = new int[variableCount];
+    if (!presolved.getCore().isEmpty()) {
+      Optional<int[]> solution =
+          delegate.solveValues(presolved.getCore(), variableCount, notifier);
+      if (solution.isEmpty()) {
+        return Optional.empty();
+      }
+      System.arraycopy(solution.get(), 0, values, 0,
+          Math.min(variableCount, solution.get().length));
+    }
+    for (int i = 0; i < variableCount; i++) {
+      int value = presolved.getValue(i);
+      if (value >= 0 || values[i] < 0) {
+        values[i] = Math.max(value, 0);
+      }
+    }
+    return Optional.of(values);
+  }
+
+  /**
+   * Presolves the equations and enumerates the solutions of the remaining ones with the
+   * delegate. Forced values are the same in every solution, so no solution is lost.
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    Presolver.Result presolved = presolve(equations, variableCount);
+    if (presolved.isContradiction() || limit <= 0) {
+      return 0;
+    }
+    if (presolved.getCore().isEmpty()) {
+      consumer.accept(merge(presolved, variableCount, new HashMap<>()));
+      return 1;
+    }
+    return delegate.enumerate(presolved.getCore(), variableCount, limit,
+        solution -> consumer.accept(merge(presolved, variableCount, new HashMap<>(solution))));
+  }
+
+  /**
+   * Finds the conflicting equations with the delegate, without presolving, since the presolver
+   * does not record which equations forced a value.
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return delegate.unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Runs the presolver and reports its duration.
+   */
+  private Presolver.Result presolve(List<Equation> equations, int variableCount) {
+    long start = System.nanoTime();
+    Presolver.Result presolved = Presolver.presolve(equations, variableCount, exactDivision);
+    metrics.recordPhase(SolverMetrics.Phase.PRESOLVE, System.nanoTime() - start);
+    metrics.increment(SolverMetrics.Counter.FORCED_CELLS, presolved.getFixedCount());
+    return presolved;
+  }
+
+  /**
+   * Adds the forced values to a solution of the remaining equations; variables without a value
+   * get 0.
+   *
+   * @param presolved      the result of the presolver
+   * @param variableCount  the number of variables
+   * @param variableValues the solution of the remaining equations, completed in place
+   * @return the completed solution
+   */
+  private static Map<String, Integer> merge(Presolver.Result presolved, int variableCount,
+                                            Map<String, Integer> variableValues) {
+    for (int i = 0; i < variableCount; i++) {
+      int value = presolved.getValue(i);
+      if (value >= 0) {
+        variableValues.put(Equation.nameOf(i), value);
+      } else {
+        variableValues.putIfAbsent(Equation.nameOf(i), 0);
+      }
+    }
+    return variableValues;
+  }
+
+  /**
+   * Closes the delegate.
+   */
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
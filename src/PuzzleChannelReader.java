@@ -0,0 +1,234 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The `PuzzleChannelReader` class reads crosswords one by one from a byte channel, e.g. a
+ * `FileChannel` of a large corpus.
+ *
+ * <p>The channel is read in blocks into a single buffer, which only grows if one crossword does
+ * not fit into it. Every crossword is built with `Crossword(ByteBuffer)` directly from its region
+ * of the buffer, so the text is neither decoded nor copied into strings. Memory use therefore
+ * depends on the size of the largest crossword, not on the size of the file. The format is
+ * either text with empty lines between the crosswords, as read by `PuzzleReader`,
+ * length-prefixed records, or `PackedCrossword` records, whose cells are decoded from the buffer
+ * into the grid.
+ *
+ * @see PuzzleFormat
+ * @see PuzzleChannelWriter
+ */
+public class PuzzleChannelReader implements Iterable<Crossword> {
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+  private final ReadableByteChannel channel;
+  private final PuzzleFormat format;
+  private ByteBuffer buffer;
+  private boolean endOfInput = false;
+
+  /**
+   * Constructs a reader for the crosswords of the given channel.
+   *
+   * @param channel the source of the crosswords, closed by the caller
+   * @param format  the format of the source
+   */
+  public PuzzleChannelReader(ReadableByteChannel channel, PuzzleFormat format) {
+    this(channel, format, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructs a reader for the crosswords of the given channel with an initial buffer size.
+   *
+   * @param channel    the source of the crosswords, closed by the caller
+   * @param format     the format of the source
+   * @param bufferSize the initial size of the buffer in bytes
+   */
+  public PuzzleChannelReader(ReadableByteChannel channel, PuzzleFormat format, int bufferSize) {
+    this.channel = channel;
+    this.format = format;
+    this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+    this.buffer.flip();
+  }
+
+  /**
+   * Returns an iterator over the unparsed crosswords of the channel.
+   * The channel can only be iterated once.
+   *
+   * @return an iterator over the crosswords
+   */
+  @Override
+  public Iterator<Crossword> iterator() {
+    return new Iterator<>() {
+      private Crossword next = readPuzzle();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public Crossword next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        Crossword puzzle = next;
+        next = readPuzzle();
+        return puzzle;
+      }
+    };
+  }
+
+  /**
+   * Reads the next crossword in the format of the channel.
+   *
+   * @return the next crossword, or null at the end of the channel
+   */
+  private Crossword readPuzzle() {
+    try {
+      switch (format) {
+        case BINARY:
+          return readRecord();
+        case PACKED:
+          return readPacked();
+        default:
+          return readText();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the next length-prefixed crossword.
+   *
+   * @return the next crossword, or null at the end of the channel
+   * @throws IOException if the channel cannot be read or ends within a record
+   */
+  private Crossword readRecord() throws IOException {
+    if (!fill(Integer.BYTES)) {
+      if (buffer.hasRemaining()) {
+        throw new IOException("Truncated length of a crossword");
+      }
+      return null;
+    }
+    int length = buffer.getInt(buffer.position());
+    if (length < 0) {
+      throw new IOException("Invalid length of a crossword: " + length);
+    }
+    if (!fill(Integer.BYTES + length)) {
+      throw new IOException("Truncated crossword of " + length + " bytes");
+    }
+    int start = buffer.position() + Integer.BYTES;
+    Crossword crossword = new Crossword(buffer.slice(start, length));
+    buffer.position(start + length);
+    return crossword;
+  }
+
+  /**
+   * Reads the next `PackedCrossword` record, decoding its cells directly from the buffer.
+   *
+   * @return the next crossword, or null at the end of the channel
+   * @throws IOException if the channel cannot be read, ends within a record, or has a status
+   *                     record or a malformed record
+   */
+  private Crossword readPacked() throws IOException {
+    if (!fill(PackedCrossword.HEADER_BYTES)) {
+      if (buffer.hasRemaining()) {
+        throw new IOException("Truncated header of a packed crossword");
+      }
+      return null;
+    }
+    int length = PackedCrossword.recordLength(buffer, buffer.position());
+    if (!fill(length)) {
+      throw new IOException("Truncated packed crossword of " + length + " bytes");
+    }
+    if (PackedCrossword.isStatus(buffer, buffer.position())) {
+      throw new IOException("Status record instead of a crossword");
+    }
+    try {
+      return PackedCrossword.read(buffer);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Malformed packed crossword", e);
+    }
+  }
+
+  /**
+   * Reads the next crossword of the text format, skipping leading empty lines. A crossword ends
+   * at an empty line or at the end of the channel.
+   *
+   * @return the next crossword, or null at the end of the channel
+   * @throws IOException if the channel cannot be read
+   */
+  private Crossword readText() throws IOException {
+    int lineStart = 0;
+    int end = -1;
+    int scanned = 0;
+    boolean started = false;
+    while (end < 0) {
+      if (scanned == buffer.remaining() && !fill(scanned + 1)) {
+        end = scanned;
+        break;
+      }
+      byte symbol = buffer.get(buffer.position() + scanned);
+      scanned++;
+      if (symbol != '\n') {
+        continue;
+      }
+      boolean empty = isEmptyLine(lineStart, scanned - 1);
+      if (!started && empty) {
+        buffer.position(buffer.position() + scanned);
+        scanned = 0;
+      } else if (empty) {
+        end = lineStart;
+      } else {
+        started = true;
+      }
+      lineStart = scanned;
+    }
+    if (!started && isEmptyLine(0, end)) {
+      buffer.position(buffer.position() + end);
+      return null;
+    }
+    Crossword crossword = new Crossword(buffer.slice(buffer.position(), end));
+    buffer.position(buffer.position() + Math.min(scanned, buffer.remaining()));
+    return crossword;
+  }
+
+  /**
+   * Checks whether the bytes between two offsets from the position form an empty line,
+   * allowing a carriage return.
+   */
+  private boolean isEmptyLine(int from, int to) {
+    int length = to - from;
+    return length == 0 || length == 1 && buffer.get(buffer.position() + from) == '\r';
+  }
+
+  /**
+   * Reads from the channel until at least the given number of bytes is available after the
+   * position, compacting or growing the buffer as needed.
+   *
+   * @param required the number of bytes needed
+   * @return false if the channel ended before
+   * @throws IOException if the channel cannot be read
+   */
+  private boolean fill(int required) throws IOException {
+    while (buffer.remaining() < required) {
+      if (endOfInput) {
+        return false;
+      }
+      if (required > buffer.capacity()) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(required, 2 * buffer.capacity()));
+        larger.put(buffer);
+        buffer = larger;
+      } else {
+        buffer.compact();
+      }
+      if (channel.read(buffer) < 0) {
+        endOfInput = true;
+      }
+      buffer.flip();
+    }
+    return true;
+  }
+}
@@ -0,0 +1,192 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The `PuzzleChannelWriter` class writes crosswords and other results one by one to a byte
+ * channel in one of the `PuzzleFormat`s.
+ *
+ * <p>The records are collected in a buffer and written to the channel in large blocks, only
+ * when the buffer is full, on `flush` and on `close`, so a record larger than the buffer is
+ * written in several blocks. The text of a record is written as ASCII, as all characters of
+ * a crossword are. The writer is not thread-safe.
+ *
+ * @see PuzzleChannelReader
+ */
+public class PuzzleChannelWriter implements Closeable {
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+  private final WritableByteChannel channel;
+  private final PuzzleFormat format;
+  private final ByteBuffer buffer;
+
+  /**
+   * Constructs a writer to the given channel.
+   *
+   * @param channel the destination of the records, closed with this writer
+   * @param format  the format of the records
+   */
+  public PuzzleChannelWriter(WritableByteChannel channel, PuzzleFormat format) {
+    this(channel, format, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructs a writer to the given channel with the given buffer size.
+   *
+   * @param channel    the destination of the records, closed with this writer
+   * @param format     the format of the records
+   * @param bufferSize the size of the buffer in bytes
+   */
+  public PuzzleChannelWriter(WritableByteChannel channel, PuzzleFormat format, int bufferSize) {
+    this.channel = channel;
+    this.format = format;
+    this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+  }
+
+  /**
+   * Writes a crossword, e.g. a solved one, as rendered by `Crossword.render`: the values of its
+   * variables are written directly into the buffer, without creating a string.
+   *
+   * @param crossword the crossword to write
+   * @throws IOException if the channel cannot be written
+   */
+  public void write(Crossword crossword) throws IOException {
+    if (format == PuzzleFormat.PACKED) {
+      writePacked(crossword);
+      return;
+    }
+    int length = crossword.getRenderedLength();
+    int required = format == PuzzleFormat.BINARY ? Integer.BYTES + length : length + 1;
+    if (required > buffer.capacity()) {
+      StringBuilder text = new StringBuilder(length);
+      crossword.render(text);
+      write(text);
+      return;
+    }
+    reserve(required);
+    if (format == PuzzleFormat.BINARY) {
+      buffer.putInt(length);
+    }
+    crossword.render(buffer);
+    if (format == PuzzleFormat.TEXT) {
+      buffer.put((byte) '\n');
+    }
+  }
+
+  /**
+   * Writes a record, e.g. a crossword or a status line. In the text format an empty line is
+   * written after the record, which must not contain an empty line itself. In the packed format
+   * the text is written as a status record.
+   *
+   * @param text the text of the record
+   * @throws IOException if the channel cannot be written
+   */
+  public void write(CharSequence text) throws IOException {
+    int length = text.length();
+    boolean terminated = length > 0 && text.charAt(length - 1) == '\n';
+    if (format == PuzzleFormat.PACKED) {
+      writeStatus(text);
+    } else if (format == PuzzleFormat.BINARY) {
+      reserve(Integer.BYTES);
+      buffer.putInt(length);
+      putAscii(text);
+    } else {
+      putAscii(text);
+      putAscii(terminated ? "\n" : "\n\n");
+    }
+  }
+
+  /**
+   * Writes the `PackedCrossword` record of a crossword, encoded directly into the buffer unless
+   * it is larger than the buffer.
+   */
+  private void writePacked(Crossword crossword) throws IOException {
+    int size = PackedCrossword.sizeOf(crossword);
+    if (size > buffer.capacity()) {
+      ByteBuffer record = ByteBuffer.allocate(size);
+      PackedCrossword.write(crossword, record);
+      putBytes(record.flip());
+      return;
+    }
+    reserve(size);
+    PackedCrossword.write(crossword, buffer);
+  }
+
+  /**
+   * Writes a status record, through a separate buffer if it is larger than the buffer.
+   */
+  private void writeStatus(CharSequence text) throws IOException {
+    int size = PackedCrossword.HEADER_BYTES + text.length();
+    if (size > buffer.capacity()) {
+      ByteBuffer record = ByteBuffer.allocate(size);
+      PackedCrossword.writeStatus(text, record);
+      putBytes(record.flip());
+      return;
+    }
+    reserve(size);
+    PackedCrossword.writeStatus(text, buffer);
+  }
+
+  /**
+   * Writes all buffered records to the channel.
+   *
+   * @throws IOException if the channel cannot be written
+   */
+  public void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Writes all buffered records and closes the channel.
+   *
+   * @throws IOException if the channel cannot be written or closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Appends the characters of a text as bytes, flushing whenever the buffer is full.
+   */
+  private void putAscii(CharSequence text) throws IOException {
+    for (int i = 0; i < text.length(); i++) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      buffer.put((byte) text.charAt(i));
+    }
+  }
+
+  /**
+   * Appends the remaining bytes of a buffer, flushing whenever the buffer is full.
+   */
+  private void putBytes(ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining()) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      int count = Math.min(bytes.remaining(), buffer.remaining());
+      buffer.put(buffer.position(), bytes, bytes.position(), count);
+      buffer.position(buffer.position() + count);
+      bytes.position(bytes.position() + count);
+    }
+  }
+
+  /**
+   * Makes room for the given number of bytes in the buffer.
+   */
+  private void reserve(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+  }
+}
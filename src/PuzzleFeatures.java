@@ -0,0 +1,143 @@
+import java.util.List;
+
+/**
+ * The `PuzzleFeatures` class describes the equations of a crossword by the numbers that decide
+ * which solver is fast on it: the operators, the unknowns per equation and the sizes of the
+ * independent groups of equations.
+ *
+ * <p>Crosswords with similar features fall into the same bucket. Every count of the bucket is
+ * rounded to its bit length, so a bucket covers a range of sizes up to twice as large, e.g. 5
+ * to 8 multiplications. `SelectingSolver` records its timings per bucket.
+ *
+ * @see SelectingSolver
+ */
+public final class PuzzleFeatures {
+  private static final String OPERATORS = "+-*/";
+  private final int equationCount;
+  private final int variableCount;
+  private final int[] operatorCounts = new int[OPERATORS.length()];
+  private final int[] unknownCounts = new int[4];
+  private final int componentCount;
+  private final int largestComponent;
+
+  private PuzzleFeatures(List<Equation> equations, int variableCount) {
+    this.equationCount = equations.size();
+    this.variableCount = variableCount;
+    for (Equation equation : equations) {
+      int operator = OPERATORS.indexOf(equation.getOperator());
+      if (operator >= 0) {
+        operatorCounts[operator]++;
+      }
+      int unknowns = 0;
+      for (int operand : EquationGraph.operandsOf(equation)) {
+        if (!Equation.isConstant(operand)) {
+          unknowns++;
+        }
+      }
+      unknownCounts[unknowns]++;
+    }
+    List<List<Equation>> components = EquationGraph.components(equations, variableCount);
+    int largest = 0;
+    for (List<Equation> component : components) {
+      largest = Math.max(largest, component.size());
+    }
+    this.componentCount = components.size();
+    this.largestComponent = largest;
+  }
+
+  /**
+   * Extracts the features of a set of equations over the variables `x_1` to `x_n`.
+   *
+   * @param equations     the equations
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the features
+   */
+  public static PuzzleFeatures of(List<Equation> equations, int variableCount) {
+    return new PuzzleFeatures(equations, variableCount);
+  }
+
+  /**
+   * Returns the number of equations.
+   *
+   * @return the number of equations
+   */
+  public int getEquationCount() {
+    return equationCount;
+  }
+
+  /**
+   * Returns the number of variables.
+   *
+   * @return the number of variables
+   */
+  public int getVariableCount() {
+    return variableCount;
+  }
+
+  /**
+   * Returns the number of equations with an operator.
+   *
+   * @param operator `+`, `-`, `*` or `/`
+   * @return the number of equations with the operator
+   */
+  public int getOperatorCount(char operator) {
+    int index = OPERATORS.indexOf(operator);
+    if (index < 0) {
+      throw new IllegalArgumentException("Unknown operator " + operator);
+    }
+    return operatorCounts[index];
+  }
+
+  /**
+   * Returns the number of equations with a number of unknown operands.
+   *
+   * @param unknowns the number of operands that are variables, 0 to 3
+   * @return the number of equations with that many unknowns
+   */
+  public int getEquationsWithUnknowns(int unknowns) {
+    return unknownCounts[unknowns];
+  }
+
+  /**
+   * Returns the number of independent groups of equations.
+   *
+   * @return the number of connected components
+   */
+  public int getComponentCount() {
+    return componentCount;
+  }
+
+  /**
+   * Returns the number of equations of the largest independent group.
+   *
+   * @return the size of the largest connected component
+   */
+  public int getLargestComponent() {
+    return largestComponent;
+  }
+
+  /**
+   * Returns the bucket of the features: the numbers of equations, multiplications, divisions
+   * and equations with more than one unknown and the size of the largest group, each rounded
+   * to its bit length.
+   *
+   * @return the bucket, e.g. `e4.m2.d2.u3.c4`
+   */
+  public String getBucket() {
+    return "e" + bits(equationCount)
+        + ".m" + bits(operatorCounts[2])
+        + ".d" + bits(operatorCounts[3])
+        + ".u" + bits(unknownCounts[2] + unknownCounts[3])
+        + ".c" + bits(largestComponent);
+  }
+
+  private static int bits(int count) {
+    return Integer.SIZE - Integer.numberOfLeadingZeros(count);
+  }
+
+  @Override
+  public String toString() {
+    return "PuzzleFeatures[" + getBucket() + ", variables=" + variableCount
+        + ", components=" + componentCount + "]";
+  }
+}
@@ -0,0 +1,23 @@
+/**
+ * The `PuzzleFormat` enum lists the file formats of a sequence of crosswords.
+ *
+ * @see PuzzleChannelReader
+ * @see PuzzleChannelWriter
+ */
+public enum PuzzleFormat {
+  /**
+   * The crosswords are written as text, as in `MathCrossword.input`, and separated by an empty
+   * line.
+   */
+  TEXT,
+  /**
+   * Every crossword is written as a 4-byte big-endian length followed by that many bytes of
+   * text. Crosswords can be skipped without scanning them, and may contain empty rows.
+   */
+  BINARY,
+  /**
+   * Every crossword is written as a `PackedCrossword` record of 4 bits per non-blank cell,
+   * together with its solution, and every status line as a status record.
+   */
+  PACKED
+}
@@ -0,0 +1,310 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * The `PuzzleGenerator` class generates crosswords with exactly one solution.
+ *
+ * <p>A crossword is generated in three steps:
+ * <ol>
+ *   <li>A layout is built by placing equations `_ op _ = _` of random operators in the grid,
+ *   each one crossing an equation placed before in an operand cell. Operands are placed in cells
+ *   with an even row and column, operators and `=` between them, so two numbers never touch and
+ *   the layout reads back as exactly the equations placed. A layout without a solution is
+ *   discarded.</li>
+ *   <li>The cells are filled with digits in random order: a cell gets the first digit of a random
+ *   permutation with which the crossword still has a solution.</li>
+ *   <li>The digits are removed in random order, one at a time, and a digit is only kept if the
+ *   crossword has more than one solution without it.</li>
+ * </ol>
+ *
+ * <p>Crosswords are generated in parallel by fork/join tasks, one crossword per leaf task, with a
+ * random generator derived from the seed and the index of the crossword, so the output does not
+ * depend on the number of threads. The crosswords are solved by a `NativeSolver`: layouts and
+ * digits with exact division, so every generated crossword reads naturally, and the uniqueness
+ * with the division of the solvers the crosswords are meant for. A crossword that is unique with
+ * integer division is also unique with exact division, but not the other way round: `_/2=3` has
+ * the solutions 6 and 7 with integer division.
+ *
+ * <p>A layout is built from at most `MAX_PLACEMENTS` random placements, and a crossword from at
+ * most `MAX_LAYOUTS` layouts, so a number of equations that hardly fits the grid fails instead
+ * of searching forever.
+ */
+public class PuzzleGenerator {
+  private static final char[] OPERATORS = {'+', '-', '*', '/'};
+  private static final int MAX_PLACEMENTS = 1000;
+  private static final int MAX_LAYOUTS = 1000;
+  private final int width;
+  private final int height;
+  private final int equationCount;
+  private final long seed;
+  private final NativeSolver solver = new NativeSolver();
+  private final NativeSolver uniqueness;
+
+  /**
+   * Constructs a generator of crosswords of the given size that are unique with exact division.
+   *
+   * @param width         the number of columns, at least 5
+   * @param height        the number of rows, at least 5
+   * @param equationCount the number of equations of a crossword, at least 1
+   * @param seed          the seed of the random generators
+   */
+  public PuzzleGenerator(int width, int height, int equationCount, long seed) {
+    this(width, height, equationCount, seed, true);
+  }
+
+  /**
+   * Constructs a generator of crosswords of the given size.
+   *
+   * @param width         the number of columns, at least 5
+   * @param height        the number of rows, at least 5
+   * @param equationCount the number of equations of a crossword, at least 1 and at most as
+   *                      many as fit the grid
+   * @param seed          the seed of the random generators
+   * @param exactDivision whether the crosswords must be unique with exact division, or else
+   *                      with integer division
+   */
+  public PuzzleGenerator(int width, int height, int equationCount, long seed,
+                         boolean exactDivision) {
+    if (width < 5 || height < 5) {
+      throw new IllegalArgumentException("A crossword needs at least 5 rows and 5 columns");
+    }
+    int capacity = (height + 1) / 2 * ((width - 5) / 6 + 1)
+        + (width + 1) / 2 * ((height - 5) / 6 + 1);
+    if (equationCount < 1 || equationCount > capacity) {
+      throw new IllegalArgumentException("A crossword of " + width + "x" + height
+          + " cells has between 1 and " + capacity + " equations, not " + equationCount);
+    }
+    this.width = width;
+    this.height = height;
+    this.equationCount = equationCount;
+    this.seed = seed;
+    this.uniqueness = exactDivision ? solver : new NativeSolver(SolverMetrics.NONE, false);
+  }
+
+  /**
+   * Generates the crosswords with the indexes `first` to `first + count - 1` in parallel on the
+   * given pool.
+   *
+   * @param pool  the pool that runs the tasks
+   * @param first the index of the first crossword
+   * @param count the number of crosswords
+   * @return the crosswords in the order of their index
+   */
+  public List<String> generate(ForkJoinPool pool, long first, int count) {
+    return pool.invoke(new GenerateTask(first, first + count));
+  }
+
+  /**
+   * Generates the crossword with the given index.
+   *
+   * @param index the index of the crossword
+   * @return the text of the crossword, with `_` for the cells to fill in
+   * @throws IllegalStateException if no layout with a solution was found
+   */
+  public String generate(long index) {
+    SplittableRandom random = new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L);
+    for (int attempt = 0; attempt < MAX_LAYOUTS; attempt++) {
+      char[] grid = layout(random);
+      if (grid != null && fill(grid, random)) {
+        dig(grid, random);
+        return toText(grid);
+      }
+    }
+    throw new IllegalStateException("No layout of " + equationCount + " equations in "
+        + width + "x" + height + " cells found for crossword " + index + " after "
+        + MAX_LAYOUTS + " attempts");
+  }
+
+  /**
+   * Generates a range of crosswords, splitting it in halves down to single crosswords.
+   */
+  private final class GenerateTask extends RecursiveTask<List<String>> {
+    private static final long serialVersionUID = 1L;
+    private final long from;
+    private final long to;
+
+    GenerateTask(long from, long to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected List<String> compute() {
+      if (to - from <= 1) {
+        List<String> puzzles = new ArrayList<>(1);
+        if (from < to) {
+          puzzles.add(generate(from));
+        }
+        return puzzles;
+      }
+      long middle = (from + to) >>> 1;
+      GenerateTask right = new GenerateTask(middle, to);
+      right.fork();
+      List<String> puzzles = new GenerateTask(from, middle).compute();
+      puzzles.addAll(right.join());
+      return puzzles;
+    }
+  }
+
+  /**
+   * Places the equations of a layout with `_` in every operand cell.
+   *
+   * @param random the random generator
+   * @return the grid in row-major order, or null if not all equations could be placed or the
+   *         layout has no solution
+   */
+  private char[] layout(SplittableRandom random) {
+    char[] grid = new char[width * height];
+    Arrays.fill(grid, ' ');
+    int placed = 0;
+    for (int attempt = 0; attempt < MAX_PLACEMENTS && placed < equationCount; attempt++) {
+      boolean horizontal = random.nextBoolean();
+      int row = 2 * random.nextInt((horizontal ? height + 1 : height - 3) / 2);
+      int column = 2 * random.nextInt((horizontal ? width - 3 : width + 1) / 2);
+      int step = horizontal ? 1 : width;
+      int start = row * width + column;
+      if (canPlace(grid, start, step, horizontal ? column : row, horizontal ? width : height,
+          placed == 0)) {
+        char operator = OPERATORS[random.nextInt(OPERATORS.length)];
+        grid[start] = '_';
+        grid[start + step] = operator;
+        grid[start + 2 * step] = '_';
+        grid[start + 3 * step] = '=';
+        grid[start + 4 * step] = '_';
+        placed++;
+      }
+    }
+    if (placed < equationCount) {
+      return null;
+    }
+    Crossword crossword = parse(grid);
+    if (crossword.getEquations().size() != equationCount
+        || solver.solve(crossword).isEmpty()) {
+      return null;
+    }
+    return grid;
+  }
+
+  /**
+   * Checks whether an equation can be placed: its operator cells and the cells before and after
+   * it on its line are blank, and it crosses an operand cell of a placed equation unless it is
+   * the first one.
+   *
+   * @param grid     the grid
+   * @param start    the index of the first cell of the equation
+   * @param step     the distance between two cells of the line
+   * @param position the position of the first cell on its line
+   * @param length   the length of the line
+   * @param first    whether no equation has been placed yet
+   * @return true if the equation can be placed
+   */
+  private static boolean canPlace(char[] grid, int start, int step, int position, int length,
+                                  boolean first) {
+    if (position > 0 && grid[start - step] != ' '
+        || position + 5 < length && grid[start + 5 * step] != ' '
+        || grid[start + step] != ' ' || grid[start + 3 * step] != ' ') {
+      return false;
+    }
+    int crossings = 0;
+    for (int i = 0; i <= 4; i += 2) {
+      if (grid[start + i * step] == '_') {
+        crossings++;
+      }
+    }
+    return first ? crossings == 0 : crossings > 0 && crossings < 3;
+  }
+
+  /**
+   * Fills every operand cell with a digit such that all equations hold.
+   *
+   * @param grid   the grid of a layout with a solution, filled in place
+   * @param random the random generator
+   * @return false if no digit fits a cell, which cannot happen for a layout with a solution
+   */
+  private boolean fill(char[] grid, SplittableRandom random) {
+    int[] cells = cellsOf(grid, '_');
+    shuffle(cells, random);
+    int[] digits = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+    for (int cell : cells) {
+      shuffle(digits, random);
+      boolean filled = false;
+      for (int digit : digits) {
+        grid[cell] = (char) ('0' + digit);
+        if (solver.solve(parse(grid)).isPresent()) {
+          filled = true;
+          break;
+        }
+      }
+      if (!filled) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes the digits in random order as long as the crossword keeps exactly one solution with
+   * the division of the generated crosswords.
+   *
+   * @param grid   the grid of a solved crossword, with its digits removed in place
+   * @param random the random generator
+   */
+  private void dig(char[] grid, SplittableRandom random) {
+    int[] cells = cellsOf(grid, '0');
+    shuffle(cells, random);
+    for (int cell : cells) {
+      char digit = grid[cell];
+      grid[cell] = '_';
+      if (!uniqueness.isUnique(parse(grid))) {
+        grid[cell] = digit;
+      }
+    }
+  }
+
+  /**
+   * Returns the operand cells of a grid.
+   *
+   * @param grid the grid
+   * @param kind `_` for the unknown cells or `0` for the digit cells
+   * @return the indexes of the cells
+   */
+  private static int[] cellsOf(char[] grid, char kind) {
+    return IntStream.range(0, grid.length)
+        .filter(cell -> kind == '_' ? grid[cell] == '_' : Character.isDigit(grid[cell]))
+        .toArray();
+  }
+
+  private static void shuffle(int[] values, SplittableRandom random) {
+    for (int i = values.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int value = values[i];
+      values[i] = values[j];
+      values[j] = value;
+    }
+  }
+
+  private Crossword parse(char[] grid) {
+    Crossword crossword = new Crossword(toText(grid));
+    crossword.parseCrossword();
+    return crossword;
+  }
+
+  /**
+   * Returns the text of a grid, one line per row.
+   */
+  private String toText(char[] grid) {
+    StringBuilder text = new StringBuilder(grid.length + height);
+    for (int row = 0; row < height; row++) {
+      if (row > 0) {
+        text.append('\n');
+      }
+      text.append(grid, row * width, width);
+    }
+    return text.toString();
+  }
+}
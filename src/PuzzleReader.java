@@ -0,0 +1,86 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The `PuzzleReader` class reads crosswords one by one from a text source.
+ *
+ * <p>The crosswords are given in the same format as `MathCrossword.input` and are separated by
+ * an empty line. Lines consisting only of spaces belong to a crossword, since a row of a
+ * crossword may be blank. The source is read lazily, so arbitrarily many crosswords can be
+ * processed without loading all of them into memory.
+ */
+public class PuzzleReader implements Iterable<String> {
+  private final BufferedReader reader;
+
+  /**
+   * Constructs a reader for the crosswords in the given source.
+   *
+   * @param reader the source of the crosswords, closed by the caller
+   */
+  public PuzzleReader(Reader reader) {
+    this.reader = reader instanceof BufferedReader
+        ? (BufferedReader) reader : new BufferedReader(reader);
+  }
+
+  /**
+   * Returns an iterator over the crosswords of the source.
+   * The source can only be iterated once.
+   *
+   * @return an iterator over the crosswords
+   */
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<>() {
+      private String next = readPuzzle();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public String next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        String puzzle = next;
+        next = readPuzzle();
+        return puzzle;
+      }
+    };
+  }
+
+  /**
+   * Reads the next crossword, skipping leading empty lines.
+   *
+   * @return the next crossword, or null at the end of the source
+   */
+  private String readPuzzle() {
+    try {
+      StringBuilder puzzle = new StringBuilder();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.endsWith("\r")) {
+          line = line.substring(0, line.length() - 1);
+        }
+        if (line.isEmpty()) {
+          if (puzzle.length() > 0) {
+            break;
+          }
+          continue;
+        }
+        if (puzzle.length() > 0) {
+          puzzle.append('\n');
+        }
+        puzzle.append(line);
+      }
+      return puzzle.length() > 0 ? puzzle.toString() : null;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `SelectingSolver` class solves every crossword with the one of several solvers that is
+ * predicted to be fastest on it, instead of racing them all like `PortfolioSolver`.
+ *
+ * <p>The prediction is made from the `PuzzleFeatures` of the equations and a `SolverProfile`
+ * with the times the solvers took on earlier crosswords of the same bucket. Every call is timed
+ * and recorded, so the profile keeps learning. A solver with fewer than `EXPLORE_SAMPLES`
+ * timings in a bucket is tried first, and every `EXPLORE_INTERVAL`th call goes to the solver
+ * with the fewest timings, so a solver that was slow once is measured again. Otherwise the
+ * solver with the lowest average time is called. If it fails, the failure is recorded as a slow
+ * timing and the next solver is called. The members must be thread-safe; the selector then is
+ * thread-safe too. The members must also read division alike, or the answer would depend on
+ * the solver that is chosen.
+ *
+ * @see PuzzleFeatures
+ * @see SolverProfile
+ */
+public class SelectingSolver implements CrosswordSolver {
+  /**
+   * The number of timings of a solver in a bucket before it is chosen by its time alone.
+   */
+  public static final int EXPLORE_SAMPLES = 3;
+  /**
+   * The interval of the calls that measure the solver with the fewest timings again.
+   */
+  public static final int EXPLORE_INTERVAL = 16;
+  private static final long FAILURE_NANOS = 1_000_000_000L;
+  private final List<String> names;
+  private final List<CrosswordSolver> members;
+  private final SolverProfile profile;
+  private final AtomicLong calls = new AtomicLong();
+
+  /**
+   * Constructs a solver that selects one of the given members for every crossword.
+   *
+   * @param members the thread-safe solvers by name, in order of preference while nothing is
+   *                recorded, closed together with this solver
+   * @param profile the timing profile, saved when this solver is closed
+   */
+  public SelectingSolver(Map<String, CrosswordSolver> members, SolverProfile profile) {
+    if (members.isEmpty()) {
+      throw new IllegalArgumentException("A selection needs at least one solver");
+    }
+    this.names = List.copyOf(members.keySet());
+    this.members = List.copyOf(members.values());
+    this.profile = profile;
+  }
+
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solve(equations, variableCount, ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Solves the equations with the member predicted to be fastest, falling back to the others
+   * in order of their prediction if it fails.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if every member fails
+   * @throws InterruptedException if the shutdown was requested or solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    String bucket = PuzzleFeatures.of(equations, variableCount).getBucket();
+    SolverException failure = null;
+    for (int member : rank(bucket, calls.incrementAndGet() % EXPLORE_INTERVAL == 0)) {
+      long start = System.nanoTime();
+      try {
+        Optional<Map<String, Integer>> solution =
+            members.get(member).solve(equations, variableCount, notifier);
+        profile.record(bucket, names.get(member), System.nanoTime() - start);
+        return solution;
+      } catch (InterruptedException e) {
+        profile.record(bucket, names.get(member), System.nanoTime() - start);
+        throw e;
+      } catch (SolverException | RuntimeException e) {
+        profile.record(bucket, names.get(member),
+            Math.max(System.nanoTime() - start, FAILURE_NANOS));
+        if (failure == null) {
+          failure = new SolverException("Every selected solver failed", e);
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    throw failure;
+  }
+
+  /**
+   * Enumerates the solutions with the member predicted to be fastest.
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return members.get(select(equations, variableCount))
+        .enumerate(equations, variableCount, limit, consumer);
+  }
+
+  /**
+   * Finds the conflicting equations with the member predicted to be fastest.
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return members.get(select(equations, variableCount)).unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Returns the name of the member predicted to be fastest on a set of equations.
+   *
+   * @param equations     the equations
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the name of the member a call would try first, not counting the exploring calls
+   */
+  public String predict(List<Equation> equations, int variableCount) {
+    return names.get(select(equations, variableCount));
+  }
+
+  private int select(List<Equation> equations, int variableCount) {
+    return rank(PuzzleFeatures.of(equations, variableCount).getBucket(), false).get(0);
+  }
+
+  /**
+   * Orders the members of a bucket: members with too few timings first, then by their time.
+   *
+   * @param bucket  the bucket of the crossword
+   * @param explore whether the member with the fewest timings goes first
+   * @return the indexes of the members in the order they are tried
+   */
+  private List<Integer> rank(String bucket, boolean explore) {
+    List<Integer> order = new ArrayList<>(members.size());
+    for (int i = 0; i < members.size(); i++) {
+      order.add(i);
+    }
+    Comparator<Integer> bySamples =
+        Comparator.comparingLong(member -> profile.getCount(bucket, names.get(member)));
+    Comparator<Integer> byTime = Comparator.comparingDouble(member -> {
+      long count = profile.getCount(bucket, names.get(member));
+      return count < EXPLORE_SAMPLES ? -1 : profile.getNanos(bucket, names.get(member));
+    });
+    order.sort(explore ? bySamples : byTime.thenComparing(bySamples));
+    return order;
+  }
+
+  /**
+   * Saves the profile and closes the members. A profile that cannot be saved is lost, since it
+   * only guides the selection.
+   */
+  @Override
+  public void close() {
+    try {
+      profile.save();
+    } catch (IOException e) {
+      // the next run measures the solvers again
+    } finally {
+      for (CrosswordSolver member : members) {
+        member.close();
+      }
+    }
+  }
+}
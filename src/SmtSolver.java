@@ -0,0 +1,459 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `SmtSolver` class solves crosswords with an SMT solver via the JavaSMT API.
+ *
+ * <p>An instance owns one `SolverContext` and one `ProverEnvironment` for its whole lifetime,
+ * so it can solve puzzle after puzzle without starting the solver again:
+ * <ul>
+ *   <li>the formulas for variables are created once by a `CrosswordEncoder` and reused by
+ *   their index</li>
+ *   <li>the domain constraint `0 <= x_n <= 9` of a variable is asserted once on the bottom
+ *   level of the prover, it holds for every puzzle</li>
+ *   <li>the equations of a puzzle are asserted inside `push`/`pop`, so nothing of one puzzle
+ *   remains for the next one</li>
+ * </ul>
+ *
+ * <p>With templates, the equations are not encoded for every puzzle. The `EquationTemplate` of
+ * the layout is asserted once on its own level of the prover and kept there while the following
+ * puzzles have the same layout; a puzzle only passes its given digits as assumptions to
+ * `isUnsatWithAssumptions`, so the encoding and what the solver learned about the layout are
+ * reused. Digits become variables of the template, which makes some linear products nonlinear.
+ *
+ * <p>Further solutions are enumerated by adding a blocking clause after each model, which
+ * excludes the values of the variables of the equations, and checking again on the same level.
+ *
+ * <p>The context is stopped through its own `ShutdownManager`, a child of the notifier given at
+ * construction. A call with a `ShutdownNotifier` forwards a shutdown request of that notifier to
+ * the context. A context that has been shut down cannot be used anymore, which `isShutdown`
+ * reports, so the solver must then be closed and replaced.
+ *
+ * <p>JavaSMT contexts are not thread-safe, so an instance must only be used by one thread at a
+ * time. Use `SmtSolverPool` to share solvers between threads.
+ *
+ * @see SmtSolverPool
+ */
+public class SmtSolver implements CrosswordSolver {
+  private final ShutdownManager shutdown;
+  private final SolverContext context;
+  private final CrosswordEncoder encoder;
+  private final ProverEnvironment prover;
+  private final BooleanFormulaManager bmgr;
+  private final SolverMetrics metrics;
+  private final boolean templates;
+  private int declaredVariables = 0;
+  private String activeTemplate = null;
+
+  /**
+   * Creates a solver context for the given backend and a prover on top of it,
+   * using the integer encoding.
+   *
+   * @param config   the configuration used to create the solver context
+   * @param logger   the log manager of the solver context
+   * @param notifier the notifier used to stop the solver
+   * @param solver   the SMT backend to use
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  public SmtSolver(Configuration config, LogManager logger, ShutdownNotifier notifier,
+                   Solvers solver) throws InvalidConfigurationException {
+    this(config, logger, notifier, solver, Encoding.INTEGER);
+  }
+
+  /**
+   * Creates a solver context for the given backend and a prover on top of it.
+   *
+   * @param config   the configuration used to create the solver context
+   * @param logger   the log manager of the solver context
+   * @param notifier the notifier used to stop the solver
+   * @param solver   the SMT backend to use
+   * @param encoding the encoding of the equations as formulas
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  public SmtSolver(Configuration config, LogManager logger, ShutdownNotifier notifier,
+                   Solvers solver, Encoding encoding) throws InvalidConfigurationException {
+    this(config, logger, notifier, solver, encoding, SolverMetrics.NONE);
+  }
+
+  /**
+   * Creates a solver context for the given backend and a prover on top of it, reporting the
+   * phases of every crossword to the given metrics.
+   *
+   * @param config   the configuration used to create the solver context
+   * @param logger   the log manager of the solver context
+   * @param notifier the notifier used to stop the solver
+   * @param solver   the SMT backend to use
+   * @param encoding the encoding of the equations as formulas
+   * @param metrics  the metrics of the phases `ENCODE`, `CHECK` and `MODEL`
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  public SmtSolver(Configuration config, LogManager logger, ShutdownNotifier notifier,
+                   Solvers solver, Encoding encoding, SolverMetrics metrics)
+      throws InvalidConfigurationException {
+    this(config, logger, notifier, solver, encoding, metrics, false);
+  }
+
+  /**
+   * Creates a solver context for the given backend and a prover on top of it, which solves
+   * puzzles with the same layout on the same `EquationTemplate` if `templates` is set.
+   *
+   * @param config    the configuration used to create the solver context
+   * @param logger    the log manager of the solver context
+   * @param notifier  the notifier used to stop the solver
+   * @param solver    the SMT backend to use
+   * @param encoding  the encoding of the equations as formulas
+   * @param metrics   the metrics of the phases `ENCODE`, `CHECK` and `MODEL`
+   * @param templates whether the layouts are encoded once and the digits passed as assumptions
+   * @throws InvalidConfigurationException if the solver context cannot be configured
+   */
+  public SmtSolver(Configuration config, LogManager logger, ShutdownNotifier notifier,
+                   Solvers solver, Encoding encoding, SolverMetrics metrics, boolean templates)
+      throws InvalidConfigurationException {
+    this.metrics = metrics;
+    this.templates = templates;
+    this.shutdown = ShutdownManager.createWithParent(notifier);
+    this.context = SolverContextFactory.createSolverContext(config, logger,
+        shutdown.getNotifier(), solver);
+    this.encoder = CrosswordEncoder.create(encoding, context.getFormulaManager());
+    this.prover = context.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS);
+    this.bmgr = context.getFormulaManager().getBooleanFormulaManager();
+  }
+
+  /**
+   * Solves a set of equations over the variables `x_1` to `x_n` on a fresh level of the
+   * prover stack.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    if (templates) {
+      return solveWithTemplate(EquationTemplate.of(equations, variableCount), variableCount);
+    }
+    long start = System.nanoTime();
+    generateVariables(variableCount);
+
+    prover.push();
+    try {
+      for (BooleanFormula formula : generateBooleanFormulas(equations)) {
+        prover.addConstraint(formula);
+      }
+      start = lap(SolverMetrics.Phase.ENCODE, start);
+      boolean unsat = prover.isUnsat();
+      start = lap(SolverMetrics.Phase.CHECK, start);
+      if (unsat) {
+        return Optional.empty();
+      }
+      Map<String, Integer> variableValues = currentModel(variableCount);
+      lap(SolverMetrics.Phase.MODEL, start);
+      return Optional.of(variableValues);
+    } finally {
+      prover.pop();
+    }
+  }
+
+  /**
+   * Solves a puzzle on its template, asserting the template equations only if the previous
+   * puzzle had a different layout.
+   *
+   * @param template      the template of the equations of the puzzle
+   * @param variableCount the number of variables `n` of the puzzle
+   * @return the values of all variables of the puzzle, or an empty `Optional` if it is
+   *         unsatisfiable
+   * @throws SolverException      if the solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  private Optional<Map<String, Integer>> solveWithTemplate(EquationTemplate template,
+                                                           int variableCount)
+      throws SolverException, InterruptedException {
+    long start = System.nanoTime();
+    if (!template.getKey().equals(activeTemplate)) {
+      // the domains of new variables must outlive the template, so they are asserted below it
+      releaseTemplate();
+      generateVariables(template.getVariableCount());
+      prover.push();
+      try {
+        for (BooleanFormula formula : generateBooleanFormulas(template.getEquations())) {
+          prover.addConstraint(formula);
+        }
+      } catch (InterruptedException | RuntimeException e) {
+        prover.pop();
+        throw e;
+      }
+      activeTemplate = template.getKey();
+    }
+    List<BooleanFormula> assumptions = new ArrayList<>(template.getGivens().size());
+    for (int[] given : template.getGivens()) {
+      assumptions.add(encoder.hasValue(given[0], given[1]));
+    }
+    start = lap(SolverMetrics.Phase.ENCODE, start);
+    boolean unsat = prover.isUnsatWithAssumptions(assumptions);
+    start = lap(SolverMetrics.Phase.CHECK, start);
+    if (unsat) {
+      return Optional.empty();
+    }
+    Map<String, Integer> variableValues = HashMap.newHashMap(variableCount);
+    try (Model model = prover.getModel()) {
+      for (int i = 0; i < variableCount; i++) {
+        int variable = template.getVariable(i);
+        variableValues.put(Equation.nameOf(i),
+            variable < 0 ? 0 : encoder.evaluate(model, variable));
+      }
+    }
+    lap(SolverMetrics.Phase.MODEL, start);
+    return Optional.of(variableValues);
+  }
+
+  /**
+   * Removes the asserted template from the prover, if there is one.
+   */
+  private void releaseTemplate() {
+    if (activeTemplate != null) {
+      prover.pop();
+      activeTemplate = null;
+    }
+  }
+
+  /**
+   * Solves a set of equations and stops the solver context once the notifier requests a
+   * shutdown, after which this solver is unusable.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the solver fails
+   * @throws InterruptedException if the shutdown was requested
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    // a call that was cancelled before it started leaves the context usable
+    notifier.shutdownIfNecessary();
+    ShutdownRequestListener listener = shutdown::requestShutdown;
+    notifier.registerAndCheckImmediately(listener);
+    try {
+      return solve(equations, variableCount);
+    } finally {
+      notifier.unregister(listener);
+    }
+  }
+
+  /**
+   * Enumerates the solutions of a set of equations on a fresh level of the prover stack.
+   * After each model a blocking clause excludes the values of the variables of the equations.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param limit         the maximal number of solutions to enumerate
+   * @param consumer      the consumer of the solutions
+   * @return the number of solutions passed to the consumer
+   * @throws SolverException      if the solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    releaseTemplate();
+    generateVariables(variableCount);
+    TreeSet<Integer> variables = new TreeSet<>();
+    for (Equation equation : equations) {
+      for (int operand : EquationGraph.operandsOf(equation)) {
+        if (!Equation.isConstant(operand)) {
+          variables.add(operand);
+        }
+      }
+    }
+
+    prover.push();
+    try {
+      for (BooleanFormula formula : generateBooleanFormulas(equations)) {
+        prover.addConstraint(formula);
+      }
+      long count = 0;
+      while (count < limit && !prover.isUnsat()) {
+        Map<String, Integer> variableValues = currentModel(variableCount);
+        List<BooleanFormula> assignment = new ArrayList<>();
+        for (int variable : variables) {
+          assignment.add(encoder.hasValue(variable, variableValues.get(Equation.nameOf(variable))));
+        }
+        consumer.accept(variableValues);
+        count++;
+        prover.addConstraint(bmgr.not(bmgr.and(assignment)));
+      }
+      return count;
+    } finally {
+      prover.pop();
+    }
+  }
+
+  /**
+   * Returns a minimal set of conflicting equations. Every equation is asserted on a fresh level
+   * of the prover behind a selector literal, and the selectors are passed as assumptions. The
+   * core the backend reports over the assumptions, or all of them if it cannot report one, is
+   * then reduced by dropping one selector at a time while the rest stays unsatisfiable. Each of
+   * these checks reuses the same encoding.
+   *
+   * @param equations     the equations
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the conflicting equations in input order, or an empty list if they are satisfiable
+   * @throws SolverException      if the solver fails
+   * @throws InterruptedException if solving is interrupted
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    releaseTemplate();
+    generateVariables(variableCount);
+
+    prover.push();
+    try {
+      List<BooleanFormula> formulas = generateBooleanFormulas(equations);
+      Map<BooleanFormula, Integer> selectors = new HashMap<>();
+      List<BooleanFormula> core = new ArrayList<>(equations.size());
+      for (int i = 0; i < formulas.size(); i++) {
+        BooleanFormula selector = bmgr.makeVariable("equation_" + i);
+        prover.addConstraint(bmgr.implication(selector, formulas.get(i)));
+        selectors.put(selector, i);
+        core.add(selector);
+      }
+      if (!prover.isUnsatWithAssumptions(core)) {
+        return List.of();
+      }
+      try {
+        Optional<List<BooleanFormula>> reported = prover.unsatCoreOverAssumptions(core);
+        if (reported.isPresent()) {
+          core = new ArrayList<>(reported.get());
+        }
+      } catch (UnsupportedOperationException | IllegalStateException e) {
+        // The backend does not report cores over assumptions, all selectors are reduced.
+      }
+      for (int i = core.size() - 1; i >= 0; i--) {
+        BooleanFormula removed = core.remove(i);
+        if (!prover.isUnsatWithAssumptions(core)) {
+          core.add(i, removed);
+        }
+      }
+      boolean[] conflicting = new boolean[equations.size()];
+      for (BooleanFormula selector : core) {
+        conflicting[selectors.get(selector)] = true;
+      }
+      List<Equation> conflict = new ArrayList<>();
+      for (int i = 0; i < conflicting.length; i++) {
+        if (conflicting[i]) {
+          conflict.add(equations.get(i));
+        }
+      }
+      return conflict;
+    } finally {
+      prover.pop();
+    }
+  }
+
+  /**
+   * Records the time since the start of a phase.
+   *
+   * @param phase the phase that ended
+   * @param start the start of the phase by `System.nanoTime`
+   * @return the end of the phase, the start of the next one
+   */
+  private long lap(SolverMetrics.Phase phase, long start) {
+    long end = System.nanoTime();
+    metrics.recordPhase(phase, end - start);
+    return end;
+  }
+
+  /**
+   * Reads the values of the variables from the model of the last satisfiable check.
+   *
+   * @param variableCount the number of variables `n`
+   * @return the values of all variables
+   * @throws SolverException if the model cannot be created
+   */
+  private Map<String, Integer> currentModel(int variableCount) throws SolverException {
+    Map<String, Integer> variableValues = HashMap.newHashMap(variableCount);
+    try (Model model = prover.getModel()) {
+      for (int i = 0; i < variableCount; i++) {
+        variableValues.put(Equation.nameOf(i), encoder.evaluate(model, i));
+      }
+    }
+    return variableValues;
+  }
+
+  /**
+   * Generates the boolean formulas for the given equations.
+   * The formulas of all variables must have been created by `generateVariables`.
+   *
+   * @param equations the equations, e.g. of a crossword
+   * @return one formula per equation
+   */
+  List<BooleanFormula> generateBooleanFormulas(List<Equation> equations) {
+    List<BooleanFormula> booleanFormulas = new ArrayList<>();
+
+    for (Equation equation : equations) {
+      booleanFormulas.add(encoder.encode(equation));
+    }
+    return booleanFormulas;
+  }
+
+  /**
+   * Creates the formulas for the variables `x_1` to `x_n` that have not been created before.
+   * The domain constraint of a new variable is asserted on the bottom level of the prover.
+   *
+   * @param count the number of variables `n` of the crossword
+   * @throws InterruptedException if adding a constraint is interrupted
+   */
+  void generateVariables(int count) throws InterruptedException {
+    if (count <= declaredVariables) {
+      return;
+    }
+    for (BooleanFormula domain : encoder.declareVariables(count)) {
+      prover.addConstraint(domain);
+    }
+    declaredVariables = count;
+  }
+
+  /**
+   * Returns whether the solver context has been shut down and cannot be used anymore.
+   *
+   * @return true if a shutdown was requested
+   */
+  public boolean isShutdown() {
+    return shutdown.getNotifier().shouldShutdown();
+  }
+
+  /**
+   * Closes the prover and the solver context.
+   */
+  @Override
+  public void close() {
+    prover.close();
+    context.close();
+  }
+}
@@ -0,0 +1,216 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `SmtSolverPool` class is a long-lived solving service that keeps one warm `SmtSolver` per
+ * thread.
+ *
+ * <p>Starting a solver context is much more expensive than solving a single crossword, so the
+ * pool creates a context the first time a thread solves a crossword and reuses it for every
+ * further crossword of that thread. Since JavaSMT contexts are not thread-safe, a context is
+ * never shared between threads.
+ * A context that was shut down to cancel a call is closed and replaced by a new one on the next
+ * call of that thread.
+ * Closing the pool closes all contexts it has created.
+ *
+ * @see SmtSolver
+ */
+public class SmtSolverPool implements CrosswordSolver {
+  private final Configuration config;
+  private final LogManager logger;
+  private final Solvers solver;
+  private final Encoding encoding;
+  private final SolverMetrics metrics;
+  private final boolean templates;
+  private final ShutdownManager shutdown = ShutdownManager.create();
+  private final ThreadLocal<SmtSolver> solvers = new ThreadLocal<>();
+  private final ConcurrentLinkedQueue<SmtSolver> created = new ConcurrentLinkedQueue<>();
+  private volatile boolean closed = false;
+
+  /**
+   * Constructs a pool whose solvers use the given backend and the integer encoding.
+   * No solver context is created before the first crossword is solved.
+   *
+   * @param config the configuration used to create the solver contexts
+   * @param logger the log manager of the solver contexts
+   * @param solver the SMT backend to use
+   */
+  public SmtSolverPool(Configuration config, LogManager logger, Solvers solver) {
+    this(config, logger, solver, Encoding.INTEGER);
+  }
+
+  /**
+   * Constructs a pool whose solvers use the given backend and encoding.
+   * No solver context is created before the first crossword is solved.
+   *
+   * @param config   the configuration used to create the solver contexts
+   * @param logger   the log manager of the solver contexts
+   * @param solver   the SMT backend to use
+   * @param encoding the encoding of the equations as formulas
+   */
+  public SmtSolverPool(Configuration config, LogManager logger, Solvers solver,
+                       Encoding encoding) {
+    this(config, logger, solver, encoding, SolverMetrics.NONE);
+  }
+
+  /**
+   * Constructs a pool whose solvers use the given backend and encoding and report the phases of
+   * every crossword to the given metrics.
+   * No solver context is created before the first crossword is solved.
+   *
+   * @param config   the configuration used to create the solver contexts
+   * @param logger   the log manager of the solver contexts
+   * @param solver   the SMT backend to use
+   * @param encoding the encoding of the equations as formulas
+   * @param metrics  the metrics shared by all solvers of the pool
+   */
+  public SmtSolverPool(Configuration config, LogManager logger, Solvers solver,
+                       Encoding encoding, SolverMetrics metrics) {
+    this(config, logger, solver, encoding, metrics, false);
+  }
+
+  /**
+   * Constructs a pool whose solvers use the given backend and encoding, report to the given
+   * metrics and, if `templates` is set, reuse the encoding of a layout across puzzles.
+   * No solver context is created before the first crossword is solved.
+   *
+   * @param config    the configuration used to create the solver contexts
+   * @param logger    the log manager of the solver contexts
+   * @param solver    the SMT backend to use
+   * @param encoding  the encoding of the equations as formulas
+   * @param metrics   the metrics shared by all solvers of the pool
+   * @param templates whether the solvers encode layouts once as an `EquationTemplate`
+   */
+  public SmtSolverPool(Configuration config, LogManager logger, Solvers solver,
+                       Encoding encoding, SolverMetrics metrics, boolean templates) {
+    this.metrics = metrics;
+    this.templates = templates;
+    this.config = config;
+    this.logger = logger;
+    this.solver = solver;
+    this.encoding = encoding;
+  }
+
+  /**
+   * Solves a set of equations with the solver of the current thread.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the solver fails or cannot be created
+   * @throws InterruptedException if solving is interrupted
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solverForCurrentThread().solve(equations, variableCount);
+  }
+
+  /**
+   * Solves a set of equations with the solver of the current thread until the notifier
+   * requests a shutdown. A solver that was shut down is discarded.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param notifier      the notifier that cancels this call
+   * @return the values of all variables, or an empty `Optional` if it is unsatisfiable
+   * @throws SolverException      if the solver fails or cannot be created
+   * @throws InterruptedException if the shutdown was requested
+   */
+  @Override
+  public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                              ShutdownNotifier notifier)
+      throws SolverException, InterruptedException {
+    notifier.shutdownIfNecessary();
+    SmtSolver current = solverForCurrentThread();
+    try {
+      return current.solve(equations, variableCount, notifier);
+    } finally {
+      if (current.isShutdown() && created.remove(current)) {
+        solvers.remove();
+        current.close();
+      }
+    }
+  }
+
+  /**
+   * Enumerates the solutions of a set of equations with the solver of the current thread.
+   *
+   * @param equations     the equations to solve
+   * @param variableCount the number of variables `n` the equations refer to
+   * @param limit         the maximal number of solutions to enumerate
+   * @param consumer      the consumer of the solutions
+   * @return the number of solutions passed to the consumer
+   * @throws SolverException      if the solver fails or cannot be created
+   * @throws InterruptedException if solving is interrupted
+   */
+  @Override
+  public long enumerate(List<Equation> equations, int variableCount, long limit,
+                        Consumer<Map<String, Integer>> consumer)
+      throws SolverException, InterruptedException {
+    return solverForCurrentThread().enumerate(equations, variableCount, limit, consumer);
+  }
+
+  /**
+   * Returns a minimal set of conflicting equations, found by the solver of the current thread.
+   *
+   * @param equations     the equations
+   * @param variableCount the number of variables `n` the equations refer to
+   * @return the conflicting equations, or an empty list if they are satisfiable
+   * @throws SolverException      if the solver fails or cannot be created
+   * @throws InterruptedException if solving is interrupted
+   */
+  @Override
+  public List<Equation> unsatCore(List<Equation> equations, int variableCount)
+      throws SolverException, InterruptedException {
+    return solverForCurrentThread().unsatCore(equations, variableCount);
+  }
+
+  /**
+   * Returns the solver of the current thread, creating it on first use.
+   *
+   * @return the solver of the current thread
+   * @throws SolverException if the pool is closed or the solver context cannot be created
+   */
+  private SmtSolver solverForCurrentThread() throws SolverException {
+    if (closed) {
+      throw new SolverException("The solver pool is closed");
+    }
+    SmtSolver current = solvers.get();
+    if (current == null) {
+      try {
+        current = new SmtSolver(config, logger, shutdown.getNotifier(), solver, encoding,
+            metrics, templates);
+      } catch (InvalidConfigurationException e) {
+        throw new SolverException("Could not create a solver context", e);
+      }
+      solvers.set(current);
+      created.add(current);
+    }
+    return current;
+  }
+
+  /**
+   * Closes the solver contexts of all threads.
+   * Must only be called once no thread is solving anymore.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    shutdown.requestShutdown("The solver pool is closed");
+    SmtSolver current;
+    while ((current = created.poll()) != null) {
+      current.close();
+    }
+  }
+}
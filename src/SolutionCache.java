@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `SolutionCache` class stores solutions by the fingerprint of the puzzle they belong to.
+ *
+ * <p>The cache keeps at most a fixed number of entries in memory and evicts the least recently
+ * used one when it is full. Optionally, every entry is also written to a directory, which acts as
+ * a persistent second tier: an entry missing in memory is looked up there and survives restarts.
+ * A solution is stored as the values of the variables in the order chosen by the fingerprint,
+ * or as unsatisfiable. The cache is thread-safe and counts its hits and misses.
+ *
+ * @see CachingSolver
+ */
+public class SolutionCache {
+  private static final String UNSATISFIABLE = "unsat";
+  private final Map<String, int[]> entries;
+  private final Path directory;
+  private final SolverMetrics metrics;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong diskHits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * The result of a lookup: either a solution, unsatisfiable, or absent.
+   */
+  public static final class Entry {
+    private final int[] values;
+
+    private Entry(int[] values) {
+      this.values = values;
+    }
+
+    /**
+     * Returns whether the puzzle is satisfiable.
+     *
+     * @return true if the entry holds a solution
+     */
+    public boolean isSatisfiable() {
+      return values != null;
+    }
+
+    /**
+     * Returns the values of the variables in the order of the fingerprint.
+     *
+     * @return the values, or null if the puzzle is unsatisfiable
+     */
+    public int[] getValues() {
+      return values == null ? null : values.clone();
+    }
+  }
+
+  /**
+   * Constructs a cache that holds at most the given number of entries in memory.
+   *
+   * @param capacity  the maximal number of entries in memory
+   * @param directory the directory of the persistent tier, or null for none
+   * @throws IOException if the directory cannot be created
+   */
+  public SolutionCache(int capacity, Path directory) throws IOException {
+    this(capacity, directory, SolverMetrics.NONE);
+  }
+
+  /**
+   * Constructs a cache that holds at most the given number of entries in memory and reports
+   * its hits and misses to the given metrics.
+   *
+   * @param capacity  the maximal number of entries in memory
+   * @param directory the directory of the persistent tier, or null for none
+   * @param metrics   the metrics of the lookups
+   * @throws IOException if the directory cannot be created
+   */
+  public SolutionCache(int capacity, Path directory, SolverMetrics metrics) throws IOException {
+    this.metrics = metrics;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+        return size() > capacity;
+      }
+    };
+    this.directory = directory;
+    if (directory != null) {
+      Files.createDirectories(directory);
+    }
+  }
+
+  /**
+   * Looks up the solution of a puzzle, first in memory and then in the persistent tier.
+   *
+   * @param fingerprint the fingerprint of the puzzle
+   * @return the entry, or null if the puzzle is not cached
+   */
+  public Entry get(String fingerprint) {
+    int[] values;
+    synchronized (entries) {
+      values = entries.get(fingerprint);
+      if (values == null && entries.containsKey(fingerprint)) {
+        hits.incrementAndGet();
+        metrics.increment(SolverMetrics.Counter.CACHE_HITS);
+        return new Entry(null);
+      }
+    }
+    if (values != null) {
+      hits.incrementAndGet();
+      metrics.increment(SolverMetrics.Counter.CACHE_HITS);
+      return new Entry(values);
+    }
+    if (directory != null) {
+      Entry entry = readFromDisk(fingerprint);
+      if (entry != null) {
+        diskHits.incrementAndGet();
+        metrics.increment(SolverMetrics.Counter.CACHE_HITS);
+        synchronized (entries) {
+          entries.put(fingerprint, entry.values);
+        }
+        return entry;
+      }
+    }
+    misses.incrementAndGet();
+    metrics.increment(SolverMetrics.Counter.CACHE_MISSES);
+    return null;
+  }
+
+  /**
+   * Stores the solution of a puzzle.
+   *
+   * @param fingerprint the fingerprint of the puzzle
+   * @param values      the values of the variables in the order of the fingerprint,
+   *                    or null if the puzzle is unsatisfiable
+   */
+  public void put(String fingerprint, int[] values) {
+    int[] copy = values == null ? null : values.clone();
+    synchronized (entries) {
+      entries.put(fingerprint, copy);
+    }
+    if (directory != null) {
+      writeToDisk(fingerprint, copy);
+    }
+  }
+
+  /**
+   * Returns the number of lookups answered from memory.
+   *
+   * @return the number of hits in memory
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of lookups answered from the persistent tier.
+   *
+   * @return the number of hits on disk
+   */
+  public long getDiskHits() {
+    return diskHits.get();
+  }
+
+  /**
+   * Returns the number of lookups that found nothing.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the number of entries in memory.
+   *
+   * @return the size of the cache
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SolutionCache[size=" + size() + ", hits=" + getHits() + ", diskHits="
+        + getDiskHits() + ", misses=" + getMisses() + "]";
+  }
+
+  /**
+   * Reads an entry of the persistent tier. The first line of a file is the fingerprint, which
+   * guards against hash collisions, the second line the values or `unsat`.
+   *
+   * @param fingerprint the fingerprint of the puzzle
+   * @return the entry, or null if there is none or it cannot be read
+   */
+  private Entry readFromDisk(String fingerprint) {
+    try {
+      String[] lines = Files.readString(fileOf(fingerprint), StandardCharsets.UTF_8)
+          .split("\n", -1);
+      String stored = lines[0].replace("\\n", "\n").replace("\\\\", "\\");
+      if (lines.length < 2 || !stored.equals(fingerprint)) {
+        return null;
+      }
+      if (lines[1].equals(UNSATISFIABLE)) {
+        return new Entry(null);
+      }
+      String[] fields = lines[1].isEmpty() ? new String[0] : lines[1].split(" ");
+      int[] values = new int[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        values[i] = Integer.parseInt(fields[i]);
+      }
+      return new Entry(values);
+    } catch (IOException | RuntimeException e) {
+      // a missing or damaged file is a miss
+      return null;
+    }
+  }
+
+  /**
+   * Writes an entry to the persistent tier. The file is written under a temporary name and
+   * then moved, so readers never see a partial file. Failures are ignored, since the entry is
+   * still cached in memory.
+   *
+   * @param fingerprint the fingerprint of the puzzle
+   * @param values      the values, or null if the puzzle is unsatisfiable
+   */
+  private void writeToDisk(String fingerprint, int[] values) {
+    StringBuilder content = new StringBuilder();
+    content.append(fingerprint.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+    if (values == null) {
+      content.append(UNSATISFIABLE);
+    } else {
+      for (int i = 0; i < values.length; i++) {
+        content.append(i > 0 ? " " : "").append(values[i]);
+      }
+    }
+    try {
+      Path file = fileOf(fingerprint);
+      Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+      Files.writeString(temporary, content, StandardCharsets.UTF_8);
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // the persistent tier is best effort
+    }
+  }
+
+  /**
+   * Returns the file of an entry, named by the SHA-256 hash of the fingerprint.
+   *
+   * @param fingerprint the fingerprint of the puzzle
+   * @return the path of the file
+   */
+  private Path fileOf(String fingerprint) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256")
+          .digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+      StringBuilder name = new StringBuilder();
+      for (byte b : hash) {
+        name.append(Character.forDigit((b >> 4) & 0xF, 16))
+            .append(Character.forDigit(b & 0xF, 16));
+      }
+      return directory.resolve(name.toString());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
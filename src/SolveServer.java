@@ -0,0 +1,270 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The `SolveServer` class keeps a solver resident behind a small HTTP endpoint on the loopback
+ * interface, so crosswords are solved without starting a JVM and loading the solver libraries
+ * for each of them.
+ *
+ * <p>A crossword is posted as text to `/solve`. The solved crossword is returned with status 200;
+ * an unsatisfiable crossword gets 422, a timeout 504 and a failure 500. Every exchange is handled
+ * on its own virtual thread, which only parks while it waits for the answer. Accepted requests
+ * go into a bounded queue, and a dispatcher takes everything that has queued up, up to a batch
+ * size, and solves it as one micro-batch on the warm workers of a `BatchSolver`; identical
+ * crosswords in a batch are solved once. When the queue is full a request is rejected at once
+ * with status 503 and a `Retry-After` header instead of piling up.
+ *
+ * @see BatchSolver
+ */
+public class SolveServer implements AutoCloseable {
+  private static final int MAX_PUZZLE_BYTES = 64 * 1024;
+  private final HttpServer server;
+  private final ExecutorService exchanges;
+  private final BatchSolver batchSolver;
+  private final BlockingQueue<Request> queue;
+  private final int batchSize;
+  private final SolverMetrics metrics;
+  private final Thread dispatcher;
+  private final CountDownLatch closed = new CountDownLatch(1);
+
+  /**
+   * A crossword waiting to be solved and the answer to its exchange.
+   */
+  private static final class Request {
+    private final String puzzle;
+    private final CompletableFuture<BatchSolver.Result> result = new CompletableFuture<>();
+
+    Request(String puzzle) {
+      this.puzzle = puzzle;
+    }
+  }
+
+  /**
+   * Constructs a server on the given port of the loopback interface. It does not accept requests
+   * before `start` is called.
+   *
+   * @param solver        the thread-safe solver shared by all workers, not closed by the server
+   * @param port          the port to listen on, or 0 for any free port
+   * @param threads       the number of worker threads, or 0 for one per available core
+   * @param queueCapacity the number of requests that may wait before new ones are rejected
+   * @param batchSize     the maximal number of requests solved as one batch
+   * @param metrics       the metrics of the solve pipeline
+   * @throws IOException if the port cannot be bound
+   */
+  public SolveServer(CrosswordSolver solver, int port, int threads, int queueCapacity,
+                     int batchSize, SolverMetrics metrics) throws IOException {
+    this.server = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.exchanges = Executors.newVirtualThreadPerTaskExecutor();
+    this.batchSolver = new BatchSolver(solver, threads, metrics);
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.batchSize = batchSize;
+    this.metrics = metrics;
+    this.dispatcher = Thread.ofVirtual().name("crossword-dispatcher").unstarted(this::dispatch);
+    server.setExecutor(exchanges);
+    server.createContext("/solve", this::handle);
+  }
+
+  /**
+   * Starts accepting requests.
+   */
+  public void start() {
+    dispatcher.start();
+    server.start();
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the bound port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Waits until the server is closed.
+   *
+   * @throws InterruptedException if waiting is interrupted
+   */
+  public void awaitClose() throws InterruptedException {
+    closed.await();
+  }
+
+  /**
+   * Answers one exchange: reads the crossword, queues it and writes the result.
+   *
+   * @param exchange the exchange
+   * @throws IOException if the exchange cannot be read or written
+   */
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!exchange.getRequestMethod().equals("POST")) {
+        exchange.getResponseHeaders().set("Allow", "POST");
+        respond(exchange, 405, "Only POST is supported");
+        return;
+      }
+      byte[] body;
+      try (InputStream in = exchange.getRequestBody()) {
+        body = in.readNBytes(MAX_PUZZLE_BYTES + 1);
+      }
+      if (body.length > MAX_PUZZLE_BYTES) {
+        respond(exchange, 413, "Crossword too large");
+        return;
+      }
+      Request request = new Request(new String(body, StandardCharsets.UTF_8)
+          .replace("\r\n", "\n").replaceFirst("\n+$", ""));
+      if (!queue.offer(request)) {
+        metrics.increment(SolverMetrics.Counter.REJECTED);
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        respond(exchange, 503, "Busy");
+        return;
+      }
+      BatchSolver.Result result;
+      try {
+        result = request.result.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        respond(exchange, 503, "Shutting down");
+        return;
+      } catch (CancellationException e) {
+        respond(exchange, 503, "Shutting down");
+        return;
+      } catch (ExecutionException e) {
+        respond(exchange, 500, "Failed: " + e.getCause());
+        return;
+      }
+      switch (result.getStatus()) {
+        case SOLVED:
+          Crossword crossword = result.getCrossword();
+          ByteBuffer text = ByteBuffer.allocate(crossword.getRenderedLength() + 1);
+          crossword.render(text);
+          text.put((byte) '\n');
+          respond(exchange, 200, text.array());
+          break;
+        case UNSATISFIABLE:
+          respond(exchange, 422, "Unsatisfiable");
+          break;
+        case TIMEOUT:
+          respond(exchange, 504, "Timeout");
+          break;
+        default:
+          respond(exchange, 500, "Failed: " + result.getError());
+          break;
+      }
+    }
+  }
+
+  /**
+   * Sends a text response.
+   *
+   * @param exchange the exchange
+   * @param status   the HTTP status
+   * @param text     the body of the response
+   * @throws IOException if the response cannot be written
+   */
+  private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+    respond(exchange, status, (text + "\n").getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Sends a text response given as bytes.
+   *
+   * @param exchange the exchange
+   * @param status   the HTTP status
+   * @param bytes    the UTF-8 body of the response
+   * @throws IOException if the response cannot be written
+   */
+  private static void respond(HttpExchange exchange, int status, byte[] bytes)
+      throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  /**
+   * Takes the queued requests in batches and solves them until the server is closed. A batch
+   * that fails for another reason than the shutdown of the workers fails its unanswered requests
+   * and does not stop the dispatcher.
+   */
+  private void dispatch() {
+    List<Request> batch = new ArrayList<>(batchSize);
+    try {
+      while (true) {
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - 1);
+        try {
+          solveBatch(batch);
+        } catch (RejectedExecutionException e) {
+          throw new InterruptedException("Workers shut down");
+        } catch (RuntimeException | Error e) {
+          batch.forEach(request -> request.result.completeExceptionally(e));
+        }
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      batch.forEach(request -> request.result.cancel(false));
+    }
+  }
+
+  /**
+   * Solves a batch of requests, each distinct crossword once.
+   *
+   * @param batch the requests to answer
+   * @throws InterruptedException if waiting for the workers is interrupted
+   */
+  private void solveBatch(List<Request> batch) throws InterruptedException {
+    Map<String, List<Request>> byPuzzle = new LinkedHashMap<>();
+    for (Request request : batch) {
+      byPuzzle.computeIfAbsent(request.puzzle, puzzle -> new ArrayList<>()).add(request);
+    }
+    List<List<Request>> groups = new ArrayList<>(byPuzzle.values());
+    batchSolver.solveAll(byPuzzle.keySet(), false, result -> {
+      for (Request request : groups.get((int) result.getIndex())) {
+        request.result.complete(result);
+      }
+    });
+  }
+
+  /**
+   * Stops accepting requests, cancels the waiting ones and stops the workers. The solver is not
+   * closed. Closing the server again has no effect.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed.getCount() == 0) {
+      return;
+    }
+    server.stop(0);
+    dispatcher.interrupt();
+    Request request;
+    while ((request = queue.poll()) != null) {
+      request.result.cancel(false);
+    }
+    batchSolver.close();
+    exchanges.shutdownNow();
+    closed.countDown();
+  }
+}
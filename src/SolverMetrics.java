@@ -0,0 +1,136 @@
+/**
+ * The `SolverMetrics` interface receives measurements of the solve pipeline.
+ *
+ * <p>The pipeline reports the duration of every phase of solving a crossword and increments
+ * counters for what it has seen and how it ended. Implementations must be thread-safe and cheap,
+ * since they are called on the hot path; `MetricsRegistry` aggregates the measurements into
+ * histograms and counters, `JfrMetrics` emits them as Java Flight Recorder events. Several
+ * implementations are combined with `both`.
+ *
+ * @see MetricsRegistry
+ * @see JfrMetrics
+ */
+public interface SolverMetrics {
+
+  /**
+   * Metrics that discard every measurement.
+   */
+  SolverMetrics NONE = new SolverMetrics() {
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+    }
+
+    @Override
+    public void increment(Counter counter, long amount) {
+    }
+  };
+
+  /**
+   * The phases of solving a crossword.
+   */
+  enum Phase {
+    /**
+     * `Crossword.parseCrossword`: scanning the grid for variables and equations.
+     */
+    PARSE,
+    /**
+     * `Presolver.presolve`: fixing the cells forced by a single equation.
+     */
+    PRESOLVE,
+    /**
+     * Building the formulas of the equations, or the constraints of the native solver.
+     */
+    ENCODE,
+    /**
+     * The satisfiability check, `prover.isUnsat()` or the search of the native solver.
+     */
+    CHECK,
+    /**
+     * Reading the values of the variables from the model.
+     */
+    MODEL,
+    /**
+     * A whole call of the solver, including all phases but parsing.
+     */
+    SOLVE
+  }
+
+  /**
+   * The counters of the solve pipeline.
+   */
+  enum Counter {
+    CROSSWORDS,
+    EQUATIONS,
+    VARIABLES,
+    SATISFIABLE,
+    UNSATISFIABLE,
+    TIMEOUTS,
+    FAILURES,
+    CACHE_HITS,
+    CACHE_MISSES,
+    /**
+     * The cells fixed by the presolver without calling a solver.
+     */
+    FORCED_CELLS,
+    /**
+     * The requests the server rejected because its queue was full.
+     */
+    REJECTED,
+    /**
+     * The crosswords answered with the solution of an equivalent crossword.
+     */
+    DEDUPLICATED,
+    /**
+     * The bytes allocated by the thread that called the solver, if the JVM measures them.
+     */
+    ALLOCATED_BYTES
+  }
+
+  /**
+   * Records the duration of a phase.
+   *
+   * @param phase the phase
+   * @param nanos the duration in nanoseconds
+   */
+  void recordPhase(Phase phase, long nanos);
+
+  /**
+   * Increments a counter.
+   *
+   * @param counter the counter
+   * @param amount  the amount to add
+   */
+  void increment(Counter counter, long amount);
+
+  /**
+   * Increments a counter by one.
+   *
+   * @param counter the counter
+   */
+  default void increment(Counter counter) {
+    increment(counter, 1);
+  }
+
+  /**
+   * Returns metrics that pass every measurement to two metrics.
+   *
+   * @param first  the first metrics
+   * @param second the second metrics
+   * @return the combined metrics
+   */
+  static SolverMetrics both(SolverMetrics first, SolverMetrics second) {
+    return new SolverMetrics() {
+      @Override
+      public void recordPhase(Phase phase, long nanos) {
+        first.recordPhase(phase, nanos);
+        second.recordPhase(phase, nanos);
+      }
+
+      @Override
+      public void increment(Counter counter, long amount) {
+        first.increment(counter, amount);
+        second.increment(counter, amount);
+      }
+    };
+  }
+}
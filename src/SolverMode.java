@@ -0,0 +1,17 @@
+/**
+ * The `SolverMode` enum lists the engines that can solve a `Crossword`.
+ *
+ * @see CrosswordOptions
+ */
+public enum SolverMode {
+  /**
+   * Encode the equations as formulas and solve them with an SMT solver via JavaSMT.
+   */
+  SMT,
+  /**
+   * Solve the equations with the built-in finite-domain propagation engine.
+   *
+   * @see NativeSolver
+   */
+  NATIVE
+}
@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The `SolverProfile` class records how long every solver takes on the crosswords of every
+ * `PuzzleFeatures` bucket.
+ *
+ * <p>The time of a solver in a bucket is an exponentially weighted moving average, so recent
+ * timings count more and the profile follows changes, e.g. a backend that gets faster once its
+ * contexts are warm. The profile can be kept in a file across runs: it is read when it is
+ * created and written by `save`, one line `BUCKET SOLVER COUNT NANOS` per entry. The profile is
+ * thread-safe.
+ *
+ * @see SelectingSolver
+ */
+public class SolverProfile {
+  private static final double WEIGHT = 0.2;
+  private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+  private final Path file;
+
+  /**
+   * The timing of one solver in one bucket.
+   */
+  private static final class Timing {
+    private long count;
+    private double nanos;
+
+    synchronized void record(long elapsed) {
+      nanos = count == 0 ? elapsed : nanos + WEIGHT * (elapsed - nanos);
+      count++;
+    }
+  }
+
+  /**
+   * Constructs an empty profile that is kept in memory only.
+   */
+  public SolverProfile() {
+    this.file = null;
+  }
+
+  /**
+   * Constructs a profile that is kept in a file, reading the file if it exists. Damaged lines
+   * are skipped.
+   *
+   * @param file the file of the profile
+   * @throws IOException if the file exists but cannot be read
+   */
+  public SolverProfile(Path file) throws IOException {
+    this.file = file;
+    try {
+      for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        String[] fields = line.trim().split(" ");
+        try {
+          if (fields.length == 4) {
+            Timing timing = new Timing();
+            timing.count = Long.parseLong(fields[2]);
+            timing.nanos = Double.parseDouble(fields[3]);
+            timings.put(key(fields[0], fields[1]), timing);
+          }
+        } catch (NumberFormatException e) {
+          // a damaged line is measured again
+        }
+      }
+    } catch (NoSuchFileException e) {
+      // the profile starts empty
+    }
+  }
+
+  /**
+   * Records the time a solver took on a crossword of a bucket.
+   *
+   * @param bucket the bucket of the crossword
+   * @param solver the name of the solver
+   * @param nanos  the time taken, in nanoseconds
+   */
+  public void record(String bucket, String solver, long nanos) {
+    timings.computeIfAbsent(key(bucket, solver), key -> new Timing()).record(nanos);
+  }
+
+  /**
+   * Returns the number of timings recorded for a solver in a bucket.
+   *
+   * @param bucket the bucket
+   * @param solver the name of the solver
+   * @return the number of timings
+   */
+  public long getCount(String bucket, String solver) {
+    Timing timing = timings.get(key(bucket, solver));
+    if (timing == null) {
+      return 0;
+    }
+    synchronized (timing) {
+      return timing.count;
+    }
+  }
+
+  /**
+   * Returns the average time of a solver in a bucket, weighted towards recent timings.
+   *
+   * @param bucket the bucket
+   * @param solver the name of the solver
+   * @return the time in nanoseconds, or `Double.NaN` if nothing was recorded
+   */
+  public double getNanos(String bucket, String solver) {
+    Timing timing = timings.get(key(bucket, solver));
+    if (timing == null) {
+      return Double.NaN;
+    }
+    synchronized (timing) {
+      return timing.count == 0 ? Double.NaN : timing.nanos;
+    }
+  }
+
+  /**
+   * Writes the profile to its file, if it has one. The file is written under a temporary name
+   * and then moved, so a reader never sees a partial profile.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public void save() throws IOException {
+    if (file == null) {
+      return;
+    }
+    StringBuilder content = new StringBuilder();
+    for (Map.Entry<String, Timing> entry : new TreeMap<>(timings).entrySet()) {
+      Timing timing = entry.getValue();
+      synchronized (timing) {
+        content.append(entry.getKey()).append(' ').append(timing.count).append(' ')
+            .append(String.format(Locale.ROOT, "%.0f", timing.nanos)).append('\n');
+      }
+    }
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, "profile", ".tmp");
+    Files.writeString(temporary, content, StandardCharsets.UTF_8);
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static String key(String bucket, String solver) {
+    return bucket + " " + solver;
+  }
+}
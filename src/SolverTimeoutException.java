@@ -0,0 +1,20 @@
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `SolverTimeoutException` class signals that a crossword was not solved before its
+ * deadline. The crossword may still be satisfiable or not.
+ *
+ * @see DeadlineSolver
+ */
+public class SolverTimeoutException extends SolverException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs the exception with the given message.
+   *
+   * @param message the message of the exception
+   */
+  public SolverTimeoutException(String message) {
+    super(message);
+  }
+}
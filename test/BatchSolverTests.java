@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BatchSolverTests {
+
+  @Test
+  @DisplayName("readPuzzlesSeparatedByEmptyLines")
+  void testPuzzleReader() {
+    String text = "\n" + MathCrossword.input + "\n\n\n" + TestCrosswords.UNSATISFIABLE + "\r\n";
+    List<String> puzzles = new ArrayList<>();
+    new PuzzleReader(new StringReader(text)).forEach(puzzles::add);
+
+    assertEquals(List.of(MathCrossword.input, TestCrosswords.UNSATISFIABLE), puzzles);
+  }
+
+  @Test
+  @DisplayName("solveBatchInInputOrder")
+  void testSolveAllOrdered() throws Exception {
+    List<String> puzzles = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      puzzles.add(i % 3 == 0 ? TestCrosswords.UNSATISFIABLE : MathCrossword.input);
+    }
+    List<BatchSolver.Result> results = new ArrayList<>();
+
+    try (BatchSolver batchSolver = new BatchSolver(new NativeSolver(), 4)) {
+      batchSolver.solveAll(puzzles, true, results::add);
+    }
+
+    assertEquals(puzzles.size(), results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i, results.get(i).getIndex());
+      assertEquals(i % 3 == 0 ? BatchSolver.Status.UNSATISFIABLE : BatchSolver.Status.SOLVED,
+          results.get(i).getStatus());
+    }
+  }
+
+  @Test
+  @DisplayName("stopBatchWhenConsumerFails")
+  void testConsumerFailure() {
+    List<String> puzzles = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      puzzles.add(MathCrossword.input);
+    }
+    AtomicInteger consumed = new AtomicInteger();
+
+    assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+      try (BatchSolver batchSolver = new BatchSolver(new NativeSolver(), 4)) {
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+            () -> batchSolver.solveAll(puzzles, true, result -> {
+              if (consumed.incrementAndGet() == 5) {
+                throw new UncheckedIOException(new IOException("Disk full"));
+              }
+            }));
+        assertEquals("Disk full", e.getCause().getMessage());
+      }
+    });
+    assertEquals(5, consumed.get());
+  }
+
+  @Test
+  @DisplayName("failCrosswordWhoseSolverThrowsError")
+  void testSolverError() {
+    List<String> puzzles = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      puzzles.add(i % 2 == 0 ? MathCrossword.input : "1+_=6");
+    }
+    CrosswordSolver overflowing = (equations, variableCount) -> {
+      if (equations.size() > 1) {
+        throw new StackOverflowError();
+      }
+      return new NativeSolver().solve(equations, variableCount);
+    };
+    List<BatchSolver.Result> results = new ArrayList<>();
+
+    assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+      try (BatchSolver batchSolver = new BatchSolver(overflowing, 4)) {
+        batchSolver.solveAll(puzzles, true, results::add);
+      }
+    });
+
+    assertEquals(100, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      BatchSolver.Result result = results.get(i);
+      assertEquals(i, result.getIndex());
+      if (i % 2 == 0) {
+        assertEquals(BatchSolver.Status.FAILED, result.getStatus());
+        assertInstanceOf(StackOverflowError.class, result.getError().getCause());
+      } else {
+        assertEquals(BatchSolver.Status.SOLVED, result.getStatus());
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sosy_lab.java_smt.api.SolverException;
+
+public class CrosswordSessionTests {
+
+  private final NativeSolver solver = new NativeSolver();
+
+  private static String render(CrosswordSession session) throws Exception {
+    StringBuilder text = new StringBuilder();
+    session.render(text);
+    return text.toString();
+  }
+
+  @Test
+  @DisplayName("solveCrosswordWhenOpened")
+  void testOpen() throws Exception {
+    CrosswordSession session = new CrosswordSession(MathCrossword.input, solver);
+    Crossword crossword = new Crossword(MathCrossword.input);
+    crossword.parseCrossword();
+    crossword.updateVariables(solver.solve(crossword).orElseThrow());
+    StringBuilder expected = new StringBuilder();
+    crossword.render(expected);
+
+    assertTrue(session.getResult().isSatisfiable());
+    assertEquals(expected.toString(), render(session));
+    assertEquals(5, session.getValue(0, 2));
+    assertEquals(crossword.getEquations().size(), session.getEquations().size());
+  }
+
+  @Test
+  @DisplayName("resolveOnlyChangedGroups")
+  void testIncrementalEdit() throws Exception {
+    CrosswordSession session = new CrosswordSession("1+_=6   2+_=5", solver);
+    assertEquals(2, session.getResult().getSolvedGroups());
+
+    CrosswordSession.Result result = session.set(0, 8, '3');
+
+    assertTrue(result.isSatisfiable());
+    assertEquals(1, result.getSolvedGroups());
+    assertEquals(5, session.getValue(0, 2));
+    assertEquals(2, session.getValue(0, 10));
+  }
+
+  @Test
+  @DisplayName("reportConflictOfEditedCell")
+  void testConflict() throws Exception {
+    CrosswordSession session = new CrosswordSession(MathCrossword.input, solver);
+
+    CrosswordSession.Result result = session.set(0, 0, '9');
+
+    assertFalse(result.isSatisfiable());
+    Equation first = result.getConflict().get(0);
+    assertEquals(List.of(0, 0, true),
+        List.of(first.getRow(), first.getColumn(), first.isHorizontal()));
+    assertEquals(-1, session.getValue(0, 2));
+    assertTrue(session.set(0, 0, '1').isSatisfiable());
+    assertEquals(5, session.getValue(0, 2));
+  }
+
+  @Test
+  @DisplayName("failOnConflictNotInGroup")
+  void testInvalidConflict() {
+    CrosswordSolver noConflict = (equations, variableCount) -> Optional.empty();
+    CrosswordSolver foreignConflict = new CrosswordSolver() {
+      @Override
+      public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount) {
+        return Optional.empty();
+      }
+
+      @Override
+      public List<Equation> unsatCore(List<Equation> equations, int variableCount) {
+        Crossword other = new Crossword("9+9=9");
+        other.parseCrossword();
+        return other.getEquations();
+      }
+    };
+
+    assertThrows(SolverException.class, () -> new CrosswordSession("1+_=6", noConflict));
+    assertThrows(SolverException.class, () -> new CrosswordSession("1+_=6", foreignConflict));
+  }
+
+  @Test
+  @DisplayName("rescanLineOfClearedCell")
+  void testClear() throws Exception {
+    CrosswordSession session = new CrosswordSession("1+_=6\n+    \n2    \n=    \n3    ",
+        solver);
+    int equations = session.getEquations().size();
+
+    session.clear(0, 1);
+
+    assertEquals(equations - 1, session.getEquations().size());
+    assertTrue(session.getResult().isSatisfiable());
+    assertThrows(IllegalArgumentException.class, () -> session.set(0, 0, 'x'));
+    assertThrows(IndexOutOfBoundsException.class, () -> session.set(5, 0, '1'));
+  }
+}
@@ -1,5 +1,9 @@
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -73,4 +77,86 @@ public class CrosswordTests {
     assertArrayEquals(expected, actual);
   }
 
-}
\ No newline at end of file
+  @Test
+  @DisplayName("replaceVariablesWithTheirValues")
+  void testReplaceVariablesWithValues() {
+    testCrossword.parseCrossword();
+    assertEquals(14, testCrossword.getVariableCount());
+
+    for (int i = 0; i < testCrossword.getVariableCount(); i++) {
+      testCrossword.setValue(i, i % 10);
+    }
+    testCrossword.replaceVariablesWithValues();
+
+    assertEquals("1+0=6   1\n", testCrossword.toString().substring(0, 10));
+    assertEquals("  1 8-2=3\n", testCrossword.toString().substring(100));
+    assertEquals(Integer.valueOf(3), testCrossword.getVariables().get("x_14"));
+  }
+
+  @Test
+  @DisplayName("renderSolvedGridWithoutChangingIt")
+  void testRender() throws Exception {
+    testCrossword.parseCrossword();
+    int[] values = new int[testCrossword.getVariableCount()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i % 10;
+    }
+    values[13] = -1;
+    testCrossword.updateVariables(values);
+
+    StringBuilder text = new StringBuilder();
+    testCrossword.render(text);
+    ByteBuffer bytes = ByteBuffer.allocate(testCrossword.getRenderedLength());
+    testCrossword.render(bytes);
+
+    assertEquals(testCrossword.getRenderedLength(), text.length());
+    assertEquals("1+0=6   1\n", text.substring(0, 10));
+    assertEquals("  1 8-2=_\n", text.substring(100));
+    assertEquals(text.toString(), new String(bytes.array(), StandardCharsets.US_ASCII));
+    assertEquals("x_1", testCrossword.getCrossword()[0][2]);
+  }
+
+  @Test
+  @DisplayName("scanEquationsOfRowsAndColumns")
+  void testParseEquations() {
+    testCrossword.parseCrossword();
+
+    String[] expected = {
+        "1+x_1=6", "x_3-x_4=3", "x_7*4=x_8", "5-x_9=1", "8/x_10=x_11", "8-x_13=x_14",
+        "x_3*x_6=8", "x_1/x_4=1", "5+x_10=x_12", "6/3=x_7", "x_9+x_11=8", "x_5/4=1",
+        "x_2+2=x_8", "3*1=x_14"
+    };
+    String[] actual = testCrossword.getEquations().stream()
+        .map(Equation::toString).toArray(String[]::new);
+    assertArrayEquals(expected, actual);
+
+    Equation equation = testCrossword.getEquations().get(9);
+    assertEquals(0, equation.getRow());
+    assertEquals(4, equation.getColumn());
+    assertFalse(equation.isHorizontal());
+  }
+
+  @Test
+  @DisplayName("scanUnknownCellNextToDigit")
+  void testParseUnknownNextToDigit() {
+    Crossword crossword = new Crossword("_1+2=3   \n" + "         \n".repeat(10));
+    crossword.parseCrossword();
+
+    assertEquals(1, crossword.getEquations().size());
+    assertEquals("1+2=3", crossword.getEquations().get(0).toString());
+  }
+
+  @Test
+  @DisplayName("parseMultiDigitNumbersInGridOfAnySize")
+  void testParseMultiDigitNumbers() {
+    Crossword crossword = new Crossword("12+_=15\n\n_*7=105");
+    crossword.parseCrossword();
+
+    assertEquals(7, crossword.width);
+    assertEquals(3, crossword.height);
+    assertEquals(2, crossword.getEquations().size());
+    assertEquals("12+x_1=15", crossword.getEquations().get(0).toString());
+    assertEquals("x_2*7=105", crossword.getEquations().get(1).toString());
+  }
+
+}
@@ -0,0 +1,126 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DeduplicatingSolverTests {
+
+  private static final class CountingSolver implements CrosswordSolver {
+    private final AtomicInteger calls = new AtomicInteger();
+    private final long millis;
+
+    CountingSolver(long millis) {
+      this.millis = millis;
+    }
+
+    @Override
+    public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+        throws InterruptedException {
+      calls.incrementAndGet();
+      Thread.sleep(millis);
+      return new NativeSolver().solve(equations, variableCount);
+    }
+  }
+
+  /**
+   * Returns the grid with its rows and columns swapped.
+   */
+  private static String transpose(String input) {
+    String[] rows = input.split("\n");
+    int width = 0;
+    for (String row : rows) {
+      width = Math.max(width, row.length());
+    }
+    StringBuilder sb = new StringBuilder();
+    for (int column = 0; column < width; column++) {
+      for (String row : rows) {
+        sb.append(column < row.length() ? row.charAt(column) : ' ');
+      }
+      sb.append(column + 1 < width ? "\n" : "");
+    }
+    return sb.toString();
+  }
+
+  private static CanonicalForm formOf(Crossword crossword) {
+    return CanonicalForm.of(crossword.getEquations(), crossword.getVariableCount());
+  }
+
+  @Test
+  @DisplayName("giveTransposedGridTheSameForm")
+  void testCanonicalForm() {
+    Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+    Crossword transposed = TestCrosswords.parse(transpose(MathCrossword.input));
+    Crossword changed = TestCrosswords.parse(TestCrosswords.UNSATISFIABLE);
+
+    CanonicalForm form = formOf(crossword);
+
+    assertEquals(form.getKey(), formOf(transposed).getKey());
+    assertNotEquals(form.getKey(), formOf(changed).getKey());
+    assertEquals(crossword.getVariableCount(), form.getVariableCount());
+    assertEquals(crossword.getEquations().size(), form.getEquations().size());
+  }
+
+  @Test
+  @DisplayName("solveEquivalentCrosswordsOnce")
+  void testSolveOnce() throws Exception {
+    CountingSolver delegate = new CountingSolver(0);
+    MetricsRegistry metrics = new MetricsRegistry();
+    Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+    Crossword transposed = TestCrosswords.parse(transpose(MathCrossword.input));
+
+    try (DeduplicatingSolver solver = new DeduplicatingSolver(delegate, 16, metrics)) {
+      Optional<Map<String, Integer>> solution = solver.solve(crossword);
+      Optional<Map<String, Integer>> transposedSolution = solver.solve(transposed);
+
+      assertTrue(solution.isPresent());
+      NativeSolverTests.assertSatisfied(crossword.getEquations(), solution.get());
+      assertTrue(transposedSolution.isPresent());
+      NativeSolverTests.assertSatisfied(transposed.getEquations(), transposedSolution.get());
+      assertEquals(1, delegate.calls.get());
+      assertEquals(1, metrics.getCount(SolverMetrics.Counter.DEDUPLICATED));
+      assertFalse(solver.solve(TestCrosswords.parse(TestCrosswords.UNSATISFIABLE))
+          .isPresent());
+      assertEquals(2, delegate.calls.get());
+    }
+  }
+
+  @Test
+  @DisplayName("waitForEquivalentCrosswordBeingSolved")
+  void testConcurrentDuplicates() throws Exception {
+    CountingSolver delegate = new CountingSolver(200);
+    MetricsRegistry metrics = new MetricsRegistry();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try (DeduplicatingSolver solver = new DeduplicatingSolver(delegate, 16, metrics)) {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        String input = i % 2 == 0 ? MathCrossword.input : transpose(MathCrossword.input);
+        results.add(executor.submit(() -> {
+          Crossword crossword = TestCrosswords.parse(input);
+          Map<String, Integer> solution = solver.solve(crossword).orElseThrow();
+          NativeSolverTests.assertSatisfied(crossword.getEquations(), solution);
+          return true;
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+
+      assertEquals(1, delegate.calls.get());
+      assertEquals(3, metrics.getCount(SolverMetrics.Counter.DEDUPLICATED));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EquationGraphTests {
+
+  @Test
+  @DisplayName("partitionEquationsBySharedVariables")
+  void testComponents() {
+    Crossword crossword = TestCrosswords.parse("1+_=6 _*2=_\n"
+        + "  +       -\n"
+        + "  2       3\n"
+        + "  =       =\n"
+        + "  _       _\n"
+        + "\n"
+        + "4/2=2");
+
+    List<List<Equation>> components =
+        EquationGraph.components(crossword.getEquations(), crossword.getVariableCount());
+
+    assertEquals(3, components.size());
+    assertEquals("1+x_1=6", components.get(0).get(0).toString());
+    assertEquals("x_1+2=x_4", components.get(0).get(1).toString());
+    assertEquals(List.of("x_2*2=x_3", "x_3-3=x_5"),
+        components.get(1).stream().map(Equation::toString).toList());
+    assertEquals("4/2=2", components.get(2).get(0).toString());
+  }
+
+  @Test
+  @DisplayName("solveComponentsSeparately")
+  void testDecomposingSolver() throws Exception {
+    String left = "1+_=6 _*2=_\n  +       -\n  2       3\n  =       =\n  _       _";
+    try (DecomposingSolver solver = new DecomposingSolver(new NativeSolver(), 2)) {
+      Crossword crossword = TestCrosswords.parse(left);
+      Optional<Map<String, Integer>> solution = solver.solve(crossword);
+
+      assertTrue(solution.isPresent());
+      NativeSolverTests.assertSatisfied(crossword.getEquations(), solution.get());
+      assertEquals(7, solution.get().get("x_4"));
+      assertFalse(solver.solve(TestCrosswords.parse(left + "\n\n4/2=3")).isPresent());
+    }
+  }
+
+}
@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+public class LazySolverTests {
+
+  @Test
+  @DisplayName("createDelegateOnFirstCallOnly")
+  void testCreateOnFirstCall() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    LazySolver solver = new LazySolver(() -> {
+      created.incrementAndGet();
+      return new NativeSolver();
+    });
+    assertFalse(solver.isCreated());
+
+    assertTrue(solver.solve(TestCrosswords.parse(MathCrossword.input)).isPresent());
+    assertTrue(solver.solve(TestCrosswords.parse("1+_=6")).isPresent());
+
+    assertTrue(solver.isCreated());
+    assertEquals(1, created.get());
+    solver.close();
+  }
+
+  @Test
+  @DisplayName("neverCreateDelegateOfUnusedSolver")
+  void testUnused() throws Exception {
+    LazySolver solver = new LazySolver(() -> {
+      throw new InvalidConfigurationException("Backend not available");
+    });
+
+    solver.close();
+
+    assertFalse(solver.isCreated());
+    assertThrows(SolverException.class, () -> solver.solve(TestCrosswords.parse("1+_=6")));
+  }
+}
@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MetricsTests {
+
+  @Test
+  @DisplayName("estimatePercentilesWithinBucketError")
+  void testHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1_000_000, histogram.getMax());
+    assertEquals(500_500_000, histogram.getTotal());
+    assertTrue(Math.abs(histogram.getPercentile(50) - 500_000) <= 500_000 / 8);
+    assertTrue(Math.abs(histogram.getPercentile(99) - 990_000) <= 990_000 / 8);
+    assertEquals(1_000_000, histogram.getPercentile(100));
+  }
+
+  @Test
+  @DisplayName("countPhasesAndOutcomes")
+  void testRegistry() throws Exception {
+    MetricsRegistry registry = new MetricsRegistry();
+    CrosswordSolver solver = new MeasuredSolver(new NativeSolver(registry), registry);
+
+    solver.solve(TestCrosswords.parse(MathCrossword.input));
+    solver.solve(TestCrosswords.parse(TestCrosswords.UNSATISFIABLE));
+
+    assertEquals(2, registry.getCount(SolverMetrics.Counter.CROSSWORDS));
+    assertEquals(1, registry.getCount(SolverMetrics.Counter.SATISFIABLE));
+    assertEquals(1, registry.getCount(SolverMetrics.Counter.UNSATISFIABLE));
+    assertEquals(2 * TestCrosswords.parse(MathCrossword.input).getVariableCount(),
+        registry.getCount(SolverMetrics.Counter.VARIABLES));
+    assertEquals(2, registry.getHistogram(SolverMetrics.Phase.SOLVE).getCount());
+    assertEquals(2, registry.getHistogram(SolverMetrics.Phase.CHECK).getCount());
+    assertEquals(1, registry.getHistogram(SolverMetrics.Phase.MODEL).getCount());
+    assertTrue(registry.report().contains("SATISFIABLE=1"));
+  }
+
+  @Test
+  @DisplayName("emitFlightRecorderEvents")
+  void testJfrEvents() throws Exception {
+    Path file = Files.createTempFile("metrics", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("mathcrossword.Phase");
+      recording.enable("mathcrossword.Counter");
+      recording.start();
+      JfrMetrics metrics = new JfrMetrics();
+      new MeasuredSolver(new NativeSolver(metrics), metrics)
+          .solve(TestCrosswords.parse(MathCrossword.input));
+      recording.stop();
+      recording.dump(file);
+    }
+
+    Set<String> events = RecordingFile.readAllEvents(file).stream()
+        .map(event -> event.getEventType().getName() + ":"
+            + (event.hasField("phase") ? event.getString("phase") : event.getString("counter")))
+        .collect(Collectors.toSet());
+    assertTrue(events.contains("mathcrossword.Phase:SOLVE"));
+    assertTrue(events.contains("mathcrossword.Phase:CHECK"));
+    assertTrue(events.contains("mathcrossword.Counter:SATISFIABLE"));
+    Files.delete(file);
+  }
+}
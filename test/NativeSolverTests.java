@@ -0,0 +1,137 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NativeSolverTests {
+
+  @Test
+  @DisplayName("solveExampleCrossword")
+  void testSolveExampleCrossword() {
+    Crossword crossword = new Crossword(MathCrossword.input);
+    crossword.parseCrossword();
+
+    Optional<Map<String, Integer>> solution = new NativeSolver().solve(crossword);
+
+    assertTrue(solution.isPresent());
+    assertSatisfied(crossword.getEquations(), solution.get());
+  }
+
+  @Test
+  @DisplayName("detectUnsatisfiableCrossword")
+  void testUnsatisfiableCrossword() {
+    Crossword crossword = new Crossword(TestCrosswords.UNSATISFIABLE);
+    crossword.parseCrossword();
+
+    assertFalse(new NativeSolver().solve(crossword).isPresent());
+  }
+
+  @Test
+  @DisplayName("solveLargeGridWithMultiDigitNumbers")
+  void testSolveLargeGrid() {
+    String[] rows = (MathCrossword.input + "\n         ").split("\n");
+    StringBuilder grid = new StringBuilder();
+    for (int tileRow = 0; tileRow < 8; tileRow++) {
+      for (int i = 0; i < rows.length; i++) {
+        grid.append((rows[i] + " ").repeat(10)).append(i == 0 ? "12+_=15" : "").append('\n');
+      }
+    }
+    Crossword crossword = new Crossword(grid.toString());
+    crossword.parseCrossword();
+
+    Optional<Map<String, Integer>> solution = new NativeSolver().solve(crossword);
+
+    assertEquals(96, crossword.height);
+    assertEquals(1128, crossword.getVariableCount());
+    assertTrue(solution.isPresent());
+    assertSatisfied(crossword.getEquations(), solution.get());
+  }
+
+  @Test
+  @DisplayName("enumerateDistinctSolutionsUpToLimit")
+  void testEnumerateSolutions() {
+    Crossword crossword = new Crossword("_+_=4\n  -  \n  _  \n  =  \n  1  ");
+    crossword.parseCrossword();
+    NativeSolver solver = new NativeSolver();
+    Set<Map<String, Integer>> solutions = new HashSet<>();
+
+    long count = solver.enumerate(crossword, Long.MAX_VALUE, solution -> {
+      assertSatisfied(crossword.getEquations(), solution);
+      solutions.add(solution);
+    });
+
+    assertEquals(4, count);
+    assertEquals(4, solutions.size());
+    assertEquals(2, solver.enumerate(crossword, 2, solution -> { }));
+    assertFalse(solver.isUnique(crossword));
+  }
+
+  @Test
+  @DisplayName("proveExampleCrosswordUnique")
+  void testExampleCrosswordUnique() {
+    Crossword crossword = new Crossword(MathCrossword.input);
+    crossword.parseCrossword();
+
+    assertTrue(new NativeSolver().isUnique(crossword));
+  }
+
+  @Test
+  @DisplayName("findMinimalConflictingEquations")
+  void testUnsatCore() throws Exception {
+    Crossword crossword = new Crossword(TestCrosswords.UNSATISFIABLE);
+    crossword.parseCrossword();
+    NativeSolver solver = new NativeSolver();
+
+    List<Equation> core = solver.unsatCore(crossword);
+
+    assertFalse(core.isEmpty());
+    assertTrue(core.size() < crossword.getEquations().size());
+    assertMinimalCore(solver, core, crossword.getVariableCount());
+    Crossword satisfiable = new Crossword(MathCrossword.input);
+    satisfiable.parseCrossword();
+    assertTrue(solver.unsatCore(satisfiable).isEmpty());
+  }
+
+  /**
+   * Checks that the equations are unsatisfiable and that they are satisfiable without any one
+   * of them.
+   */
+  static void assertMinimalCore(CrosswordSolver solver, List<Equation> core, int variableCount)
+      throws Exception {
+    assertFalse(solver.solve(core, variableCount).isPresent());
+    for (int i = 0; i < core.size(); i++) {
+      List<Equation> rest = new ArrayList<>(core);
+      rest.remove(i);
+      assertTrue(solver.solve(rest, variableCount).isPresent(), core.get(i).toString());
+    }
+  }
+
+  /**
+   * Asserts that the given values are digits and satisfy every equation.
+   */
+  static void assertSatisfied(List<Equation> equations, Map<String, Integer> values) {
+    for (Equation equation : equations) {
+      String[] operationSide = equation.getOperationSide();
+      long a = valueOf(operationSide[0], values);
+      long b = valueOf(operationSide[1], values);
+      long c = valueOf(equation.getResultSide(), values);
+      assertEquals(c, NativeSolver.apply(equation.getOperation().charAt(0), a, b));
+    }
+    for (Map.Entry<String, Integer> entry : values.entrySet()) {
+      assertTrue(entry.getValue() >= 0 && entry.getValue() <= 9, entry.getKey());
+    }
+  }
+
+  private static long valueOf(String operand, Map<String, Integer> values) {
+    return operand.startsWith("x_") ? values.get(operand) : Long.parseLong(operand);
+  }
+
+}
@@ -0,0 +1,167 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+public class PortfolioSolverTests {
+
+  /**
+   * A solver that never answers and only returns once its call is cancelled.
+   */
+  private static final class StuckSolver implements CrosswordSolver {
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    @Override
+    public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+        throws InterruptedException {
+      throw new InterruptedException("A stuck solver needs a notifier");
+    }
+
+    @Override
+    public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                                ShutdownNotifier notifier)
+        throws InterruptedException {
+      while (!notifier.shouldShutdown()) {
+        Thread.sleep(1);
+      }
+      cancelled.countDown();
+      notifier.shutdownIfNecessary();
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  @DisplayName("stopSolverAfterDeadline")
+  void testDeadline() throws Exception {
+    StuckSolver stuck = new StuckSolver();
+    try (DeadlineSolver solver = new DeadlineSolver(stuck, 50)) {
+      assertThrows(SolverTimeoutException.class, () -> solver.solve(TestCrosswords.parse("1+_=6")));
+      assertTrue(stuck.cancelled.await(1, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  @DisplayName("answerWithinDeadline")
+  void testWithinDeadline() throws Exception {
+    try (DeadlineSolver solver = new DeadlineSolver(new NativeSolver(), 10_000)) {
+      assertEquals(5, solver.solve(TestCrosswords.parse("1+_=6")).get().get("x_1"));
+    }
+  }
+
+  @Test
+  @DisplayName("stopNativeSolverOnShutdownRequest")
+  void testCancelNativeSolver() {
+    ShutdownManager shutdown = ShutdownManager.create();
+    shutdown.requestShutdown("cancelled");
+    Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+
+    assertThrows(InterruptedException.class, () -> new NativeSolver()
+        .solve(crossword.getEquations(), crossword.getVariableCount(), shutdown.getNotifier()));
+  }
+
+  @Test
+  @DisplayName("returnFirstAnswerAndCancelOtherSolvers")
+  void testRace() throws Exception {
+    StuckSolver stuck = new StuckSolver();
+    try (PortfolioSolver solver = new PortfolioSolver(
+        List.of(stuck, new TestCrosswords.FailingSolver(), new NativeSolver()))) {
+      Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+      Optional<Map<String, Integer>> solution = solver.solve(crossword);
+
+      assertTrue(solution.isPresent());
+      NativeSolverTests.assertSatisfied(crossword.getEquations(), solution.get());
+      assertTrue(stuck.cancelled.await(1, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  @DisplayName("reuseMemberThreadsAcrossRaces")
+  void testMemberThreads() throws Exception {
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    CrosswordSolver recording = (equations, variableCount) -> {
+      threads.add(Thread.currentThread());
+      return new NativeSolver().solve(equations, variableCount);
+    };
+    try (PortfolioSolver solver = new PortfolioSolver(List.of(recording), 2)) {
+      for (int i = 0; i < 20; i++) {
+        assertTrue(solver.solve(TestCrosswords.parse("1+_=6")).isPresent());
+      }
+    }
+
+    assertTrue(threads.size() <= 2, threads.toString());
+  }
+
+  @Test
+  @DisplayName("skipMembersThatHadNotStarted")
+  void testSkipWaitingMembers() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    CrosswordSolver slow = new CrosswordSolver() {
+      @Override
+      public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+          throws InterruptedException {
+        return solve(equations, variableCount, ShutdownNotifier.createDummy());
+      }
+
+      @Override
+      public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount,
+                                                  ShutdownNotifier notifier)
+          throws InterruptedException {
+        calls.incrementAndGet();
+        Thread.sleep(200);
+        return Optional.empty();
+      }
+    };
+    try (PortfolioSolver solver = new PortfolioSolver(List.of(new NativeSolver(), slow), 1)) {
+      assertTrue(solver.solve(TestCrosswords.parse("1+_=6")).isPresent());
+      assertTrue(solver.solve(TestCrosswords.parse("1+_=6")).isPresent());
+      Thread.sleep(500);
+    }
+
+    assertTrue(calls.get() <= 1, calls + " calls");
+  }
+
+  @Test
+  @DisplayName("raceMembersWithOneDivision")
+  void testUniformDivision() throws Exception {
+    Configuration config = Configuration.builder()
+        .setOption("crossword.portfolio", "native,smtinterpol")
+        .setOption("crossword.presolve", "false")
+        .build();
+    try (CrosswordSolver solver =
+             MathCrossword.createSolver(config, new CrosswordOptions(config), SolverMetrics.NONE)) {
+      for (int i = 0; i < 5; i++) {
+        assertEquals(3, solver.solve(TestCrosswords.parse("7/2=_")).orElseThrow().get("x_1"));
+      }
+    }
+
+    Configuration mixed = Configuration.builder()
+        .setOption("crossword.portfolio", "native,smtinterpol,smtinterpol:bitvector")
+        .build();
+    assertThrows(InvalidConfigurationException.class, () ->
+        MathCrossword.createSolver(mixed, new CrosswordOptions(mixed), SolverMetrics.NONE));
+  }
+
+  @Test
+  @DisplayName("failIfEverySolverFails")
+  void testAllFail() {
+    try (PortfolioSolver solver = new PortfolioSolver(
+        List.of(new TestCrosswords.FailingSolver(), new TestCrosswords.FailingSolver()))) {
+      assertThrows(SolverException.class, () -> solver.solve(TestCrosswords.parse("1+_=6")));
+    }
+  }
+}
@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PresolverTests {
+
+  @Test
+  @DisplayName("fixCellsForcedBySingleUnknown")
+  void testForcedCells() {
+    Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+
+    Presolver.Result result =
+        Presolver.presolve(crossword.getEquations(), crossword.getVariableCount());
+
+    assertFalse(result.isContradiction());
+    assertEquals(5, result.getValue(0));
+    assertTrue(result.getFixedCount() > 1);
+    assertTrue(result.getCore().size() < crossword.getEquations().size());
+  }
+
+  @Test
+  @DisplayName("detectContradictionWithoutSolver")
+  void testContradiction() throws Exception {
+    TestCrosswords.RecordingSolver delegate = new TestCrosswords.RecordingSolver();
+    Crossword crossword = TestCrosswords.parse("_*0=5");
+
+    assertTrue(Presolver.presolve(crossword.getEquations(), 1).isContradiction());
+    assertTrue(new PresolvingSolver(delegate, SolverMetrics.NONE).solve(crossword).isEmpty());
+    assertTrue(delegate.calls.isEmpty());
+  }
+
+  @Test
+  @DisplayName("solveExampleCrosswordWithPresolving")
+  void testSolveWithPresolving() throws Exception {
+    TestCrosswords.RecordingSolver delegate = new TestCrosswords.RecordingSolver();
+    MetricsRegistry metrics = new MetricsRegistry();
+    Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+
+    Optional<Map<String, Integer>> solution =
+        new PresolvingSolver(delegate, metrics).solve(crossword);
+
+    assertTrue(solution.isPresent());
+    assertEquals(crossword.getVariableCount(), solution.get().size());
+    NativeSolverTests.assertSatisfied(crossword.getEquations(), solution.get());
+    assertTrue(delegate.calls.stream().allMatch(
+        core -> core.size() < crossword.getEquations().size()));
+    assertTrue(metrics.getCount(SolverMetrics.Counter.FORCED_CELLS) > 0);
+    assertEquals(1, metrics.getHistogram(SolverMetrics.Phase.PRESOLVE).getCount());
+  }
+
+  @Test
+  @DisplayName("passUnforcedEquationsToSolver")
+  void testCore() throws Exception {
+    TestCrosswords.RecordingSolver delegate = new TestCrosswords.RecordingSolver();
+    Crossword crossword = TestCrosswords.parse("_+_=4\n  -  \n  _  \n  =  \n  1  ");
+    Optional<Map<String, Integer>> solution =
+        new PresolvingSolver(delegate, SolverMetrics.NONE).solve(crossword);
+
+    assertEquals(1, delegate.calls.size());
+    assertEquals(2, delegate.calls.get(0).size());
+    NativeSolverTests.assertSatisfied(crossword.getEquations(), solution.get());
+    assertEquals(4, new PresolvingSolver(new NativeSolver(), SolverMetrics.NONE)
+        .enumerate(crossword, 10, values -> { }));
+  }
+
+  @Test
+  @DisplayName("presolveWithExactOrIntegerDivision")
+  void testDivision() {
+    List<Equation> equations = TestCrosswords.parse("7/2=_").getEquations();
+
+    assertTrue(Presolver.presolve(equations, 1).isContradiction());
+    Presolver.Result integer = Presolver.presolve(equations, 1, false);
+    assertFalse(integer.isContradiction());
+    assertEquals(3, integer.getValue(0));
+    assertTrue(integer.getCore().isEmpty());
+
+    Presolver.Result byZero =
+        Presolver.presolve(TestCrosswords.parse("7/0=_").getEquations(), 1, false);
+    assertFalse(byZero.isContradiction());
+    assertEquals(-1, byZero.getValue(0));
+    assertEquals(1, byZero.getCore().size());
+    Presolver.Result byUnknown =
+        Presolver.presolve(TestCrosswords.parse("7/_=3").getEquations(), 1, false);
+    assertFalse(byUnknown.isContradiction());
+    assertEquals(1, byUnknown.getCore().size());
+  }
+}
@@ -0,0 +1,207 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PuzzleChannelTests {
+
+  private static List<String> read(byte[] bytes, PuzzleFormat format, int bufferSize) {
+    List<String> puzzles = new ArrayList<>();
+    new PuzzleChannelReader(Channels.newChannel(new ByteArrayInputStream(bytes)), format,
+        bufferSize).forEach(crossword -> puzzles.add(crossword.toString()));
+    return puzzles;
+  }
+
+  @Test
+  @DisplayName("readTextPuzzlesThroughSmallBuffer")
+  void testReadText() {
+    String text = "\n\r\n" + MathCrossword.input.replace("\n", "\r\n") + "\r\n\r\n\n"
+        + TestCrosswords.UNSATISFIABLE + "\n\n1+_=6";
+
+    List<String> puzzles = read(text.getBytes(StandardCharsets.US_ASCII), PuzzleFormat.TEXT, 16);
+
+    assertEquals(List.of(new Crossword(MathCrossword.input).toString(),
+        new Crossword(TestCrosswords.UNSATISFIABLE).toString(), "1+_=6\n"), puzzles);
+  }
+
+  @Test
+  @DisplayName("writeAndReadLengthPrefixedPuzzles")
+  void testBinaryRoundTrip() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (PuzzleChannelWriter writer =
+             new PuzzleChannelWriter(Channels.newChannel(bytes), PuzzleFormat.BINARY, 16)) {
+      writer.write(new Crossword(MathCrossword.input));
+      writer.write("1+_=6\n\n  _");
+      writer.write(new Crossword(TestCrosswords.UNSATISFIABLE));
+    }
+
+    List<String> puzzles = read(bytes.toByteArray(), PuzzleFormat.BINARY, 16);
+
+    assertEquals(List.of(new Crossword(MathCrossword.input).toString(), "1+_=6\n     \n  _  \n",
+        new Crossword(TestCrosswords.UNSATISFIABLE).toString()), puzzles);
+  }
+
+  @Test
+  @DisplayName("writeAndReadPackedPuzzlesWithSolutions")
+  void testPackedRoundTrip() throws Exception {
+    Crossword solved = new Crossword(MathCrossword.input);
+    solved.parseCrossword();
+    solved.updateVariables(new NativeSolver().solve(solved).orElseThrow());
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (PuzzleChannelWriter writer =
+             new PuzzleChannelWriter(Channels.newChannel(bytes), PuzzleFormat.PACKED, 16)) {
+      writer.write(new Crossword(MathCrossword.input));
+      writer.write(solved);
+      writer.write(new Crossword("1+_=6\n\n  _"));
+    }
+
+    List<String> puzzles = read(bytes.toByteArray(), PuzzleFormat.PACKED, 16);
+
+    assertEquals(List.of(new Crossword(MathCrossword.input).toString(), solved.toString(),
+        "1+_=6\n     \n  _  \n"), puzzles);
+    assertTrue(PackedCrossword.sizeOf(solved) * 2 < MathCrossword.input.length());
+  }
+
+  @Test
+  @DisplayName("decodePackedPuzzleIntoModel")
+  void testPackedModel() {
+    Crossword solved = new Crossword(MathCrossword.input);
+    solved.parseCrossword();
+    solved.updateVariables(new int[] {4});
+    ByteBuffer record = ByteBuffer.allocate(PackedCrossword.sizeOf(solved));
+    PackedCrossword.write(solved, record);
+    record.flip();
+
+    Crossword loaded = PackedCrossword.read(record);
+
+    assertEquals(0, record.remaining());
+    assertEquals(solved.getEquations().toString(), loaded.getEquations().toString());
+    assertEquals(solved.getVariableCount(), loaded.getVariableCount());
+    assertEquals(4, loaded.getValue(0));
+    assertEquals(-1, loaded.getValue(1));
+    assertEquals(solved.toString(), loaded.toString());
+  }
+
+  @Test
+  @DisplayName("keepVariablesOfPackedBatchOutput")
+  void testPackedBatchRoundTrip() throws Exception {
+    Path input = Files.createTempFile("puzzles", ".packed");
+    Path output = Files.createTempFile("solutions", ".packed");
+    try (PuzzleChannelWriter writer = new PuzzleChannelWriter(
+        FileChannel.open(input, StandardOpenOption.WRITE), PuzzleFormat.PACKED)) {
+      writer.write(new Crossword(MathCrossword.input));
+      writer.write(new Crossword("1+_=6"));
+    }
+
+    MathCrossword.main(new String[] {"--crossword.mode=native",
+        "--crossword.batch=" + input, "--crossword.format=packed",
+        "--crossword.output=" + output});
+    List<Crossword> solved = new ArrayList<>();
+    new PuzzleChannelReader(FileChannel.open(output), PuzzleFormat.PACKED).forEach(solved::add);
+
+    assertEquals(2, solved.size());
+    for (int i = 0; i < solved.size(); i++) {
+      Crossword puzzle = new Crossword(i == 0 ? MathCrossword.input : "1+_=6");
+      puzzle.parseCrossword();
+      Crossword crossword = solved.get(i);
+      assertEquals(puzzle.toString(), crossword.toString());
+      assertEquals(puzzle.getVariableCount(), crossword.getVariableCount());
+      Map<String, Integer> values = new HashMap<>();
+      for (int variable = 0; variable < crossword.getVariableCount(); variable++) {
+        values.put(Equation.nameOf(variable), crossword.getValue(variable));
+      }
+      NativeSolverTests.assertSatisfied(crossword.getEquations(), values);
+    }
+  }
+
+  @Test
+  @DisplayName("rejectRecordTooLongToPack")
+  void testPackedRecordTooLong() {
+    StringBuilder grid = new StringBuilder();
+    for (int row = 0; row < 255; row++) {
+      grid.append("_".repeat(255)).append('\n');
+    }
+    Crossword crossword = new Crossword(grid.toString());
+    crossword.parseCrossword();
+    PackedCrossword.sizeOf(crossword);
+    for (int variable = 0; variable < crossword.getVariableCount(); variable++) {
+      crossword.setValue(variable, 1);
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> PackedCrossword.sizeOf(crossword));
+  }
+
+  @Test
+  @DisplayName("writePackedStatusRecords")
+  void testPackedStatus() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (PuzzleChannelWriter writer =
+             new PuzzleChannelWriter(Channels.newChannel(bytes), PuzzleFormat.PACKED, 16)) {
+      writer.write("Unsatisfiable");
+    }
+    ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+
+    assertTrue(PackedCrossword.isStatus(record, 0));
+    assertEquals("Unsatisfiable", PackedCrossword.readStatus(record));
+    assertEquals(0, record.remaining());
+    assertThrows(UncheckedIOException.class,
+        () -> read(bytes.toByteArray(), PuzzleFormat.PACKED, 16));
+  }
+
+  @Test
+  @DisplayName("rejectTruncatedRecord")
+  void testTruncatedRecord() {
+    byte[] bytes = {0, 0, 0, 9, '1', '+'};
+
+    assertThrows(UncheckedIOException.class, () -> read(bytes, PuzzleFormat.BINARY, 16));
+  }
+
+  @Test
+  @DisplayName("solveStreamedBatch")
+  void testSolveStreamedBatch() throws Exception {
+    String text = MathCrossword.input + "\n\n" + TestCrosswords.UNSATISFIABLE + "\n";
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    try (BatchSolver batchSolver = new BatchSolver(new NativeSolver(), 2);
+         PuzzleChannelWriter writer =
+             new PuzzleChannelWriter(Channels.newChannel(bytes), PuzzleFormat.TEXT)) {
+      batchSolver.solveCrosswords(new PuzzleChannelReader(Channels.newChannel(
+          new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII))), PuzzleFormat.TEXT),
+          true, result -> {
+            try {
+              if (result.getStatus() == BatchSolver.Status.SOLVED) {
+                writer.write(result.getCrossword());
+              } else {
+                writer.write(result.getStatus().toString());
+              }
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    }
+
+    String[] records = bytes.toString(StandardCharsets.US_ASCII).split("\n\n");
+    assertEquals(2, records.length);
+    assertEquals(11, records[0].split("\n").length);
+    assertFalse(records[0].contains("_"));
+    assertEquals("UNSATISFIABLE", records[1].trim());
+  }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PuzzleGeneratorTests {
+
+  @Test
+  @DisplayName("generateUniquePuzzles")
+  void testGenerateUniquePuzzles() {
+    PuzzleGenerator generator = new PuzzleGenerator(9, 11, 6, 42);
+    ForkJoinPool pool = new ForkJoinPool(2);
+    List<String> puzzles = generator.generate(pool, 0, 16);
+    pool.shutdown();
+
+    assertEquals(16, puzzles.size());
+    for (String puzzle : puzzles) {
+      Crossword crossword = new Crossword(puzzle);
+      crossword.parseCrossword();
+      assertEquals(9, crossword.width);
+      assertEquals(11, crossword.height);
+      assertEquals(6, crossword.getEquations().size());
+      assertTrue(crossword.getVariableCount() > 0);
+      assertTrue(new NativeSolver().isUnique(crossword), puzzle);
+    }
+  }
+
+  @Test
+  @DisplayName("generateSamePuzzlesOnAnyNumberOfThreads")
+  void testDeterministic() {
+    PuzzleGenerator generator = new PuzzleGenerator(9, 11, 6, 7);
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool parallel = new ForkJoinPool(4);
+
+    assertEquals(generator.generate(single, 3, 8), generator.generate(parallel, 3, 8));
+    assertEquals(generator.generate(5), generator.generate(single, 5, 1).get(0));
+    single.shutdown();
+    parallel.shutdown();
+  }
+
+  @Test
+  @DisplayName("generatePuzzlesUniqueWithIntegerDivision")
+  void testIntegerDivision() {
+    PuzzleGenerator generator = new PuzzleGenerator(9, 11, 6, 42, false);
+    NativeSolver integer = new NativeSolver(SolverMetrics.NONE, false);
+
+    assertEquals(2, integer.enumerate(TestCrosswords.parse("_/2=3"), 10, solution -> { }));
+    for (long index = 0; index < 8; index++) {
+      String puzzle = generator.generate(index);
+      assertTrue(integer.isUnique(TestCrosswords.parse(puzzle)), puzzle);
+      assertTrue(new NativeSolver().isUnique(TestCrosswords.parse(puzzle)), puzzle);
+    }
+  }
+
+  @Test
+  @DisplayName("rejectEquationCountsThatDoNotFit")
+  void testInvalidEquationCount() {
+    assertThrows(IllegalArgumentException.class, () -> new PuzzleGenerator(9, 11, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new PuzzleGenerator(9, 11, 40, 1));
+    PuzzleGenerator crowded = new PuzzleGenerator(9, 11, 16, 1);
+    assertThrows(IllegalStateException.class, () -> crowded.generate(0));
+  }
+}
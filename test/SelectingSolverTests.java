@@ -0,0 +1,136 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+public class SelectingSolverTests {
+
+  private static final class SlowSolver implements CrosswordSolver {
+    private final long millis;
+
+    SlowSolver(long millis) {
+      this.millis = millis;
+    }
+
+    @Override
+    public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+        throws InterruptedException {
+      Thread.sleep(millis);
+      return new NativeSolver().solve(equations, variableCount);
+    }
+  }
+
+  @Test
+  @DisplayName("extractFeaturesOfEquations")
+  void testFeatures() {
+    Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+
+    PuzzleFeatures features =
+        PuzzleFeatures.of(crossword.getEquations(), crossword.getVariableCount());
+
+    int operators = 0;
+    int unknowns = 0;
+    for (char operator : "+-*/".toCharArray()) {
+      operators += features.getOperatorCount(operator);
+    }
+    for (int i = 0; i <= 3; i++) {
+      unknowns += features.getEquationsWithUnknowns(i);
+    }
+    assertEquals(crossword.getEquations().size(), operators);
+    assertEquals(crossword.getEquations().size(), unknowns);
+    assertEquals(4, features.getOperatorCount('/'));
+    assertTrue(features.getLargestComponent() <= features.getEquationCount());
+    assertTrue(features.getBucket().matches("e\\d+\\.m\\d+\\.d\\d+\\.u\\d+\\.c\\d+"));
+  }
+
+  @Test
+  @DisplayName("learnFastestSolverOfBucket")
+  void testLearnFastest() throws Exception {
+    Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+    Map<String, CrosswordSolver> members = new LinkedHashMap<>();
+    members.put("slow", new SlowSolver(20));
+    members.put("fast", new NativeSolver());
+    SolverProfile profile = new SolverProfile();
+    String bucket = PuzzleFeatures.of(crossword.getEquations(), crossword.getVariableCount())
+        .getBucket();
+
+    try (SelectingSolver solver = new SelectingSolver(members, profile)) {
+      assertEquals("slow", solver.predict(crossword.getEquations(),
+          crossword.getVariableCount()));
+      for (int i = 0; i < 10; i++) {
+        assertTrue(solver.solve(crossword).isPresent());
+      }
+
+      assertEquals("fast", solver.predict(crossword.getEquations(),
+          crossword.getVariableCount()));
+      assertEquals(SelectingSolver.EXPLORE_SAMPLES, profile.getCount(bucket, "slow"));
+      assertEquals(10 - SelectingSolver.EXPLORE_SAMPLES, profile.getCount(bucket, "fast"));
+    }
+  }
+
+  @Test
+  @DisplayName("fallBackWhenSelectedSolverFails")
+  void testFallback() throws Exception {
+    Crossword crossword = TestCrosswords.parse(MathCrossword.input);
+    Map<String, CrosswordSolver> members = new LinkedHashMap<>();
+    members.put("failing", new TestCrosswords.FailingSolver());
+    members.put("native", new NativeSolver());
+
+    try (SelectingSolver solver = new SelectingSolver(members, new SolverProfile())) {
+      for (int i = 0; i < SelectingSolver.EXPLORE_SAMPLES * 2; i++) {
+        assertTrue(solver.solve(crossword).isPresent());
+      }
+
+      assertEquals("native", solver.predict(crossword.getEquations(),
+          crossword.getVariableCount()));
+    }
+  }
+
+  @Test
+  @DisplayName("selectAmongMembersWithOneDivision")
+  void testUniformDivision() throws Exception {
+    Configuration config = Configuration.builder()
+        .setOption("crossword.select", "native,smtinterpol")
+        .setOption("crossword.presolve", "false")
+        .build();
+    try (CrosswordSolver solver =
+             MathCrossword.createSolver(config, new CrosswordOptions(config), SolverMetrics.NONE)) {
+      for (int i = 0; i < SelectingSolver.EXPLORE_SAMPLES * 3; i++) {
+        assertEquals(3, solver.solve(TestCrosswords.parse("7/2=_")).orElseThrow().get("x_1"));
+      }
+    }
+
+    Configuration mixed = Configuration.builder()
+        .setOption("crossword.select", "smtinterpol,smtinterpol:bitvector")
+        .build();
+    assertThrows(InvalidConfigurationException.class, () ->
+        MathCrossword.createSolver(mixed, new CrosswordOptions(mixed), SolverMetrics.NONE));
+  }
+
+  @Test
+  @DisplayName("keepProfileAcrossRuns")
+  void testProfilePersistence() throws Exception {
+    Path file = Files.createTempDirectory("profile").resolve("solvers.profile");
+    SolverProfile profile = new SolverProfile(file);
+    profile.record("e4.m1.d1.u3.c4", "z3", 1000);
+    profile.record("e4.m1.d1.u3.c4", "z3", 2000);
+    profile.save();
+
+    SolverProfile loaded = new SolverProfile(file);
+
+    assertEquals(2, loaded.getCount("e4.m1.d1.u3.c4", "z3"));
+    assertEquals(1200, loaded.getNanos("e4.m1.d1.u3.c4", "z3"), 1);
+    assertEquals(0, loaded.getCount("e4.m1.d1.u3.c4", "native"));
+  }
+}
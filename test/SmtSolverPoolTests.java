@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+
+public class SmtSolverPoolTests {
+
+  private static final String EMPTY_ROWS = "         \n".repeat(10);
+
+  private static Crossword parse(String firstRow) {
+    Crossword crossword = new Crossword(firstRow + "\n" + EMPTY_ROWS);
+    crossword.parseCrossword();
+    return crossword;
+  }
+
+  @Test
+  @DisplayName("solveConsecutivePuzzlesWithOneContext")
+  void testConsecutivePuzzles() throws Exception {
+    try (SmtSolverPool pool = new SmtSolverPool(Configuration.defaultConfiguration(),
+        LogManager.createTestLogManager(), Solvers.SMTINTERPOL)) {
+      Map<String, Integer> first = pool.solve(parse("1+_=6    ")).get();
+      assertFalse(pool.solve(parse("9+_=6    ")).isPresent());
+      Map<String, Integer> second = pool.solve(parse("2+_=6    ")).get();
+
+      assertEquals(5, first.get("x_1"));
+      assertEquals(4, second.get("x_1"));
+    }
+  }
+
+  @Test
+  @DisplayName("presolveWithIntegerDivisionOfEncoding")
+  void testPresolveIntegerDivision() throws Exception {
+    try (SmtSolverPool pool = new SmtSolverPool(Configuration.defaultConfiguration(),
+        LogManager.createTestLogManager(), Solvers.SMTINTERPOL);
+         PresolvingSolver presolving = new PresolvingSolver(new SmtSolverPool(
+             Configuration.defaultConfiguration(), LogManager.createTestLogManager(),
+             Solvers.SMTINTERPOL), SolverMetrics.NONE, false)) {
+      assertEquals(3, pool.solve(parse("7/2=_    ")).get().get("x_1"));
+      assertEquals(3, presolving.solve(parse("7/2=_    ")).get().get("x_1"));
+      assertEquals(pool.solve(parse("_/4=2    ")).isPresent(),
+          presolving.solve(parse("_/4=2    ")).isPresent());
+    }
+  }
+
+  @Test
+  @DisplayName("enumerateSolutionsWithBlockingClauses")
+  void testEnumerateSolutions() throws Exception {
+    try (SmtSolverPool pool = new SmtSolverPool(Configuration.defaultConfiguration(),
+        LogManager.createTestLogManager(), Solvers.SMTINTERPOL)) {
+      Set<Integer> firstOperands = new HashSet<>();
+      long count = pool.enumerate(parse("_+_=2    "), 10,
+          solution -> firstOperands.add(solution.get("x_1")));
+
+      assertEquals(3, count);
+      assertEquals(Set.of(0, 1, 2), firstOperands);
+      assertEquals(2, pool.enumerate(parse("_+_=9    "), 2, solution -> { }));
+      assertTrue(pool.isUnique(parse("1+_=6    ")));
+    }
+  }
+
+  @Test
+  @DisplayName("shareTemplateBetweenPuzzlesWithSameLayout")
+  void testTemplateKey() {
+    EquationTemplate first = EquationTemplate.of(parse("1+_=6    ").getEquations(), 1);
+    EquationTemplate second = EquationTemplate.of(parse("_+3=_    ").getEquations(), 2);
+
+    assertEquals(first.getKey(), second.getKey());
+    assertEquals(3, first.getVariableCount());
+    assertEquals(2, first.getGivens().size());
+    assertEquals(1, second.getGivens().size());
+    assertFalse(first.getKey().equals(
+        EquationTemplate.of(parse("1-_=6    ").getEquations(), 1).getKey()));
+  }
+
+  @Test
+  @DisplayName("solveConsecutivePuzzlesOnTemplates")
+  void testTemplates() throws Exception {
+    try (SmtSolverPool pool = new SmtSolverPool(Configuration.defaultConfiguration(),
+        LogManager.createTestLogManager(), Solvers.SMTINTERPOL, Encoding.INTEGER,
+        SolverMetrics.NONE, true)) {
+      assertEquals(5, pool.solve(parse("1+_=6    ")).get().get("x_1"));
+      assertFalse(pool.solve(parse("9+_=6    ")).isPresent());
+      assertEquals(4, pool.solve(parse("2+_=6    ")).get().get("x_1"));
+      Map<String, Integer> swapped = pool.solve(parse("_+3=_    ")).get();
+      assertEquals(swapped.get("x_1") + 3, swapped.get("x_2"));
+      assertEquals(2, pool.enumerate(parse("_+_=1    "), 10, solution -> { }));
+      assertEquals(7, pool.solve(parse("9-_=2    ")).get().get("x_1"));
+      assertEquals(3, pool.solve(parse("1+_=4    ")).get().get("x_1"));
+      assertFalse(pool.solve(parse("1+_=2 9+1=_")).isPresent());
+    }
+  }
+
+  @Test
+  @DisplayName("findConflictingEquationsWithSelectors")
+  void testUnsatCore() throws Exception {
+    Crossword crossword = new Crossword(
+        "1+_=6 _+1=3\n  +        \n  2        \n  =        \n  9        ");
+    crossword.parseCrossword();
+    try (SmtSolverPool pool = new SmtSolverPool(Configuration.defaultConfiguration(),
+        LogManager.createTestLogManager(), Solvers.SMTINTERPOL)) {
+      List<Equation> core = pool.unsatCore(crossword);
+
+      assertEquals(2, core.size());
+      assertEquals("1+x_1=6", core.get(0).toString());
+      assertEquals("x_1+2=9", core.get(1).toString());
+      NativeSolverTests.assertMinimalCore(new NativeSolver(), core,
+          crossword.getVariableCount());
+      assertTrue(pool.unsatCore(parse("1+_=6    ")).isEmpty());
+    }
+  }
+}
@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SolutionCacheTests {
+
+  @Test
+  @DisplayName("answerRepeatedCrosswordFromCache")
+  void testRepeatedCrossword() throws Exception {
+    TestCrosswords.RecordingSolver delegate = new TestCrosswords.RecordingSolver();
+    CachingSolver solver = new CachingSolver(delegate, new SolutionCache(16, null));
+
+    Crossword first = TestCrosswords.parse(MathCrossword.input);
+    Optional<Map<String, Integer>> solution = solver.solve(first);
+    Crossword second = TestCrosswords.parse(MathCrossword.input);
+    Optional<Map<String, Integer>> cached = solver.solve(second);
+
+    assertEquals(1, delegate.calls.size());
+    assertTrue(cached.isPresent());
+    assertEquals(solution.get(), cached.get());
+    NativeSolverTests.assertSatisfied(second.getEquations(), cached.get());
+    assertEquals(1, solver.getCache().getHits());
+  }
+
+  @Test
+  @DisplayName("solveOnlyNewGroupsOfOverlappingCrossword")
+  void testOverlappingCrossword() throws Exception {
+    TestCrosswords.RecordingSolver delegate = new TestCrosswords.RecordingSolver();
+    CachingSolver solver = new CachingSolver(delegate, new SolutionCache(16, null));
+
+    solver.solve(TestCrosswords.parse("1+_=6 _*2=_"));
+    Crossword crossword = TestCrosswords.parse("2+_=5\n\n_*2=_");
+    Optional<Map<String, Integer>> solution = solver.solve(crossword);
+
+    assertEquals(2, delegate.calls.size());
+    assertEquals(List.of("2+x_1=5"),
+        delegate.calls.get(1).stream().map(Equation::toString).toList());
+    assertTrue(solution.isPresent());
+    NativeSolverTests.assertSatisfied(crossword.getEquations(), solution.get());
+  }
+
+  @Test
+  @DisplayName("cacheUnsatisfiableCrossword")
+  void testUnsatisfiable() throws Exception {
+    TestCrosswords.RecordingSolver delegate = new TestCrosswords.RecordingSolver();
+    CachingSolver solver = new CachingSolver(delegate, new SolutionCache(16, null));
+
+    assertFalse(solver.solve(TestCrosswords.parse("_/0=_")).isPresent());
+    assertFalse(solver.solve(TestCrosswords.parse("\n _/0=_")).isPresent());
+    assertEquals(1, delegate.calls.size());
+  }
+
+  @Test
+  @DisplayName("keepAnswersOfEachDivisionApart")
+  void testDivisionInKey() throws Exception {
+    Path directory = Files.createTempDirectory("solution-cache");
+    CachingSolver exact = new CachingSolver(new NativeSolver(SolverMetrics.NONE, true),
+        new SolutionCache(4, directory), true);
+    CachingSolver integer = new CachingSolver(new NativeSolver(SolverMetrics.NONE, false),
+        new SolutionCache(4, directory), false);
+
+    assertFalse(exact.solve(TestCrosswords.parse("7/2=_")).isPresent());
+    assertEquals(3, integer.solve(TestCrosswords.parse("7/2=_")).orElseThrow().get("x_1"));
+    assertEquals(3, integer.solve(TestCrosswords.parse("7/2=_ _/4=2")).orElseThrow().get("x_1"));
+    assertFalse(exact.solve(TestCrosswords.parse("7/2=_ _/4=2")).isPresent());
+
+    TestCrosswords.RecordingSolver delegate = new TestCrosswords.RecordingSolver();
+    CachingSolver reloaded =
+        new CachingSolver(delegate, new SolutionCache(4, directory), false);
+    assertEquals(3, reloaded.solve(TestCrosswords.parse("7/2=_")).orElseThrow().get("x_1"));
+    assertEquals(0, delegate.calls.size());
+  }
+
+  @Test
+  @DisplayName("evictLeastRecentlyUsedEntry")
+  void testEviction() throws Exception {
+    SolutionCache cache = new SolutionCache(2, null);
+    cache.put("a", new int[] {1});
+    cache.put("b", new int[] {2});
+    cache.get("a");
+    cache.put("c", new int[] {3});
+
+    assertEquals(2, cache.size());
+    assertNull(cache.get("b"));
+    assertArrayEquals(new int[] {1}, cache.get("a").getValues());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  @DisplayName("keepEntriesOnDiskAcrossInstances")
+  void testPersistentTier() throws Exception {
+    Path directory = Files.createTempDirectory("solution-cache");
+    new SolutionCache(4, directory).put("grid\n1+_=6\n", new int[] {5});
+    new SolutionCache(4, directory).put("grid\n_/0=_\n", null);
+
+    SolutionCache cache = new SolutionCache(4, directory);
+    assertArrayEquals(new int[] {5}, cache.get("grid\n1+_=6\n").getValues());
+    assertFalse(cache.get("grid\n_/0=_\n").isSatisfiable());
+    assertNull(cache.get("grid\n2+_=6\n"));
+    assertEquals(2, cache.getDiskHits());
+    assertEquals(1, cache.getMisses());
+  }
+}
@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SolveServerTests {
+
+  /**
+   * A solver that only answers once it is released.
+   */
+  private static final class BlockedSolver implements CrosswordSolver {
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @Override
+    public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+        throws InterruptedException {
+      released.await();
+      return new NativeSolver().solve(equations, variableCount);
+    }
+  }
+
+  private static HttpRequest post(SolveServer server, String puzzle) {
+    return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/solve"))
+        .POST(HttpRequest.BodyPublishers.ofString(puzzle)).build();
+  }
+
+  @Test
+  @DisplayName("solvePostedCrosswords")
+  void testSolve() throws Exception {
+    HttpClient client = HttpClient.newHttpClient();
+    try (SolveServer server = new SolveServer(new NativeSolver(), 0, 2, 64, 4,
+        SolverMetrics.NONE)) {
+      server.start();
+      List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        String puzzle = i % 2 == 0
+            ? MathCrossword.input : TestCrosswords.UNSATISFIABLE;
+        responses.add(client.sendAsync(post(server, puzzle + "\n"),
+            HttpResponse.BodyHandlers.ofString()));
+      }
+
+      for (int i = 0; i < responses.size(); i++) {
+        HttpResponse<String> response = responses.get(i).get(10, TimeUnit.SECONDS);
+        if (i % 2 == 0) {
+          assertEquals(200, response.statusCode());
+          Crossword solved = new Crossword(response.body().stripTrailing());
+          assertEquals(-1, solved.toString().indexOf('_'));
+        } else {
+          assertEquals(422, response.statusCode());
+        }
+      }
+      assertEquals(405, client.send(HttpRequest.newBuilder(post(server, "").uri()).GET().build(),
+          HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+  }
+
+  @Test
+  @DisplayName("rejectRequestsWhenQueueIsFull")
+  void testBackpressure() throws Exception {
+    HttpClient client = HttpClient.newHttpClient();
+    BlockedSolver solver = new BlockedSolver();
+    MetricsRegistry metrics = new MetricsRegistry();
+    try (SolveServer server = new SolveServer(solver, 0, 1, 1, 1, metrics)) {
+      server.start();
+      List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        responses.add(client.sendAsync(post(server, MathCrossword.input),
+            HttpResponse.BodyHandlers.ofString()));
+      }
+
+      HttpResponse<?> rejected = (HttpResponse<?>) CompletableFuture
+          .anyOf(responses.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+      assertEquals(503, rejected.statusCode());
+      assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(null));
+      solver.released.countDown();
+
+      int solved = 0;
+      for (CompletableFuture<HttpResponse<String>> response : responses) {
+        if (response.get(10, TimeUnit.SECONDS).statusCode() == 200) {
+          solved++;
+        }
+      }
+      assertEquals(3 - metrics.getCount(SolverMetrics.Counter.REJECTED), solved);
+    }
+  }
+
+  @Test
+  @DisplayName("reportSolverFailuresWithTheirCause")
+  void testFailure() throws Exception {
+    HttpClient client = HttpClient.newHttpClient();
+    CrosswordSolver overflowing = (equations, variableCount) -> {
+      if (equations.size() > 1) {
+        throw new StackOverflowError("Search too deep");
+      }
+      return new NativeSolver().solve(equations, variableCount);
+    };
+    try (SolveServer server = new SolveServer(overflowing, 0, 1, 4, 2, SolverMetrics.NONE)) {
+      server.start();
+      HttpResponse<String> failed = client.send(post(server, MathCrossword.input),
+          HttpResponse.BodyHandlers.ofString());
+      assertEquals(500, failed.statusCode());
+      assertTrue(failed.body().contains("Search too deep"), failed.body());
+
+      assertEquals(200, client.send(post(server, "1+_=6"),
+          HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+  }
+}
@@ -0,0 +1,55 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * The `TestCrosswords` class holds the crosswords and solvers shared by the tests.
+ */
+final class TestCrosswords {
+
+  /**
+   * The example crossword of `MathCrossword` with a division that has no solution.
+   */
+  static final String UNSATISFIABLE = MathCrossword.input.replace("8/_=_", "7/_=_");
+
+  private TestCrosswords() {
+  }
+
+  /**
+   * Creates a crossword and parses it.
+   *
+   * @param input the text of the crossword
+   * @return the parsed crossword
+   */
+  static Crossword parse(String input) {
+    Crossword crossword = new Crossword(input);
+    crossword.parseCrossword();
+    return crossword;
+  }
+
+  /**
+   * A native solver that records the equations it is asked to solve.
+   */
+  static final class RecordingSolver implements CrosswordSolver {
+    final List<List<Equation>> calls = new ArrayList<>();
+
+    @Override
+    public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount) {
+      calls.add(equations);
+      return new NativeSolver().solve(equations, variableCount);
+    }
+  }
+
+  /**
+   * A solver that always fails.
+   */
+  static final class FailingSolver implements CrosswordSolver {
+    @Override
+    public Optional<Map<String, Integer>> solve(List<Equation> equations, int variableCount)
+        throws SolverException {
+      throw new SolverException("Backend not available");
+    }
+  }
+}